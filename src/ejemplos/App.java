@@ -1,10 +1,16 @@
 package ejemplos;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.Locale;
 
+import ejemplos.comun.ModeloIndices;
+import ejemplos.comun.MonitorEdt;
 import ejemplos.guibasica.EjemploGuiBasica;
 import ejemplos.componentesbasicos.EjemploComponentesBasicos;
 import ejemplos.componentesavanzados.EjemploComponentesAvanzados;
@@ -28,7 +34,9 @@ import ejemplos.lookandfeel.EjemploUIManagerPersonalizado;
  * ║  Esta clase actúa como menú principal del proyecto.         ║
  * ║  Muestra una lista con los 14 ejemplos; al seleccionar uno  ║
  * ║  aparece su descripción y al pulsar "Ejecutar" (o doble     ║
- * ║  clic) se abre la ventana correspondiente.                  ║
+ * ║  clic) se abre la ventana correspondiente. El campo         ║
+ * ║  "Filtrar" deja en la lista solo los que contienen el texto ║
+ * ║  en su nombre o descripción.                                ║
  * ║                                                             ║
  * ║  Estructura de datos interna:                               ║
  * ║    • NOMBRES[]      → textos que se ven en la JList         ║
@@ -41,6 +49,7 @@ import ejemplos.lookandfeel.EjemploUIManagerPersonalizado;
  * ║                                                             ║
  * ║  Conceptos Swing que se usan aquí:                          ║
  * ║    • JList + ListSelectionListener (seleccionar)            ║
+ * ║    • ModeloIndices (la lista muestra un subconjunto)        ║
  * ║    • JSplitPane (dividir lista / descripción)               ║
  * ║    • MouseAdapter (doble clic)                              ║
  * ║    • UIManager + Nimbus (Look & Feel moderno)               ║
@@ -112,19 +121,21 @@ public class App {
                     + "Conceptos: lectura de archivos, Paths, Files, JTextArea.",
 
             "Permite escribir texto en un JTextArea y guardarlo en un fichero (data/archivoGuardado.txt).\n"
-                    + "Usa BufferedWriter / FileWriter para la escritura.\n"
-                    + "Conceptos: escritura de archivos, BufferedWriter, FileWriter.",
+                    + "Guarda en segundo plano con un archivo temporal y un movimiento atómico.\n"
+                    + "Conceptos: escritura de archivos, SwingWorker, FileChannel, Files.move.",
 
             "Abre un diálogo del sistema para seleccionar un archivo y muestra su contenido.\n"
-                    + "Usa JFileChooser con showOpenDialog().\n"
-                    + "Conceptos: JFileChooser, BufferedReader, FileReader.",
+                    + "Usa JFileChooser con showOpenDialog() y lee en segundo plano con la codificación elegida.\n"
+                    + "Conceptos: JFileChooser, SwingWorker, FileChannel, CharsetDecoder.",
 
-            "Tabla de datos con JTable y DefaultTableModel.\n"
-                    + "Permite eliminar filas seleccionadas con un botón.\n"
-                    + "Conceptos: JTable, DefaultTableModel, personalización con UIManager.",
+            "Tabla de datos con JTable y un TableModel propio por columnas.\n"
+                    + "Genera un millón de productos, importa/exporta CSV y ordena en segundo plano.\n"
+                    + "Las filas se guardan en data/productos.dat, proyectado en memoria.\n"
+                    + "Conceptos: JTable, AbstractTableModel, RowSorter, FileChannel.map(), SwingWorker.",
 
             "Aplicación completa que crea directorios y ficheros en disco.\n"
                     + "Usa GridBagLayout para el formulario y java.nio.file para operaciones de ficheros.\n"
+                    + "Modo lote: crea miles de entradas desde un manifiesto con un pool de hilos.\n"
                     + "Conceptos: GridBagLayout, Files.createDirectories, Files.writeString, JFrame (herencia).",
 
             "Permite cambiar el Look & Feel de la ventana en tiempo de ejecución.\n"
@@ -210,6 +221,7 @@ public class App {
     // ║                                                             ║
     // ║  Flujo:                                                     ║
     // ║    1. Aplicar Nimbus como Look & Feel global                ║
+    // ║       (y el MonitorEdt, si se pidió con -D)                 ║
     // ║    2. Crear la ventana principal (JFrame)                   ║
     // ║    3. Montar los componentes: lista, descripción, botón     ║
     // ║    4. Registrar listeners: selección, clic, doble clic      ║
@@ -226,6 +238,10 @@ public class App {
             System.out.println("No se pudo aplicar Nimbus. Usando LookAndFeel por defecto.");
         }
 
+        // Medición opcional del EDT: java -Dejemplos.monitorEdt=100 ejemplos.App
+        // (100 = ms a partir de los cuales se vuelca la pila del EDT en System.err)
+        MonitorEdt.instalarSiSePide();
+
         // ──────────────────────────────────────────────────────────────
         //  Ventana principal (JFrame)
         //  • EXIT_ON_CLOSE → al cerrar esta ventana se cierra toda la app
@@ -246,15 +262,31 @@ public class App {
         // ──────────────────────────────────────────────────────────────
         JLabel titulo = new JLabel("UT5.2 – Ejemplos Java Swing", SwingConstants.CENTER);
         titulo.setFont(new Font("SansSerif", Font.BOLD, 18));
-        panelPrincipal.add(titulo, BorderLayout.NORTH);
+
+        // Campo para filtrar la lista por nombre o descripción
+        JTextField campoFiltro = new JTextField(20);
+        campoFiltro.setToolTipText("Escribe para dejar solo los ejemplos que contienen el texto");
+        JPanel panelFiltro = new JPanel(new FlowLayout(FlowLayout.CENTER, 6, 0));
+        panelFiltro.add(new JLabel("Filtrar:"));
+        panelFiltro.add(campoFiltro);
+
+        JPanel panelNorte = new JPanel(new BorderLayout(0, 8));
+        panelNorte.add(titulo, BorderLayout.NORTH);
+        panelNorte.add(panelFiltro, BorderLayout.SOUTH);
+        panelPrincipal.add(panelNorte, BorderLayout.NORTH);
 
         // ──────────────────────────────────────────────────────────────
         //  JList<String> → lista con los nombres de los 14 ejemplos.
         //  Se envuelve en JScrollPane para que aparezca scroll si
         //  hay más elementos de los que caben en el espacio visible.
         //  SINGLE_SELECTION → solo se puede seleccionar un ejemplo.
+        //
+        //  ModeloIndices: la lista muestra un int[] de posiciones de
+        //  NOMBRES; al filtrar, la fila 2 puede ser el ejemplo 7 →
+        //  modelo.getIndice(fila) devuelve el índice en los 3 arrays.
         // ──────────────────────────────────────────────────────────────
-        JList<String> lista = new JList<>(NOMBRES);
+        ModeloIndices<String> modelo = new ModeloIndices<>(NOMBRES);
+        JList<String> lista = new JList<>(modelo);
         lista.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         lista.setFont(new Font("SansSerif", Font.PLAIN, 14));
         JScrollPane scrollLista = new JScrollPane(lista);
@@ -281,14 +313,58 @@ public class App {
         // solo actualizamos cuando YA ha terminado de seleccionar (false).
         lista.addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
-                int idx = lista.getSelectedIndex();
-                if (idx >= 0 && idx < DESCRIPCIONES.length) {
-                    areaDescripcion.setText(DESCRIPCIONES[idx]);
+                int fila = lista.getSelectedIndex();
+                if (fila >= 0 && fila < modelo.getSize()) {
+                    areaDescripcion.setText(DESCRIPCIONES[modelo.getIndice(fila)]);
                     areaDescripcion.setCaretPosition(0); // scroll al inicio
                 }
             }
         });
 
+        // DocumentListener: cada cambio en el filtro recalcula qué
+        // ejemplos se ven; el modelo solo avisa de las filas que cambian
+        campoFiltro.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filtrar();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filtrar();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // JTextField no tiene formato: no se usa
+            }
+
+            private void filtrar() {
+                String texto = campoFiltro.getText().trim().toLowerCase(Locale.ROOT);
+                int[] visibles = new int[NOMBRES.length];
+                int n = 0;
+                for (int i = 0; i < NOMBRES.length; i++) {
+                    if (NOMBRES[i].toLowerCase(Locale.ROOT).contains(texto)
+                            || DESCRIPCIONES[i].toLowerCase(Locale.ROOT).contains(texto)) {
+                        visibles[n++] = i;
+                    }
+                }
+                // La JList conserva el NÚMERO de fila seleccionado: hay que
+                // moverlo a donde quede el mismo ejemplo (o quitarlo)
+                int seleccionada = lista.getSelectedIndex();
+                int ejemplo = seleccionada >= 0 ? modelo.getIndice(seleccionada) : -1;
+                modelo.mostrar(Arrays.copyOf(visibles, n));
+                int fila = ejemplo >= 0 ? modelo.getFila(ejemplo) : -1;
+                if (fila >= 0) {
+                    lista.setSelectedIndex(fila);
+                    lista.ensureIndexIsVisible(fila);
+                } else if (ejemplo >= 0) {
+                    lista.clearSelection();
+                    areaDescripcion.setText("");
+                }
+            }
+        });
+
         // JSplitPane divide el espacio en dos: lista (arriba) y descripción (abajo).
         // VERTICAL_SPLIT → la barra divisora es horizontal (divide arriba/abajo).
         // setResizeWeight(0.6) → la lista recibe el 60% del espacio disponible.
@@ -306,7 +382,7 @@ public class App {
         // ──────────────────────────────────────────────────────────────
         JButton botonEjecutar = new JButton("\u25B6  Ejecutar Ejemplo");
         botonEjecutar.setFont(new Font("SansSerif", Font.BOLD, 14));
-        botonEjecutar.addActionListener(e -> ejecutarEjemplo(lista, frame));
+        botonEjecutar.addActionListener(e -> ejecutarEjemplo(lista, modelo, frame));
 
         // MouseAdapter: solo sobreescribimos mouseClicked (no necesitamos
         // mousePressed, mouseReleased, etc.).
@@ -315,13 +391,20 @@ public class App {
             @Override
             public void mouseClicked(MouseEvent e) {
                 if (e.getClickCount() == 2) {
-                    ejecutarEjemplo(lista, frame);
+                    ejecutarEjemplo(lista, modelo, frame);
                 }
             }
         });
 
         JPanel panelBoton = new JPanel();
         panelBoton.add(botonEjecutar);
+
+        // Solo con el monitor activo: tabla de latencias por tipo de evento
+        if (MonitorEdt.isInstalado()) {
+            JButton botonLatencias = new JButton("Latencias EDT");
+            botonLatencias.addActionListener(e -> MonitorEdt.mostrarInforme(frame));
+            panelBoton.add(botonLatencias);
+        }
         panelPrincipal.add(panelBoton, BorderLayout.SOUTH);
 
         frame.add(panelPrincipal);
@@ -331,7 +414,8 @@ public class App {
     // ╔═════════════════════════════════════════════════════════════╗
     // ║  4. MÉTODO AUXILIAR – ejecutarEjemplo()                     ║
     // ║                                                             ║
-    // ║  Obtiene el índice seleccionado en la JList y ejecuta       ║
+    // ║  Obtiene el índice seleccionado en la JList (traducido con  ║
+    // ║  el modelo, por si hay filtro) y ejecuta                    ║
     // ║  LANZADORES[idx].run(), que a su vez llama al launch()      ║
     // ║  del ejemplo correspondiente.                               ║
     // ║                                                             ║
@@ -339,15 +423,15 @@ public class App {
     // ║  JOptionPane.showMessageDialog().                           ║
     // ╚═════════════════════════════════════════════════════════════╝
 
-    private static void ejecutarEjemplo(JList<String> lista, JFrame parent) {
-        int idx = lista.getSelectedIndex();
-        if (idx < 0) {
+    private static void ejecutarEjemplo(JList<String> lista, ModeloIndices<String> modelo, JFrame parent) {
+        int fila = lista.getSelectedIndex();
+        if (fila < 0 || fila >= modelo.getSize()) {
             JOptionPane.showMessageDialog(parent,
                     "Selecciona un ejemplo de la lista antes de ejecutar.",
                     "Sin selección",
                     JOptionPane.WARNING_MESSAGE);
             return;
         }
-        LANZADORES[idx].run();
+        LANZADORES[modelo.getIndice(fila)].run();
     }
 }
@@ -0,0 +1,198 @@
+package ejemplos.archivos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  ArchivoMapeado – archivo de texto proyectado en memoria    ║
+ * ║                                                             ║
+ * ║  FileChannel.map() pide al sistema operativo que "proyecte" ║
+ * ║  el archivo en memoria virtual: no se copia nada al heap de ║
+ * ║  Java, las páginas se cargan del disco cuando se tocan.     ║
+ * ║                                                             ║
+ * ║  Encima se construye un ÍNDICE DE LÍNEAS (long[]) en una    ║
+ * ║  sola pasada: inicio[i] = posición en bytes de la línea i.  ║
+ * ║  Con él, leer la línea i es directo: se decodifican solo    ║
+ * ║  sus bytes (UTF-8) y nada más.                              ║
+ * ║                                                             ║
+ * ║  Memoria usada ≈ 8 bytes por línea, no por byte de archivo. ║
+ * ║                                                             ║
+ * ║  Un MappedByteBuffer no puede superar 2 GB, así que el      ║
+ * ║  archivo se proyecta en varios SEGMENTOS de 1 GB.           ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class ArchivoMapeado {
+
+    /** Tamaño de cada segmento proyectado (1 GB). */
+    private static final long TAM_SEGMENTO = 1L << 30;
+
+    /** Una línea más larga que esto se muestra recortada. */
+    static final int MAX_BYTES_LINEA = 16 * 1024;
+
+    private final Path path;
+    private final long tamano;
+    private final MappedByteBuffer[] segmentos;
+
+    /* Índice de líneas: inicios[i] = byte donde empieza la línea i */
+    private long[] inicios = new long[1024];
+    private int numLineas = 0;
+    private int maxBytesLinea = 0;
+
+    private ArchivoMapeado(Path path, long tamano, MappedByteBuffer[] segmentos) {
+        this.path = path;
+        this.tamano = tamano;
+        this.segmentos = segmentos;
+    }
+
+    /**
+     * Proyecta el archivo en memoria (solo lectura). Es casi
+     * instantáneo: todavía no se ha leído ningún byte del disco.
+     */
+    static ArchivoMapeado abrir(Path path) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            int n = (int) ((tamano + TAM_SEGMENTO - 1) / TAM_SEGMENTO);
+            MappedByteBuffer[] segmentos = new MappedByteBuffer[n];
+            for (int i = 0; i < n; i++) {
+                long inicio = i * TAM_SEGMENTO;
+                long longitud = Math.min(TAM_SEGMENTO, tamano - inicio);
+                segmentos[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, longitud);
+            }
+            // La proyección sigue siendo válida después de cerrar el canal
+            return new ArchivoMapeado(path, tamano, segmentos);
+        }
+    }
+
+    /**
+     * Recorre el archivo UNA vez buscando '\n' y rellena el índice.
+     * Pensado para ejecutarse en un hilo de fondo; el callback
+     * recibe el porcentaje recorrido (0-100).
+     *
+     * @return false si se interrumpió el hilo antes de terminar
+     */
+    boolean indexar(IntConsumer progreso) {
+        numLineas = 0;
+        maxBytesLinea = 0;
+        if (tamano == 0) {
+            return true;
+        }
+        agregarInicio(0);
+        long inicioLinea = 0;
+        int ultimoPorcentaje = -1;
+
+        for (int s = 0; s < segmentos.length; s++) {
+            MappedByteBuffer seg = segmentos[s];
+            long base = s * TAM_SEGMENTO;
+            int limite = seg.limit();
+            for (int i = 0; i < limite; i++) {
+                if (seg.get(i) == '\n') {
+                    long siguiente = base + i + 1;
+                    maxBytesLinea = (int) Math.max(maxBytesLinea,
+                            Math.min(MAX_BYTES_LINEA, siguiente - inicioLinea));
+                    if (siguiente < tamano) {
+                        agregarInicio(siguiente);
+                    }
+                    inicioLinea = siguiente;
+                }
+                // Cada 1 MB: informar del progreso y atender la cancelación
+                if ((i & 0xFFFFF) == 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return false;
+                    }
+                    int porcentaje = (int) ((base + i) * 100 / tamano);
+                    if (porcentaje != ultimoPorcentaje) {
+                        ultimoPorcentaje = porcentaje;
+                        progreso.accept(porcentaje);
+                    }
+                }
+            }
+        }
+        maxBytesLinea = (int) Math.max(maxBytesLinea,
+                Math.min(MAX_BYTES_LINEA, tamano - inicioLinea));
+        // Recortar el array sobrante para no desperdiciar memoria
+        inicios = Arrays.copyOf(inicios, Math.max(1, numLineas));
+        progreso.accept(100);
+        return true;
+    }
+
+    private void agregarInicio(long posicion) {
+        if (numLineas == inicios.length) {
+            inicios = Arrays.copyOf(inicios, inicios.length * 2);
+        }
+        inicios[numLineas++] = posicion;
+    }
+
+    /**
+     * Decodifica SOLO la línea pedida (sin el salto de línea final).
+     */
+    String linea(int indice) {
+        long desde = inicios[indice];
+        long hasta = (indice + 1 < numLineas) ? inicios[indice + 1] : tamano;
+
+        // Quitar "\n" y, si el archivo viene de Windows, también "\r"
+        if (hasta > desde && byteEn(hasta - 1) == '\n') {
+            hasta--;
+        }
+        if (hasta > desde && byteEn(hasta - 1) == '\r') {
+            hasta--;
+        }
+
+        boolean recortada = hasta - desde > MAX_BYTES_LINEA;
+        int longitud = (int) Math.min(hasta - desde, MAX_BYTES_LINEA);
+        // Si el corte cae dentro de un carácter UTF-8 de varios bytes, se
+        // retrocede hasta su inicio (10xxxxxx = byte de continuación)
+        while (recortada && longitud > 0 && (byteEn(desde + longitud) & 0xC0) == 0x80) {
+            longitud--;
+        }
+        byte[] bytes = new byte[longitud];
+        copiar(desde, bytes);
+        String texto = new String(bytes, StandardCharsets.UTF_8);
+        return recortada ? texto + " …" : texto;
+    }
+
+    private byte byteEn(long posicion) {
+        return segmentos[(int) (posicion / TAM_SEGMENTO)].get((int) (posicion % TAM_SEGMENTO));
+    }
+
+    /** Copia bytes desde 'posicion', aunque crucen de un segmento a otro. */
+    private void copiar(long posicion, byte[] destino) {
+        int copiados = 0;
+        while (copiados < destino.length) {
+            int s = (int) (posicion / TAM_SEGMENTO);
+            int offset = (int) (posicion % TAM_SEGMENTO);
+            int n = Math.min(destino.length - copiados, segmentos[s].limit() - offset);
+            // duplicate() crea una vista con su propia posición: así no se
+            // altera el buffer compartido (get absoluto con array es Java 13+)
+            ByteBuffer copia = segmentos[s].duplicate();
+            copia.position(offset);
+            copia.get(destino, copiados, n);
+            copiados += n;
+            posicion += n;
+        }
+    }
+
+    int getNumLineas() {
+        return numLineas;
+    }
+
+    /** Longitud (en bytes) de la línea más larga, ya acotada a MAX_BYTES_LINEA. */
+    int getMaxBytesLinea() {
+        return maxBytesLinea;
+    }
+
+    long getTamano() {
+        return tamano;
+    }
+
+    Path getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,129 @@
+package ejemplos.archivos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BooleanSupplier;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  DecodificadorBloques – de bytes a texto, por bloques       ║
+ * ║                                                             ║
+ * ║  Un archivo guarda BYTES; un JTextArea muestra CARACTERES.  ║
+ * ║  El paso de uno a otro lo hace un CharsetDecoder según la   ║
+ * ║  codificación (UTF-8, ISO-8859-1, windows-1252...).         ║
+ * ║                                                             ║
+ * ║  FileReader usa la codificación "por defecto" del sistema,  ║
+ * ║  que cambia de un ordenador a otro. Aquí la codificación    ║
+ * ║  se indica SIEMPRE de forma explícita.                      ║
+ * ║                                                             ║
+ * ║  Se lee con FileChannel en bloques grandes (64 KB): pocas   ║
+ * ║  llamadas al sistema y ninguna cadena intermedia por línea. ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class DecodificadorBloques {
+
+    /** Tamaño de cada bloque leído del disco (64 KB). */
+    static final int TAM_BLOQUE = 64 * 1024;
+
+    /** Recibe cada bloque de caracteres decodificado. */
+    interface Receptor {
+        /**
+         * @param bloque     caracteres listos para leer (se reutiliza:
+         *                   hay que copiarlo antes de volver)
+         * @param bytesLeidos bytes del archivo procesados hasta ahora
+         */
+        void recibir(CharBuffer bloque, long bytesLeidos);
+    }
+
+    private DecodificadorBloques() {
+        // Clase de utilidades: solo métodos estáticos
+    }
+
+    /**
+     * Recorre el archivo entregando bloques decodificados al receptor.
+     * Los bytes mal codificados se sustituyen por '�' en vez de abortar.
+     *
+     * @param cancelado se consulta entre bloques; si devuelve true, se para
+     * @return bytes leídos
+     */
+    static long decodificar(Path path, Charset charset, BooleanSupplier cancelado,
+            Receptor receptor) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            CharsetDecoder decodificador = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer bytes = ByteBuffer.allocate(TAM_BLOQUE);
+            // Espacio para el peor caso: así un bloque siempre se decodifica entero
+            CharBuffer caracteres = CharBuffer.allocate(
+                    (int) Math.ceil(TAM_BLOQUE * decodificador.maxCharsPerByte()));
+            long leidos = 0;
+
+            boolean fin = false;
+            while (!fin && !cancelado.getAsBoolean()) {
+                int n = canal.read(bytes);
+                fin = (n == -1);
+                if (n > 0) {
+                    leidos += n;
+                }
+
+                bytes.flip();
+                decodificador.decode(bytes, caracteres, fin);
+                if (fin) {
+                    decodificador.flush(caracteres);
+                }
+                // compact() conserva los bytes de un carácter partido entre bloques
+                bytes.compact();
+
+                caracteres.flip();
+                receptor.recibir(caracteres, leidos);
+                caracteres.clear();
+            }
+            return leidos;
+        }
+    }
+
+    /**
+     * Lee el archivo completo a un único String. Se reserva la
+     * capacidad de golpe (tamaño en bytes × caracteres por byte)
+     * para que el StringBuilder no tenga que crecer copiando.
+     *
+     * Igual que DefaultEditorKit.read(), convierte los saltos de
+     * línea de Windows ("\r\n") y de Mac antiguo ("\r") en "\n".
+     */
+    static String leerTexto(Path path, Charset charset, BooleanSupplier cancelado)
+            throws IOException {
+        long tamano = Files.size(path);
+        float porByte = charset.newDecoder().averageCharsPerByte();
+        long estimado = (long) (tamano * porByte) + 16;
+        if (estimado > Integer.MAX_VALUE - 16) {
+            throw new IOException("Archivo demasiado grande para un JTextArea ("
+                    + tamano + " bytes)");
+        }
+        StringBuilder texto = new StringBuilder((int) estimado);
+        boolean[] ultimoFueCR = { false }; // "\r" al final del bloque anterior
+
+        decodificar(path, charset, cancelado, (bloque, leidos) -> {
+            while (bloque.hasRemaining()) {
+                char c = bloque.get();
+                if (c == '\r') {
+                    texto.append('\n');
+                    ultimoFueCR[0] = true;
+                } else {
+                    if (c != '\n' || !ultimoFueCR[0]) {
+                        texto.append(c);
+                    }
+                    ultimoFueCR[0] = false;
+                }
+            }
+        });
+        return texto.toString();
+    }
+}
@@ -0,0 +1,534 @@
+package ejemplos.archivos;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  DiarioEdiciones – autoguardado a prueba de cortes          ║
+ * ║                                                             ║
+ * ║  Cada edición del JTextArea (DocumentEvent) se anota en un  ║
+ * ║  DIARIO binario que solo crece por el final (append-only):  ║
+ * ║                                                             ║
+ * ║    INSERTAR offset texto  |  BORRAR offset longitud         ║
+ * ║    INSTANTANEA texto      |  GUARDADO                       ║
+ * ║                                                             ║
+ * ║  • EDT: el DocumentListener solo crea el registro y lo      ║
+ * ║    mete en una cola sin bloqueo → nunca espera al disco.    ║
+ * ║  • Hilo de fondo: cada 200 ms vacía la cola y escribe TODO  ║
+ * ║    el lote con un único force() ("group commit"): aunque se ║
+ * ║    teclee muy rápido, como mucho 5 fsync por segundo.       ║
+ * ║  • Compactación: cuando el diario crece demasiado, se       ║
+ * ║    sustituye (movimiento atómico) por una INSTANTANEA del   ║
+ * ║    texto completo y se sigue anotando detrás.               ║
+ * ║  • Recuperación: al abrir la ventana se lee el diario y se  ║
+ * ║    re-aplican las ediciones. Cada registro lleva un CRC32:  ║
+ * ║    un registro a medias (corte de luz) se descarta.         ║
+ * ║                                                             ║
+ * ║  Si la ventana se cierra sin cambios pendientes de guardar, ║
+ * ║  el diario se borra.                                        ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class DiarioEdiciones implements DocumentListener {
+
+    /** Carpeta donde se guardan los diarios. */
+    static final Path CARPETA = Paths.get("data", ".recuperacion");
+
+    private static final int MAGIA = 0x44494152;  // "DIAR"
+    private static final byte VERSION = 1;
+
+    private static final byte INSERTAR = 1;
+    private static final byte BORRAR = 2;
+    private static final byte INSTANTANEA = 3;
+    private static final byte GUARDADO = 4;
+
+    /** Cada cuánto se vuelca el lote a disco (ms). */
+    private static final int INTERVALO_MS = 200;
+
+    /** A partir de este tamaño el diario se compacta. */
+    private static final long TAM_COMPACTAR = 1024 * 1024;
+
+    // Un diario solo puede tenerlo abierto una ventana a la vez
+    private static final Set<Path> EN_USO = ConcurrentHashMap.newKeySet();
+
+    // Un registro pendiente de escribir (se crea en el EDT)
+    private static class Registro {
+        final byte tipo;
+        final int a;          // offset, o "pendiente" (0/1) en INSTANTANEA
+        final int b;          // nº de caracteres
+        final String texto;   // null en BORRAR y GUARDADO
+
+        Registro(byte tipo, int a, int b, String texto) {
+            this.tipo = tipo;
+            this.a = a;
+            this.b = b;
+            this.texto = texto;
+        }
+    }
+
+    /** Texto reconstruido a partir de un diario. */
+    static class Recuperacion {
+        final String texto;
+        final boolean pendiente;  // hubo ediciones después del último guardado
+        final int registros;
+
+        Recuperacion(String texto, boolean pendiente, int registros) {
+            this.texto = texto;
+            this.pendiente = pendiente;
+            this.registros = registros;
+        }
+    }
+
+    private final Path archivo;
+    private final Document doc;
+    private final Queue<Registro> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean instantaneaSolicitada = new AtomicBoolean(false);
+
+    /* Solo EDT */
+    private long ediciones = 0;       // ediciones anotadas
+    private boolean cerrado = false;
+    private boolean empezado = false; // ya se leyó (y se ofreció) el diario anterior
+    private boolean escuchando = false;
+    private boolean baseSinAnotar = false; // tras cargar(): el texto no está en el diario
+
+    /* Estado del hilo de fondo */
+    private FileChannel canal;
+    private ByteBuffer lote = ByteBuffer.allocate(64 * 1024);
+    private final CRC32 crc = new CRC32();
+    private boolean pendiente = false;
+    private long bytesDiario = 0;
+    private long bytesInstantanea = 0;
+
+    /* Estadísticas (se leen desde el EDT) */
+    private volatile long registrosEscritos = 0;
+    private volatile long sincronizaciones = 0;
+    private volatile long compactaciones = 0;
+
+    private final ScheduledExecutorService escritor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "diario-ediciones");
+        hilo.setDaemon(false); // que la JVM no corte un volcado a medias
+        return hilo;
+    });
+
+    private DiarioEdiciones(Path archivo, Document doc) {
+        this.archivo = archivo;
+        this.doc = doc;
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  CONECTAR A UN JTextArea                                    ║
+    // ║                                                             ║
+    // ║  1. SwingWorker: lee el diario anterior (si existe)         ║
+    // ║  2. done(): si había texto sin guardar, pregunta si se      ║
+    // ║     recupera                                                ║
+    // ║  3. Empieza a anotar: INSTANTANEA inicial + ediciones       ║
+    // ║                                                             ║
+    // ║  Devuelve null si otra ventana ya usa ese diario.           ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    static DiarioEdiciones conectar(String nombre, JTextArea area, JFrame ventana, JLabel etiqueta) {
+        Path ruta = CARPETA.resolve(nombre + ".diario").toAbsolutePath();
+        if (!EN_USO.add(ruta)) {
+            etiqueta.setText("Diario: en uso por otra ventana");
+            return null;
+        }
+        DiarioEdiciones diario = new DiarioEdiciones(ruta, area.getDocument());
+
+        new SwingWorker<Recuperacion, Void>() {
+            @Override
+            protected Recuperacion doInBackground() throws IOException {
+                return Files.exists(ruta) ? leer(ruta) : null;
+            }
+
+            @Override
+            protected void done() {
+                if (diario.cerrado) {
+                    return; // la ventana ya no existe: el diario se ofrecerá la próxima vez
+                }
+                boolean recuperado = false;
+                try {
+                    Recuperacion r = get();
+                    if (r != null && r.pendiente) {
+                        int opcion = JOptionPane.showConfirmDialog(ventana,
+                                "Se ha encontrado texto sin guardar de una sesión anterior\n"
+                                        + "(" + r.texto.length() + " caracteres, "
+                                        + r.registros + " registros en el diario).\n\n"
+                                        + "¿Recuperarlo?",
+                                "Recuperar texto", JOptionPane.YES_NO_OPTION);
+                        if (opcion == JOptionPane.YES_OPTION) {
+                            area.setText(r.texto);
+                            recuperado = true;
+                        }
+                    }
+                } catch (Exception ex) {
+                    // Diario ilegible: se empieza uno nuevo
+                }
+                diario.empezar(recuperado);
+            }
+        }.execute();
+
+        // Estadísticas en la etiqueta, una vez por segundo
+        Timer refresco = new Timer(1000, e -> etiqueta.setText(diario.resumen()));
+        refresco.start();
+        ventana.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                refresco.stop();
+            }
+        });
+        return diario;
+    }
+
+    private void empezar(boolean recuperado) {
+        if (cerrado) {
+            return; // la ventana se cerró antes de terminar la lectura
+        }
+        empezado = true;
+        // Un texto recuperado aún no está guardado en ningún archivo
+        encolarInstantanea(recuperado);
+        doc.addDocumentListener(this);
+        escuchando = true;
+        escritor.scheduleWithFixedDelay(this::volcar, INTERVALO_MS, INTERVALO_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /** Nº de ediciones anotadas hasta ahora (marca para {@link #marcarGuardado}). */
+    long getMarca() {
+        return ediciones;
+    }
+
+    /**
+     * El texto tal como estaba al tomar la marca ya está en disco.
+     * Si no ha habido ediciones desde entonces, el diario queda "limpio".
+     */
+    void marcarGuardado(long marca) {
+        if (marca == ediciones) {
+            cola.offer(new Registro(GUARDADO, 0, 0, null));
+        }
+    }
+
+    /**
+     * Sustituye el texto SIN anotarlo como edición (abrir un archivo,
+     * limpiar…): no hay nada que recuperar, así que el diario queda
+     * "limpio" y no se escribe el texto cargado. Si después el usuario
+     * edita, la primera edición se anota como una instantánea.
+     */
+    void cargar(Runnable carga) {
+        if (!escuchando) {
+            carga.run(); // aún leyendo el diario anterior: empezar() tomará este texto
+            return;
+        }
+        doc.removeDocumentListener(this);
+        try {
+            carga.run();
+        } finally {
+            doc.addDocumentListener(this);
+        }
+        baseSinAnotar = true;
+        cola.offer(new Registro(GUARDADO, 0, 0, null));
+    }
+
+    /**
+     * Vuelca lo pendiente y libera el hilo (llamar desde windowClosed).
+     * Si aún se estaba leyendo el diario anterior, no se toca: su texto
+     * sin guardar se ofrecerá en la próxima sesión.
+     */
+    void cerrar() {
+        cerrado = true;
+        escuchando = false;
+        boolean conservar = !empezado;
+        doc.removeDocumentListener(this);
+        escritor.execute(() -> {
+            volcar();
+            cerrarCanal();
+            if (!pendiente && !conservar) {
+                try {
+                    Files.deleteIfExists(archivo);
+                } catch (IOException ex) {
+                    // Se ofrecerá (vacío) en la próxima sesión; no es grave
+                }
+            }
+            EN_USO.remove(archivo);
+        });
+        escritor.shutdown();
+    }
+
+    String resumen() {
+        return String.format("Diario: %,d ediciones · %,d fsync · %,d compactaciones",
+                registrosEscritos, sincronizaciones, compactaciones);
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  DocumentListener (EDT): solo encolar
+    //
+    //  El evento no trae el texto insertado; hay que copiarlo
+    //  ahora, antes de que el documento vuelva a cambiar.
+    // ──────────────────────────────────────────────────────────────
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        ediciones++;
+        if (baseSinAnotar) {
+            anotarBase();
+            return;
+        }
+        if (e.getLength() > TAM_COMPACTAR) {
+            // Inserción enorme (p. ej. setText de un archivo): mejor una instantánea
+            solicitarInstantanea();
+            return;
+        }
+        try {
+            cola.offer(new Registro(INSERTAR, e.getOffset(), e.getLength(),
+                    doc.getText(e.getOffset(), e.getLength())));
+        } catch (BadLocationException ex) {
+            solicitarInstantanea();
+        }
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        ediciones++;
+        if (baseSinAnotar) {
+            anotarBase();
+            return;
+        }
+        cola.offer(new Registro(BORRAR, e.getOffset(), e.getLength(), null));
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // Solo atributos: el texto no cambia
+    }
+
+    /**
+     * Primera edición tras cargar(): el diario no tiene el texto sobre el
+     * que se aplicaría, así que se anota el documento entero (ya con la
+     * edición) como instantánea pendiente de guardar.
+     */
+    private void anotarBase() {
+        baseSinAnotar = false;
+        encolarInstantanea(true);
+    }
+
+    /** EDT: copia el texto completo y lo encola como instantánea. */
+    private void solicitarInstantanea() {
+        encolarInstantanea(false);
+    }
+
+    private void encolarInstantanea(boolean pendienteDeGuardar) {
+        try {
+            cola.offer(new Registro(INSTANTANEA, pendienteDeGuardar ? 1 : 0, doc.getLength(),
+                    doc.getText(0, doc.getLength())));
+        } catch (BadLocationException ex) {
+            // No ocurre: se pide el documento entero
+        }
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  HILO DE FONDO: volcado por lotes ("group commit")          ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private void volcar() {
+        try {
+            lote.clear();
+            int enLote = 0;
+            Registro r;
+            while ((r = cola.poll()) != null) {
+                if (r.tipo == INSTANTANEA) {
+                    // La instantánea sustituye a todo lo anterior (incluido el lote)
+                    escribirInstantanea(r);
+                    lote.clear();
+                    enLote = 0;
+                    continue;
+                }
+                pendiente = r.tipo != GUARDADO;
+                codificar(r);
+                enLote++;
+            }
+            if (lote.position() > 0 && canal != null) {
+                lote.flip();
+                while (lote.hasRemaining()) {
+                    bytesDiario += canal.write(lote);
+                }
+                canal.force(false); // UN fsync para todo el lote
+                sincronizaciones++;
+                registrosEscritos += enLote;
+            }
+            // ¿Toca compactar? La instantánea debe copiarse en el EDT
+            if (bytesDiario > TAM_COMPACTAR && bytesDiario > 2 * bytesInstantanea
+                    && instantaneaSolicitada.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(this::solicitarInstantanea);
+            }
+        } catch (IOException ex) {
+            // El diario es una red de seguridad: un fallo no debe molestar al usuario.
+            // Se reintenta empezando de nuevo con una instantánea.
+            cerrarCanal();
+            if (instantaneaSolicitada.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(this::solicitarInstantanea);
+            }
+        }
+    }
+
+    /** Escribe la instantánea en un temporal y lo mueve encima del diario. */
+    private void escribirInstantanea(Registro r) throws IOException {
+        Files.createDirectories(archivo.getParent());
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        pendiente |= r.a == 1;
+        lote.clear();
+        lote.putInt(MAGIA).put(VERSION);
+        codificar(new Registro(INSTANTANEA, pendiente ? 1 : 0, r.b, r.texto));
+        lote.flip();
+        try (FileChannel tmp = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (lote.hasRemaining()) {
+                tmp.write(lote);
+            }
+            tmp.force(false);
+        }
+        cerrarCanal();
+        try {
+            Files.move(temporal, archivo,
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+        }
+        canal = FileChannel.open(archivo, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        bytesDiario = canal.size();
+        bytesInstantanea = bytesDiario;
+        sincronizaciones++;
+        compactaciones++;
+        instantaneaSolicitada.set(false);
+    }
+
+    // Formato de un registro: tipo(1) a(4) b(4) n(4) bytes UTF-8(n) crc(4)
+    private void codificar(Registro r) {
+        byte[] bytes = r.texto == null ? new byte[0] : r.texto.getBytes(StandardCharsets.UTF_8);
+        asegurar(17 + bytes.length);
+        int inicio = lote.position();
+        lote.put(r.tipo).putInt(r.a).putInt(r.b).putInt(bytes.length).put(bytes);
+        crc.reset();
+        crc.update(lote.array(), inicio, lote.position() - inicio);
+        lote.putInt((int) crc.getValue());
+    }
+
+    private void asegurar(int extra) {
+        if (lote.remaining() < extra) {
+            ByteBuffer mayor = ByteBuffer.allocate(Math.max(lote.capacity() * 2, lote.position() + extra));
+            lote.flip();
+            mayor.put(lote);
+            lote = mayor;
+        }
+    }
+
+    private void cerrarCanal() {
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException ex) {
+                // Nada más que hacer
+            }
+            canal = null;
+        }
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  RECUPERACIÓN: re-aplicar el diario                         ║
+    // ║                                                             ║
+    // ║  Se lee registro a registro y se para en el primero que     ║
+    // ║  esté incompleto o con el CRC mal (escrito a medias).       ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    static Recuperacion leer(Path ruta) throws IOException {
+        StringBuilder texto = new StringBuilder();
+        boolean pendiente = false;
+        int registros = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(ruta)))) {
+            if (in.readInt() != MAGIA || in.readByte() != VERSION) {
+                throw new IOException("No es un diario de ediciones: " + ruta);
+            }
+            while (true) {
+                byte tipo;
+                int a;
+                int b;
+                byte[] bytes;
+                try {
+                    tipo = in.readByte();
+                    a = in.readInt();
+                    b = in.readInt();
+                    int n = in.readInt();
+                    if (n < 0 || n > Integer.MAX_VALUE / 4) {
+                        break;
+                    }
+                    bytes = new byte[n];
+                    in.readFully(bytes);
+                    int leido = in.readInt();
+                    ByteBuffer cabecera = ByteBuffer.allocate(13).put(tipo).putInt(a).putInt(b).putInt(n);
+                    crc.reset();
+                    crc.update(cabecera.array());
+                    crc.update(bytes);
+                    if (leido != (int) crc.getValue()) {
+                        break;
+                    }
+                } catch (EOFException ex) {
+                    break; // final del diario (o último registro a medias)
+                }
+                if (!aplicar(texto, tipo, a, b, new String(bytes, StandardCharsets.UTF_8))) {
+                    break;
+                }
+                pendiente = tipo == INSTANTANEA ? a == 1 : tipo != GUARDADO;
+                registros++;
+            }
+        }
+        return new Recuperacion(texto.toString(), pendiente, registros);
+    }
+
+    private static boolean aplicar(StringBuilder texto, byte tipo, int a, int b, String contenido) {
+        switch (tipo) {
+            case INSTANTANEA:
+                texto.setLength(0);
+                texto.append(contenido);
+                return true;
+            case INSERTAR:
+                if (a < 0 || a > texto.length()) {
+                    return false;
+                }
+                texto.insert(a, contenido);
+                return true;
+            case BORRAR:
+                if (a < 0 || b < 0 || a + b > texto.length()) {
+                    return false;
+                }
+                texto.delete(a, a + b);
+                return true;
+            case GUARDADO:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
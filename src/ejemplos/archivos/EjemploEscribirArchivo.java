@@ -2,25 +2,29 @@ package ejemplos.archivos;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 
 /**
  * ╔═════════════════════════════════════════════════════════════╗
  * ║  EJEMPLO 9 – Escribir un archivo de texto                   ║
  * ║                                                             ║
- * ║  Demuestra cómo guardar texto desde un JTextArea a disco.   ║
- * ║  Se muestran dos APIs de escritura:                         ║
+ * ║  Demuestra cómo guardar texto desde un JTextArea a disco    ║
+ * ║  SIN congelar la ventana ni dejar archivos a medias:        ║
  * ║                                                             ║
- * ║    API clásica (java.io):                                   ║
- * ║    • BufferedWriter + FileWriter  → escritura con buffer    ║
- * ║    • try-with-resources           → cierre automático       ║
+ * ║    • MotorGuardado      → escribe en segundo plano en un    ║
+ * ║                           temporal (FileChannel) y lo mueve ║
+ * ║                           de forma ATÓMICA sobre el destino ║
+ * ║    • SeguimientoCambios → al volver a guardar, reescribe    ║
+ * ║                           solo la cola o el trozo cambiado  ║
+ * ║    • DiarioEdiciones    → anota cada edición para recuperar ║
+ * ║                           el texto si la aplicación se cae  ║
  * ║                                                             ║
- * ║    API moderna (java.nio.file, Java 11+):                   ║
- * ║    • Files.writeString(path, texto) → una sola línea        ║
- * ║                                                             ║
- * ║  También enseña: try-with-resources y la importancia de     ║
- * ║  cerrar siempre los flujos de E/S (streams).                ║
+ * ║  También enseña: try-with-resources (el FileChannel se      ║
+ * ║  cierra solo) y por qué el trabajo de E/S no va en el EDT.  ║
  * ╚═════════════════════════════════════════════════════════════╝
  */
 public class EjemploEscribirArchivo {
@@ -77,31 +81,63 @@ public class EjemploEscribirArchivo {
 
         JButton botonGuardar = new JButton("Guardar archivo");
         JButton botonLimpiar = new JButton("Limpiar texto");
+        JCheckBox checkForzar = new JCheckBox("Forzar a disco (fsync)");
+        checkForzar.setToolTipText("Más lento, pero el archivo sobrevive a un corte de luz");
 
         panelBotones.add(botonGuardar);
         panelBotones.add(botonLimpiar);
+        panelBotones.add(checkForzar);
+
+        // Motor de guardado: un hilo de fondo compartido por esta ventana
+        MotorGuardado motor = new MotorGuardado();
+        // Zona modificada desde el último guardado (para escribir solo eso)
+        SeguimientoCambios seguimiento = new SeguimientoCambios(areaTexto.getDocument());
+
+        // Diario de ediciones: recupera el texto si la aplicación se cae
+        JLabel etiquetaDiario = new JLabel(" ");
+        etiquetaDiario.setFont(etiquetaDiario.getFont().deriveFont(11f));
+        etiquetaDiario.setForeground(Color.GRAY);
+        DiarioEdiciones diario = DiarioEdiciones.conectar("escribir-archivo",
+                areaTexto, ventana, etiquetaDiario);
+        long[] marcaGuardado = { 0 }; // ediciones del diario incluidas en el último guardado
 
         // ╔═════════════════════════════════════════════════════════════╗
-        // ║  ESCRIBIR CON BufferedWriter + FileWriter (API clásica)     ║
+        // ║  GUARDADO ASÍNCRONO Y ATÓMICO (MotorGuardado)               ║
         // ║                                                             ║
-        // ║  try (BufferedWriter bw = new BufferedWriter(               ║
-        // ║          new FileWriter("ruta"))) {                         ║
-        // ║      bw.write(texto);                                       ║
-        // ║  }                                                          ║
+        // ║  El listener solo copia el texto y encola el trabajo:       ║
+        // ║  vuelve al instante y el EDT sigue libre. El resultado      ║
+        // ║  (bytes, latencia y MB/s) llega después al Oyente, ya en    ║
+        // ║  el EDT, y se muestra en la barra de estado.                ║
         // ║                                                             ║
-        // ║  "try-with-resources" (Java 7+):                            ║
-        // ║  La variable declarada en el try() se CIERRA automáti-      ║
-        // ║  camente al salir del bloque, tanto si fue bien como        ║
-        // ║  si lanzó excepción. Equivale a un finally con .close().    ║
+        // ║  Escribir con un BufferedWriter(new FileWriter(ruta)) en el ║
+        // ║  listener congelaría la ventana con un disco lento y        ║
+        // ║  vaciaría el archivo ANTES de escribirlo: si la aplicación  ║
+        // ║  se cae a mitad, se pierde el contenido anterior.           ║
         // ║                                                             ║
-        // ║  ALTERNATIVA con java.nio (Java 11+):                       ║
-        // ║    Files.writeString(Path.of("ruta"), texto);               ║
-        // ║  → una sola línea, sin abrir ni cerrar flujos.              ║
+        // ║  Al volver a guardar sobre el mismo archivo, Seguimiento-   ║
+        // ║  Cambios decide si basta con reescribir la cola o un trozo. ║
         // ╚═════════════════════════════════════════════════════════════╝
+        MotorGuardado.Oyente oyente = new MotorGuardado.Oyente() {
+            @Override
+            public void guardado(MotorGuardado.Resultado r) {
+                if (seguimiento.confirmar(r) && diario != null) {
+                    diario.marcarGuardado(marcaGuardado[0]);
+                }
+                barraEstado.setText("  ✔ Guardado: " + r.destino + "  |  " + r.resumen());
+            }
+
+            @Override
+            public void error(Path destino, IOException ex) {
+                seguimiento.invalidar();
+                barraEstado.setText("  ✘ Error al guardar el archivo");
+                JOptionPane.showMessageDialog(ventana,
+                        "Error al guardar:\n" + ex.getMessage(),
+                        "Error de escritura", JOptionPane.ERROR_MESSAGE);
+            }
+        };
 
         botonGuardar.addActionListener(e -> {
             String ruta = campoRuta.getText().trim();
-            String contenido = areaTexto.getText();
 
             if (ruta.isEmpty()) {
                 JOptionPane.showMessageDialog(ventana,
@@ -110,32 +146,22 @@ public class EjemploEscribirArchivo {
                 return;
             }
 
-            // Opción A: API clásica (BufferedWriter + FileWriter)
-            // FileWriter abre el flujo de escritura al archivo.
-            // BufferedWriter añade un buffer → más eficiente para texto largo.
-            try (BufferedWriter escritor = new BufferedWriter(new FileWriter(ruta))) {
-                escritor.write(contenido);
-
-                // Si llegamos aquí, la escritura fue correcta
-                Path pathAbsoluto = Paths.get(ruta).toAbsolutePath();
-                barraEstado.setText("  ✔ Guardado correctamente: " + pathAbsoluto);
-                JOptionPane.showMessageDialog(ventana,
-                        "Archivo guardado en:\n" + pathAbsoluto,
-                        "Guardado correcto", JOptionPane.INFORMATION_MESSAGE);
-
-            } catch (IOException ex) {
-                barraEstado.setText("  ✘ Error al guardar el archivo");
-                JOptionPane.showMessageDialog(ventana,
-                        "Error al guardar:\n" + ex.getMessage(),
-                        "Error de escritura", JOptionPane.ERROR_MESSAGE);
+            Path destino = Paths.get(ruta).toAbsolutePath();
+            // Copia instantánea solo de lo necesario (todo, la cola o un trozo)
+            MotorGuardado.Escritura escritura =
+                    seguimiento.planificar(destino, StandardCharsets.UTF_8);
+            if (escritura == null) {
+                if (diario != null) {
+                    diario.marcarGuardado(diario.getMarca());
+                }
+                barraEstado.setText("  Sin cambios desde el último guardado: " + destino);
+                return;
             }
-
-            // Opción B (comentada): API moderna con una sola línea
-            // try {
-            //     Files.writeString(Path.of(ruta), contenido);
-            // } catch (IOException ex) {
-            //     ex.printStackTrace();
-            // }
+            if (diario != null) {
+                marcaGuardado[0] = diario.getMarca();
+            }
+            barraEstado.setText("  Guardando en segundo plano: " + destino);
+            motor.guardar(destino, escritura, checkForzar.isSelected(), oyente);
         });
 
         botonLimpiar.addActionListener(e -> {
@@ -149,12 +175,24 @@ public class EjemploEscribirArchivo {
         // ──────────────────────────────────────────────────────────────
         JPanel panelInferior = new JPanel(new BorderLayout());
         panelInferior.add(panelBotones, BorderLayout.NORTH);
+        panelInferior.add(etiquetaDiario, BorderLayout.CENTER);
         panelInferior.add(barraEstado, BorderLayout.SOUTH);
 
         panelPrincipal.add(panelSuperior, BorderLayout.NORTH);
         panelPrincipal.add(scrollTexto, BorderLayout.CENTER);
         panelPrincipal.add(panelInferior, BorderLayout.SOUTH);
 
+        // Al cerrar la ventana: terminar los guardados pendientes y liberar los hilos
+        ventana.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                motor.cerrar();
+                if (diario != null) {
+                    diario.cerrar();
+                }
+            }
+        });
+
         ventana.add(panelPrincipal);
         ventana.setVisible(true);
     }
@@ -3,8 +3,11 @@ package ejemplos.archivos;
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.*;
-import java.nio.file.Files;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 
 /**
  * ╔═════════════════════════════════════════════════════════════╗
@@ -23,10 +26,23 @@ import java.nio.file.Files;
  * ║    • setFileFilter()         → filtrar por extensión        ║
  * ║    • setCurrentDirectory()   → directorio inicial           ║
  * ║    • setDialogTitle()        → título personalizado         ║
+ * ║                                                             ║
+ * ║  La lectura se hace en un SwingWorker, por bloques y con la ║
+ * ║  codificación elegida en el desplegable (no la del sistema).║
+ * ║                                                             ║
+ * ║  Los archivos gigantes (> 64 MB) se abren en un visor de    ║
+ * ║  solo lectura mapeado en memoria (VisorArchivoMapeado).     ║
+ * ║                                                             ║
+ * ║  "Guardar como..." escribe en segundo plano (MotorGuardado) ║
+ * ║  y, sobre el archivo abierto, solo reescribe lo modificado  ║
+ * ║  (SeguimientoCambios).                                      ║
  * ╚═════════════════════════════════════════════════════════════╝
  */
 public class EjemploJFileChooser {
 
+    /** A partir de este tamaño se abre el visor mapeado (solo lectura). */
+    private static final long UMBRAL_MAPEADO = 64L * 1024 * 1024;
+
     public static void launch() {
 
         // ╔═════════════════════════════════════════════════════════════╗
@@ -50,7 +66,16 @@ public class EjemploJFileChooser {
         areaTexto.setText("Pulsa \"Abrir\" para cargar un archivo,\n"
                 + "o escribe texto aquí y pulsa \"Guardar\".\n");
         JScrollPane scrollTexto = new JScrollPane(areaTexto);
-        scrollTexto.setBorder(BorderFactory.createTitledBorder("Contenido del archivo"));
+
+        // Visor de solo lectura para archivos que no caben en un JTextArea
+        VisorArchivoMapeado visorMapeado = new VisorArchivoMapeado(
+                new Font("Monospaced", Font.PLAIN, 13));
+
+        CardLayout tarjetas = new CardLayout();
+        JPanel panelCentral = new JPanel(tarjetas);
+        panelCentral.setBorder(BorderFactory.createTitledBorder("Contenido del archivo"));
+        panelCentral.add(scrollTexto, "texto");
+        panelCentral.add(visorMapeado.getComponente(), "mapeado");
 
         // — Barra de estado —
         JLabel barraEstado = new JLabel("  Listo");
@@ -67,10 +92,30 @@ public class EjemploJFileChooser {
         JButton botonGuardar = new JButton("Guardar como...");
         JButton botonLimpiar = new JButton("Limpiar");
 
+        // Codificación con la que se leen y se guardan los archivos
+        JComboBox<String> comboCharset = new JComboBox<>(
+                new String[] { "UTF-8", "ISO-8859-1", "windows-1252", "UTF-16" });
+        comboCharset.setToolTipText("Codificación del archivo");
+
+        panelBotones.add(new JLabel("Codificación:"));
+        panelBotones.add(comboCharset);
         panelBotones.add(botonAbrir);
         panelBotones.add(botonGuardar);
         panelBotones.add(botonLimpiar);
 
+        // Guardado en segundo plano + seguimiento de la zona modificada
+        MotorGuardado motor = new MotorGuardado();
+        SeguimientoCambios seguimiento = new SeguimientoCambios(areaTexto.getDocument());
+        File[] archivoActual = { null }; // último abierto o guardado
+
+        // Diario de ediciones: recupera el texto si la aplicación se cae
+        JLabel etiquetaDiario = new JLabel(" ");
+        etiquetaDiario.setFont(etiquetaDiario.getFont().deriveFont(11f));
+        etiquetaDiario.setForeground(Color.GRAY);
+        DiarioEdiciones diario = DiarioEdiciones.conectar("jfilechooser",
+                areaTexto, ventana, etiquetaDiario);
+        long[] marcaGuardado = { 0 }; // ediciones del diario incluidas en el último guardado
+
         // ╔═════════════════════════════════════════════════════════════╗
         // ║  showOpenDialog() → ABRIR un archivo                        ║
         // ║                                                             ║
@@ -99,22 +144,62 @@ public class EjemploJFileChooser {
             if (resultado == JFileChooser.APPROVE_OPTION) {
                 File archivoElegido = selector.getSelectedFile();
 
-                // Leer con BufferedReader + FileReader (API clásica)
-                try (BufferedReader lector = new BufferedReader(
-                        new FileReader(archivoElegido))) {
-                    areaTexto.setText(""); // Limpiar antes de cargar
-                    String linea;
-                    while ((linea = lector.readLine()) != null) {
-                        areaTexto.append(linea + "\n");
-                    }
-                    areaTexto.setCaretPosition(0);
-                    barraEstado.setText("  ✔ Abierto: " + archivoElegido.getAbsolutePath()
-                            + "  (" + archivoElegido.length() + " bytes)");
-                } catch (IOException ex) {
-                    JOptionPane.showMessageDialog(ventana,
-                            "Error al leer: " + ex.getMessage(),
-                            "Error", JOptionPane.ERROR_MESSAGE);
+                // Archivo gigante → visor mapeado de solo lectura
+                if (archivoElegido.length() > UMBRAL_MAPEADO) {
+                    abrirMapeado(archivoElegido, visorMapeado, tarjetas, panelCentral,
+                            areaTexto, botonAbrir, botonGuardar, barraEstado, ventana, diario,
+                            seguimiento, archivoActual);
+                    return;
                 }
+                visorMapeado.limpiar();
+                tarjetas.show(panelCentral, "texto");
+                botonGuardar.setEnabled(true);
+
+                // ──────────────────────────────────────────────────────
+                //  Antes: BufferedReader + FileReader y un append() por
+                //  línea → un evento del Document y un relayout por
+                //  línea, y la codificación por defecto del sistema.
+                //
+                //  Ahora: un SwingWorker decodifica el archivo por
+                //  bloques (FileChannel + CharsetDecoder) FUERA del EDT
+                //  y, al terminar, setText() hace UNA sola inserción.
+                // ──────────────────────────────────────────────────────
+                Charset charset = Charset.forName((String) comboCharset.getSelectedItem());
+                botonAbrir.setEnabled(false);
+                barraEstado.setText("  Leyendo " + archivoElegido.getName()
+                        + " (" + charset.name() + ")...");
+                long inicio = System.nanoTime();
+
+                new SwingWorker<String, Void>() {
+                    @Override
+                    protected String doInBackground() throws IOException {
+                        return DecodificadorBloques.leerTexto(
+                                archivoElegido.toPath(), charset, this::isCancelled);
+                    }
+
+                    @Override
+                    protected void done() {
+                        botonAbrir.setEnabled(true);
+                        try {
+                            // Texto leído de disco: no es una edición pendiente de recuperar
+                            cargarTexto(areaTexto, diario, get());
+                            areaTexto.setCaretPosition(0);
+                            // El archivo en disco pasa a ser la referencia del guardado incremental
+                            seguimiento.establecerBase(archivoElegido.toPath(), charset);
+                            archivoActual[0] = archivoElegido;
+                            long ms = (System.nanoTime() - inicio) / 1_000_000;
+                            barraEstado.setText("  ✔ Abierto: " + archivoElegido.getAbsolutePath()
+                                    + "  (" + archivoElegido.length() + " bytes, "
+                                    + charset.name() + ", " + ms + " ms)");
+                        } catch (Exception ex) {
+                            Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                            barraEstado.setText("  ✘ Error al leer el archivo");
+                            JOptionPane.showMessageDialog(ventana,
+                                    "Error al leer: " + causa.getMessage(),
+                                    "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }
+                }.execute();
             } else {
                 barraEstado.setText("  Apertura cancelada por el usuario");
             }
@@ -128,19 +213,40 @@ public class EjemploJFileChooser {
         // ║  sí solo → solo te da la ruta. El guardado lo haces tú.     ║
         // ╚═════════════════════════════════════════════════════════════╝
 
+        MotorGuardado.Oyente oyente = new MotorGuardado.Oyente() {
+            @Override
+            public void guardado(MotorGuardado.Resultado r) {
+                if (seguimiento.confirmar(r) && diario != null) {
+                    diario.marcarGuardado(marcaGuardado[0]);
+                }
+                barraEstado.setText("  ✔ Guardado: " + r.destino + "  |  " + r.resumen());
+            }
+
+            @Override
+            public void error(Path destino, IOException ex) {
+                seguimiento.invalidar();
+                barraEstado.setText("  ✘ Error al guardar el archivo");
+                JOptionPane.showMessageDialog(ventana,
+                        "Error al guardar: " + ex.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        };
+
         botonGuardar.addActionListener(e -> {
             JFileChooser selector = new JFileChooser();
             selector.setDialogTitle("Guardar archivo como...");
             selector.setCurrentDirectory(new File("."));
-            selector.setSelectedFile(new File("documento.txt"));
+            // Proponer el archivo abierto: así el guardado puede ser incremental
+            selector.setSelectedFile(archivoActual[0] != null
+                    ? archivoActual[0] : new File("documento.txt"));
 
             int resultado = selector.showSaveDialog(ventana);
 
             if (resultado == JFileChooser.APPROVE_OPTION) {
                 File archivoDestino = selector.getSelectedFile();
 
-                // Confirmar si ya existe
-                if (archivoDestino.exists()) {
+                // Confirmar si ya existe (salvo que sea el que está abierto)
+                if (archivoDestino.exists() && !archivoDestino.equals(archivoActual[0])) {
                     int confirmar = JOptionPane.showConfirmDialog(ventana,
                             "El archivo ya existe. ¿Sobrescribir?",
                             "Confirmar", JOptionPane.YES_NO_OPTION);
@@ -150,25 +256,38 @@ public class EjemploJFileChooser {
                     }
                 }
 
-                // Escribir con Files.writeString (API moderna, Java 11+)
-                try {
-                    Files.writeString(archivoDestino.toPath(), areaTexto.getText());
-                    barraEstado.setText("  ✔ Guardado: " + archivoDestino.getAbsolutePath());
-                    JOptionPane.showMessageDialog(ventana,
-                            "Archivo guardado correctamente.",
-                            "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                } catch (IOException ex) {
-                    JOptionPane.showMessageDialog(ventana,
-                            "Error al guardar: " + ex.getMessage(),
-                            "Error", JOptionPane.ERROR_MESSAGE);
+                // Antes: Files.writeString(path, texto, charset) en el EDT.
+                // Ahora: se copia solo lo modificado y se escribe en segundo plano.
+                // Se guarda con la misma codificación elegida para abrir.
+                Charset charset = Charset.forName((String) comboCharset.getSelectedItem());
+                MotorGuardado.Escritura escritura =
+                        seguimiento.planificar(archivoDestino.toPath(), charset);
+                archivoActual[0] = archivoDestino;
+                if (escritura == null) {
+                    if (diario != null) {
+                        diario.marcarGuardado(diario.getMarca());
+                    }
+                    barraEstado.setText("  Sin cambios desde el último guardado: "
+                            + archivoDestino.getAbsolutePath());
+                    return;
+                }
+                if (diario != null) {
+                    marcaGuardado[0] = diario.getMarca();
                 }
+                barraEstado.setText("  Guardando en segundo plano: " + archivoDestino.getAbsolutePath());
+                motor.guardar(archivoDestino.toPath(), escritura, false, oyente);
             } else {
                 barraEstado.setText("  Guardado cancelado por el usuario");
             }
         });
 
         botonLimpiar.addActionListener(e -> {
-            areaTexto.setText("");
+            // Volver al editor si se estaba mostrando el visor mapeado
+            visorMapeado.limpiar();
+            tarjetas.show(panelCentral, "texto");
+            botonGuardar.setEnabled(true);
+            cargarTexto(areaTexto, diario, "");
+            archivoActual[0] = null;
             areaTexto.requestFocus();
             barraEstado.setText("  Texto limpiado");
         });
@@ -178,15 +297,86 @@ public class EjemploJFileChooser {
         // ──────────────────────────────────────────────────────────────
         JPanel panelInferior = new JPanel(new BorderLayout());
         panelInferior.add(panelBotones, BorderLayout.NORTH);
+        panelInferior.add(etiquetaDiario, BorderLayout.CENTER);
         panelInferior.add(barraEstado, BorderLayout.SOUTH);
 
-        panelPrincipal.add(scrollTexto, BorderLayout.CENTER);
+        panelPrincipal.add(panelCentral, BorderLayout.CENTER);
         panelPrincipal.add(panelInferior, BorderLayout.SOUTH);
 
+        // Al cerrar la ventana: terminar los guardados pendientes y liberar los hilos
+        ventana.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                motor.cerrar();
+                if (diario != null) {
+                    diario.cerrar();
+                }
+            }
+        });
+
         ventana.add(panelPrincipal);
         ventana.setVisible(true);
     }
 
+    /** Pone un texto que no escribió el usuario (el diario no lo anota como edición). */
+    private static void cargarTexto(JTextArea areaTexto, DiarioEdiciones diario, String texto) {
+        if (diario != null) {
+            diario.cargar(() -> areaTexto.setText(texto));
+        } else {
+            areaTexto.setText(texto);
+        }
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  VISOR MAPEADO PARA ARCHIVOS GIGANTES                       ║
+    // ║                                                             ║
+    // ║  El índice de líneas se construye en segundo plano; al      ║
+    // ║  terminar, la JList virtual muestra el archivo. "Guardar"   ║
+    // ║  se desactiva: el visor es de solo lectura.                 ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private static void abrirMapeado(File archivo, VisorArchivoMapeado visor,
+            CardLayout tarjetas, JPanel panelCentral, JTextArea areaTexto,
+            JButton botonAbrir, JButton botonGuardar, JLabel barraEstado, JFrame ventana,
+            DiarioEdiciones diario, SeguimientoCambios seguimiento, File[] archivoActual) {
+
+        // El editor queda vacío: ya no representa el archivo anterior, y un
+        // "Guardar" sobre él lo truncaría sin pedir confirmación
+        cargarTexto(areaTexto, diario, "");
+        archivoActual[0] = null;
+        seguimiento.invalidar();
+        tarjetas.show(panelCentral, "mapeado");
+        botonAbrir.setEnabled(false);
+        botonGuardar.setEnabled(false);
+
+        SwingWorker<ArchivoMapeado, Void> worker = visor.abrirEnSegundoPlano(archivo.toPath());
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                barraEstado.setText("  Indexando " + archivo.getName() + "... "
+                        + evt.getNewValue() + "%");
+            } else if ("state".equals(evt.getPropertyName())
+                    && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                botonAbrir.setEnabled(true);
+                try {
+                    ArchivoMapeado mapeado = worker.get();
+                    barraEstado.setText("  ✔ Abierto (solo lectura): " + archivo.getAbsolutePath()
+                            + "  (" + mapeado.getNumLineas() + " líneas, "
+                            + archivo.length() + " bytes)");
+                } catch (Exception ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    // Guardar sigue desactivado hasta abrir otro archivo o limpiar
+                    archivoActual[0] = null;
+                    seguimiento.invalidar();
+                    tarjetas.show(panelCentral, "texto");
+                    barraEstado.setText("  ✘ Error al leer el archivo");
+                    JOptionPane.showMessageDialog(ventana,
+                            "Error al leer: " + causa.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+        worker.execute();
+    }
+
     public static void main(String[] args) {
         launch();
     }
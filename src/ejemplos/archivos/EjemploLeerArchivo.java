@@ -3,8 +3,12 @@ package ejemplos.archivos;
 import java.nio.file.*;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 /**
  * ╔═════════════════════════════════════════════════════════════╗
@@ -20,10 +24,30 @@ import java.awt.*;
  * ║  También muestra control de errores con try-catch y         ║
  * ║  múltiples maneras de recorrer el contenido (for-each,      ║
  * ║  String.join, readString directo).                          ║
+ * ║                                                             ║
+ * ║  Modo visor (streaming) para archivos grandes:              ║
+ * ║    • SwingWorker lee por bloques FUERA del EDT              ║
+ * ║    • JProgressBar + botón Cancelar                          ║
+ * ║    • memoria acotada (ver VisorStreamingWorker)             ║
+ * ║                                                             ║
+ * ║  Modo mapeado para archivos GIGANTES (GB):                  ║
+ * ║    • FileChannel.map() + índice de líneas (long[])          ║
+ * ║    • solo se decodifican las líneas visibles                ║
+ * ║      (ver ArchivoMapeado y VisorArchivoMapeado)             ║
  * ╚═════════════════════════════════════════════════════════════╝
  */
 public class EjemploLeerArchivo {
 
+    /** En modo automático, a partir de 1 MB se usa el visor streaming. */
+    private static final long UMBRAL_STREAMING = 1024 * 1024;
+
+    /** En modo automático, a partir de 64 MB se usa el visor mapeado. */
+    private static final long UMBRAL_MAPEADO = 64L * 1024 * 1024;
+
+    private static final String[] MODOS = {
+            "Automático", "Clásico (readAllLines)", "Visor streaming", "Visor mapeado"
+    };
+
     public static void launch() {
 
         // ╔═════════════════════════════════════════════════════════════╗
@@ -47,10 +71,17 @@ public class EjemploLeerArchivo {
         JTextField campoRuta = new JTextField("data/archivo.txt");
         campoRuta.setFont(new Font("Monospaced", Font.PLAIN, 13));
         JButton botonLeer = new JButton("Leer archivo");
+        JComboBox<String> comboModo = new JComboBox<>(MODOS);
+        comboModo.setToolTipText("Automático elige según el tamaño: clásico, "
+                + "streaming (> 1 MB) o mapeado (> 64 MB)");
+
+        JPanel panelAcciones = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        panelAcciones.add(comboModo);
+        panelAcciones.add(botonLeer);
 
         panelSuperior.add(labelRuta, BorderLayout.WEST);
         panelSuperior.add(campoRuta, BorderLayout.CENTER);
-        panelSuperior.add(botonLeer, BorderLayout.EAST);
+        panelSuperior.add(panelAcciones, BorderLayout.EAST);
 
         // ──────────────────────────────────────────────────────────────
         //  PANEL CENTRAL: contenido del archivo
@@ -59,7 +90,17 @@ public class EjemploLeerArchivo {
         areaContenido.setEditable(false);
         areaContenido.setFont(new Font("Monospaced", Font.PLAIN, 13));
         JScrollPane scrollContenido = new JScrollPane(areaContenido);
-        scrollContenido.setBorder(BorderFactory.createTitledBorder("Contenido del archivo"));
+
+        // Visor mapeado (JList virtual) para archivos gigantes
+        VisorArchivoMapeado visorMapeado = new VisorArchivoMapeado(
+                new Font("Monospaced", Font.PLAIN, 13));
+
+        // CardLayout: dos "tarjetas" en el mismo hueco, se ve una cada vez
+        CardLayout tarjetas = new CardLayout();
+        JPanel panelCentral = new JPanel(tarjetas);
+        panelCentral.setBorder(BorderFactory.createTitledBorder("Contenido del archivo"));
+        panelCentral.add(scrollContenido, "texto");
+        panelCentral.add(visorMapeado.getComponente(), "mapeado");
 
         // — Barra de estado —
         JLabel barraEstado = new JLabel("  Introduce la ruta y pulsa \"Leer archivo\"");
@@ -67,6 +108,18 @@ public class EjemploLeerArchivo {
                 BorderFactory.createMatteBorder(1, 0, 0, 0, Color.LIGHT_GRAY),
                 BorderFactory.createEmptyBorder(4, 4, 4, 4)));
 
+        // — Progreso del modo visor (oculto hasta que se usa) —
+        JProgressBar barraProgreso = new JProgressBar(0, 100);
+        barraProgreso.setStringPainted(true);
+        JButton botonCancelar = new JButton("Cancelar");
+        JPanel panelProgreso = new JPanel(new BorderLayout(5, 0));
+        panelProgreso.add(barraProgreso, BorderLayout.CENTER);
+        panelProgreso.add(botonCancelar, BorderLayout.EAST);
+        panelProgreso.setVisible(false);
+
+        // Worker en curso (array de 1 elemento para usarlo en las lambdas)
+        SwingWorker<?, ?>[] workerActual = { null };
+
         // ╔═════════════════════════════════════════════════════════════╗
         // ║  LEER EL ARCHIVO CON java.nio.file                          ║
         // ║                                                             ║
@@ -92,6 +145,34 @@ public class EjemploLeerArchivo {
             // o absoluta (ruta completa del sistema).
             Path path = Paths.get(ruta);
 
+            // Elegir modo. En "Automático", los archivos grandes NO se leen
+            // de golpe en el EDT: congelarían la ventana.
+            int modo = comboModo.getSelectedIndex();
+            if (modo == 0) {
+                try {
+                    long tamano = Files.size(path);
+                    modo = tamano > UMBRAL_MAPEADO ? 3 : tamano > UMBRAL_STREAMING ? 2 : 1;
+                } catch (IOException ex) {
+                    modo = 1; // readAllLines() informará del error
+                }
+            }
+
+            visorMapeado.limpiar();
+            if (modo == 2) {
+                tarjetas.show(panelCentral, "texto");
+                leerEnStreaming(path, areaContenido, barraEstado, barraProgreso,
+                        panelProgreso, botonLeer, workerActual, ventana);
+                return;
+            }
+            if (modo == 3) {
+                areaContenido.setText("");
+                tarjetas.show(panelCentral, "mapeado");
+                leerMapeado(path, visorMapeado, barraEstado, barraProgreso,
+                        panelProgreso, botonLeer, workerActual, ventana);
+                return;
+            }
+            tarjetas.show(panelCentral, "texto");
+
             // Método 1: Files.readAllLines() → devuelve cada línea como un String
             // Útil cuando necesitas procesar el archivo línea a línea.
             try {
@@ -128,12 +209,33 @@ public class EjemploLeerArchivo {
         // Permitir pulsar Enter en el campo de ruta para leer
         campoRuta.addActionListener(e -> botonLeer.doClick());
 
+        // cancel(true) interrumpe el hilo de fondo; done() se ejecuta igualmente
+        botonCancelar.addActionListener(e -> {
+            if (workerActual[0] != null) {
+                workerActual[0].cancel(true);
+            }
+        });
+
         // ──────────────────────────────────────────────────────────────
         //  MONTAJE FINAL
         // ──────────────────────────────────────────────────────────────
+        JPanel panelInferior = new JPanel(new BorderLayout());
+        panelInferior.add(panelProgreso, BorderLayout.NORTH);
+        panelInferior.add(barraEstado, BorderLayout.SOUTH);
+
         panelPrincipal.add(panelSuperior, BorderLayout.NORTH);
-        panelPrincipal.add(scrollContenido, BorderLayout.CENTER);
-        panelPrincipal.add(barraEstado, BorderLayout.SOUTH);
+        panelPrincipal.add(panelCentral, BorderLayout.CENTER);
+        panelPrincipal.add(panelInferior, BorderLayout.SOUTH);
+
+        // Al cerrar la ventana: que el hilo de fondo no siga leyendo el archivo
+        ventana.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (workerActual[0] != null) {
+                    workerActual[0].cancel(true);
+                }
+            }
+        });
 
         ventana.add(panelPrincipal);
         ventana.setVisible(true);
@@ -142,6 +244,119 @@ public class EjemploLeerArchivo {
         botonLeer.doClick();
     }
 
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  MODO VISOR: lectura por bloques con SwingWorker            ║
+    // ║                                                             ║
+    // ║  El listener del botón termina enseguida: la lectura sigue  ║
+    // ║  en un hilo de fondo y el EDT queda libre para repintar,    ║
+    // ║  mover la ventana o pulsar "Cancelar".                      ║
+    // ║                                                             ║
+    // ║  PropertyChangeListener recibe dos propiedades:             ║
+    // ║    • "progress" → porcentaje leído (setProgress)            ║
+    // ║    • "state"    → DONE cuando el worker termina             ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private static void leerEnStreaming(Path path, JTextArea areaContenido,
+            JLabel barraEstado, JProgressBar barraProgreso, JPanel panelProgreso,
+            JButton botonLeer, SwingWorker<?, ?>[] workerActual, JFrame ventana) {
+
+        areaContenido.setText("");
+        barraProgreso.setValue(0);
+        panelProgreso.setVisible(true);
+        botonLeer.setEnabled(false);
+        barraEstado.setText("  Leyendo en segundo plano: " + path.toAbsolutePath());
+
+        VisorStreamingWorker worker = new VisorStreamingWorker(path, areaContenido);
+        workerActual[0] = worker;
+        long inicio = System.nanoTime();
+
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                barraProgreso.setValue((Integer) evt.getNewValue());
+            } else if ("state".equals(evt.getPropertyName())
+                    && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+
+                panelProgreso.setVisible(false);
+                botonLeer.setEnabled(true);
+                workerActual[0] = null;
+                long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+                try {
+                    long bytes = worker.get();
+                    String aviso = worker.getCaracteresDescartados() > 0
+                            ? "  |  mostrando el final (límite de memoria)"
+                            : "";
+                    barraEstado.setText("  ✔ Leído: " + path.toAbsolutePath()
+                            + "  |  " + bytes + " bytes en " + ms + " ms" + aviso);
+                    areaContenido.setCaretPosition(0);
+                } catch (CancellationException ex) {
+                    barraEstado.setText("  ⚠ Lectura cancelada tras "
+                            + worker.getCaracteresMostrados() + " caracteres");
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    barraEstado.setText("  ✘ Error al leer el archivo");
+                    JOptionPane.showMessageDialog(ventana,
+                            "Error al leer el archivo:\n" + causa.getMessage(),
+                            "Error de lectura", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+
+        // execute() arranca doInBackground() en un hilo del pool de Swing
+        worker.execute();
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  MODO MAPEADO: proyectar el archivo e indexar sus líneas    ║
+    // ║                                                             ║
+    // ║  Mismo esquema que el modo streaming (progreso + estado),   ║
+    // ║  pero el trabajo de fondo solo construye el índice; el      ║
+    // ║  texto se decodifica después, línea a línea, al hacer       ║
+    // ║  scroll por la JList.                                       ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private static void leerMapeado(Path path, VisorArchivoMapeado visor,
+            JLabel barraEstado, JProgressBar barraProgreso, JPanel panelProgreso,
+            JButton botonLeer, SwingWorker<?, ?>[] workerActual, JFrame ventana) {
+
+        barraProgreso.setValue(0);
+        panelProgreso.setVisible(true);
+        botonLeer.setEnabled(false);
+        barraEstado.setText("  Indexando líneas: " + path.toAbsolutePath());
+
+        SwingWorker<ArchivoMapeado, Void> worker = visor.abrirEnSegundoPlano(path);
+        workerActual[0] = worker;
+        long inicio = System.nanoTime();
+
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                barraProgreso.setValue((Integer) evt.getNewValue());
+            } else if ("state".equals(evt.getPropertyName())
+                    && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+
+                panelProgreso.setVisible(false);
+                botonLeer.setEnabled(true);
+                workerActual[0] = null;
+                long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+                try {
+                    ArchivoMapeado archivo = worker.get();
+                    barraEstado.setText("  ✔ Mapeado: " + path.toAbsolutePath()
+                            + "  |  " + archivo.getNumLineas() + " líneas, "
+                            + archivo.getTamano() + " bytes, indexado en " + ms + " ms");
+                } catch (CancellationException ex) {
+                    barraEstado.setText("  ⚠ Indexación cancelada");
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    barraEstado.setText("  ✘ Error al mapear el archivo");
+                    JOptionPane.showMessageDialog(ventana,
+                            "Error al leer el archivo:\n" + causa.getMessage(),
+                            "Error de lectura", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+
+        worker.execute();
+    }
+
     public static void main(String[] args) {
         launch();
     }
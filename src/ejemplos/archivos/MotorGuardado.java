@@ -0,0 +1,338 @@
+package ejemplos.archivos;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  MotorGuardado – guardado asíncrono y atómico               ║
+ * ║                                                             ║
+ * ║  Problemas de escribir directamente en el EDT con           ║
+ * ║  BufferedWriter(new FileWriter(ruta)):                      ║
+ * ║    • un disco lento CONGELA la ventana                      ║
+ * ║    • si el programa se cae a mitad, el archivo queda        ║
+ * ║      TRUNCADO (ya se había vaciado al abrirlo)              ║
+ * ║                                                             ║
+ * ║  Solución en 4 pasos:                                       ║
+ * ║    1. EDT: copia instantánea del texto (un String inmutable)║
+ * ║    2. Hilo de fondo: se escribe en un archivo TEMPORAL de   ║
+ * ║       la misma carpeta con FileChannel                      ║
+ * ║    3. (Opcional) force() → obliga al SO a volcarlo al disco ║
+ * ║    4. Files.move(ATOMIC_MOVE) → el temporal sustituye al    ║
+ * ║       destino de golpe: se ve el archivo viejo o el nuevo,  ║
+ * ║       nunca uno a medias.                                   ║
+ * ║                                                             ║
+ * ║  Si llegan varios guardados seguidos para el mismo archivo  ║
+ * ║  mientras el hilo está ocupado, se AGRUPAN: solo se escribe ║
+ * ║  la copia más reciente.                                     ║
+ * ║                                                             ║
+ * ║  Además del guardado completo admite escrituras PARCIALES   ║
+ * ║  (ver SeguimientoCambios): reescribir solo la cola del      ║
+ * ║  archivo o un trozo del medio, sin tocar lo demás.          ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class MotorGuardado {
+
+    /** Tamaño del buffer de bytes para escribir (64 KB). */
+    private static final int TAM_BLOQUE = 64 * 1024;
+
+    // ──────────────────────────────────────────────────────────────
+    //  Qué hay que escribir
+    //    • COMPLETA → todo el texto, temporal + movimiento atómico
+    //    • COLA     → desde 'offset' hasta el final, y se trunca
+    //    • EMPALME  → solo un trozo en 'offset' (mismo nº de bytes)
+    // ──────────────────────────────────────────────────────────────
+    enum Tipo { COMPLETA, COLA, EMPALME }
+
+    static class Escritura {
+        final Tipo tipo;
+        final long offset;       // en BYTES dentro del archivo
+        final String texto;
+        final Charset charset;
+        final long secuencia;    // la asigna SeguimientoCambios (0 si no se usa)
+
+        Escritura(Tipo tipo, long offset, String texto, Charset charset, long secuencia) {
+            this.tipo = tipo;
+            this.offset = offset;
+            this.texto = texto;
+            this.charset = charset;
+            this.secuencia = secuencia;
+        }
+
+        static Escritura completa(String texto, Charset charset) {
+            return new Escritura(Tipo.COMPLETA, 0, texto, charset, 0);
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Resultado de un guardado (se entrega en el EDT)
+    // ──────────────────────────────────────────────────────────────
+    static class Resultado {
+        final Path destino;
+        final Escritura escritura;
+        final long bytes;
+        final long nanos;
+        final int agrupados;      // guardados anteriores que esta escritura sustituyó
+        final long tamanoFinal;   // tamaño del archivo tras escribir
+        final FileTime fechaFinal;
+
+        Resultado(Path destino, Escritura escritura, long bytes, long nanos, int agrupados,
+                long tamanoFinal, FileTime fechaFinal) {
+            this.destino = destino;
+            this.escritura = escritura;
+            this.bytes = bytes;
+            this.nanos = nanos;
+            this.agrupados = agrupados;
+            this.tamanoFinal = tamanoFinal;
+            this.fechaFinal = fechaFinal;
+        }
+
+        double getMilisegundos() {
+            return nanos / 1_000_000.0;
+        }
+
+        double getMegabytesPorSegundo() {
+            return nanos == 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (nanos / 1e9);
+        }
+
+        /** Texto listo para la barra de estado. */
+        String resumen() {
+            String modo = escritura.tipo == Tipo.COMPLETA ? ""
+                    : escritura.tipo == Tipo.COLA ? " (solo la cola, desde el byte " + escritura.offset + ")"
+                    : " (empalme en el byte " + escritura.offset + ")";
+            return String.format("%,d bytes%s en %.1f ms (%.1f MB/s)%s",
+                    bytes, modo, getMilisegundos(), getMegabytesPorSegundo(),
+                    agrupados > 0 ? "  |  " + agrupados + " guardado(s) agrupado(s)" : "");
+        }
+    }
+
+    /** Avisos del motor. Los dos métodos se ejecutan en el EDT. */
+    interface Oyente {
+        void guardado(Resultado resultado);
+
+        void error(Path destino, IOException ex);
+    }
+
+    // Una petición pendiente por destino
+    private static class Peticion {
+        final Escritura escritura;
+        final boolean forzar;
+        final Oyente oyente;
+        final int agrupados;
+
+        Peticion(Escritura escritura, boolean forzar, Oyente oyente, int agrupados) {
+            this.escritura = escritura;
+            this.forzar = forzar;
+            this.oyente = oyente;
+            this.agrupados = agrupados;
+        }
+    }
+
+    private final Map<Path, Peticion> pendientes = new ConcurrentHashMap<>();
+
+    // Un único hilo → las escrituras se hacen de una en una, en orden
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "motor-guardado");
+        hilo.setDaemon(false); // que la JVM no corte una escritura a medias
+        return hilo;
+    });
+
+    /**
+     * Encola un guardado (llamar desde el EDT con el texto ya copiado).
+     * Si ya había uno pendiente para el mismo destino, se sustituye.
+     */
+    void guardar(Path destino, String texto, Charset charset, boolean forzar, Oyente oyente) {
+        guardar(destino, Escritura.completa(texto, charset), forzar, oyente);
+    }
+
+    /**
+     * Igual, pero con una escritura ya planificada (completa o parcial).
+     * Sustituir una parcial pendiente por otra más reciente es seguro:
+     * SeguimientoCambios hace que la nueva empiece en un offset menor
+     * o igual que todas las que aún no se han confirmado.
+     */
+    void guardar(Path destino, Escritura escritura, boolean forzar, Oyente oyente) {
+        Path clave = destino.toAbsolutePath().normalize();
+        Peticion[] anterior = { null };
+        pendientes.compute(clave, (ruta, vieja) -> {
+            anterior[0] = vieja;
+            int agrupados = vieja == null ? 0 : vieja.agrupados + 1;
+            return new Peticion(escritura, forzar, oyente, agrupados);
+        });
+        // Solo se programa una tarea si no había otra esperando por este destino
+        if (anterior[0] == null) {
+            ejecutor.execute(() -> procesar(clave));
+        }
+    }
+
+    /** Termina los guardados pendientes y libera el hilo. */
+    void cerrar() {
+        ejecutor.shutdown();
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  HILO DE FONDO                                              ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private void procesar(Path destino) {
+        // remove() toma la copia MÁS RECIENTE y deja el hueco libre
+        Peticion p = pendientes.remove(destino);
+        if (p == null) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            Escritura esc = p.escritura;
+            long bytes = esc.tipo == Tipo.COMPLETA
+                    ? escribirAtomico(destino, esc.texto, esc.charset, p.forzar)
+                    : escribirParcial(destino, esc, p.forzar);
+            Resultado r = new Resultado(destino, esc, bytes, System.nanoTime() - inicio,
+                    p.agrupados, Files.size(destino), Files.getLastModifiedTime(destino));
+            SwingUtilities.invokeLater(() -> p.oyente.guardado(r));
+        } catch (IOException ex) {
+            SwingUtilities.invokeLater(() -> p.oyente.error(destino, ex));
+        } catch (RuntimeException ex) {
+            // Sin esto el ejecutor se tragaría el fallo y nadie avisaría
+            IOException error = new IOException("Error inesperado: " + ex, ex);
+            SwingUtilities.invokeLater(() -> p.oyente.error(destino, error));
+        }
+    }
+
+    /**
+     * Escribe en un temporal junto al destino y lo mueve encima.
+     * Es estático y no depende del EDT: también lo usan otras clases.
+     *
+     * @return bytes escritos
+     */
+    static long escribirAtomico(Path destino, CharSequence texto, Charset charset,
+            boolean forzar) throws IOException {
+        Path carpeta = destino.toAbsolutePath().getParent();
+        Path temporal = crearTemporal(carpeta, "." + destino.getFileName());
+        try {
+            long bytes;
+            try (FileChannel canal = FileChannel.open(temporal,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                bytes = codificar(texto, charset, canal);
+                if (forzar) {
+                    canal.force(true);
+                }
+            }
+            copiarPermisos(destino, temporal);
+            mover(temporal, destino);
+            return bytes;
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temporal);
+            throw ex;
+        }
+    }
+
+    /**
+     * Crea un temporal vacío en 'carpeta'. A diferencia de
+     * Files.createTempFile (que lo deja en 0600), toma los permisos por
+     * defecto de un archivo nuevo: los mismos que tendría el destino si
+     * se creara con FileWriter.
+     */
+    private static Path crearTemporal(Path carpeta, String prefijo) throws IOException {
+        while (true) {
+            Path temporal = carpeta.resolve(prefijo + "."
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(temporal);
+            } catch (FileAlreadyExistsException ex) {
+                // nombre ocupado: probar con otro
+            }
+        }
+    }
+
+    /** Si el destino ya existe, el temporal hereda sus permisos (el move los sustituye). */
+    private static void copiarPermisos(Path destino, Path temporal) throws IOException {
+        PosixFileAttributeView vista = Files.getFileAttributeView(destino, PosixFileAttributeView.class);
+        if (vista == null || !Files.exists(destino)) {
+            return; // no es POSIX, o el archivo es nuevo
+        }
+        Set<PosixFilePermission> permisos = vista.readAttributes().permissions();
+        Files.setPosixFilePermissions(temporal, permisos);
+    }
+
+    /**
+     * Escritura parcial EN EL SITIO: posiciona el canal en el offset
+     * y escribe solo ese trozo. En modo COLA, además, trunca el
+     * archivo justo después. No es atómica (se modifica el archivo
+     * real), por eso solo se usa cuando ahorra mucha E/S.
+     */
+    private static long escribirParcial(Path destino, Escritura esc, boolean forzar)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.WRITE)) {
+            if (canal.size() < esc.offset) {
+                throw new IOException("El archivo ha cambiado en disco: tiene "
+                        + canal.size() + " bytes y se esperaban al menos " + esc.offset);
+            }
+            canal.position(esc.offset);
+            long bytes = codificar(esc.texto, esc.charset, canal);
+            if (esc.tipo == Tipo.COLA) {
+                canal.truncate(esc.offset + bytes);
+            }
+            if (forzar) {
+                canal.force(true);
+            }
+            return bytes;
+        }
+    }
+
+    /** Codifica el texto por bloques y lo escribe en el canal. */
+    static long codificar(CharSequence texto, Charset charset, FileChannel canal)
+            throws IOException {
+        CharsetEncoder codificador = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer entrada = CharBuffer.wrap(texto);
+        ByteBuffer salida = ByteBuffer.allocate(TAM_BLOQUE);
+        long total = 0;
+        boolean fin = false;
+        while (!fin) {
+            CoderResult r = codificador.encode(entrada, salida, true);
+            if (r.isUnderflow()) {
+                // Todo el texto consumido: vaciar el estado interno
+                codificador.flush(salida);
+                fin = true;
+            }
+            salida.flip();
+            while (salida.hasRemaining()) {
+                total += canal.write(salida);
+            }
+            salida.clear();
+        }
+        return total;
+    }
+
+    /** ATOMIC_MOVE si el sistema de archivos lo permite; si no, reemplazo normal. */
+    private static void mover(Path origen, Path destino) throws IOException {
+        try {
+            Files.move(origen, destino,
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(origen, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
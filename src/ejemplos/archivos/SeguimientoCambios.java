@@ -0,0 +1,308 @@
+package ejemplos.archivos;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  SeguimientoCambios – guardado incremental (solo lo que     ║
+ * ║  ha cambiado)                                               ║
+ * ║                                                             ║
+ * ║  Es un DocumentListener: cada insertUpdate/removeUpdate     ║
+ * ║  amplía la ZONA SUCIA [inicio, fin) del documento.          ║
+ * ║                                                             ║
+ * ║  Al guardar sobre el MISMO archivo se elige la escritura    ║
+ * ║  más barata:                                                ║
+ * ║    • EMPALME  → la zona cambió pero ocupa los mismos bytes: ║
+ * ║                 se sobrescribe solo ese trozo               ║
+ * ║    • COLA     → se reescribe desde el primer cambio hasta   ║
+ * ║                 el final y se trunca el archivo             ║
+ * ║    • COMPLETA → si la cola es más de la mitad del texto,    ║
+ * ║                 si el archivo cambió fuera de la aplicación ║
+ * ║                 o si no se conoce su contenido en disco     ║
+ * ║                                                             ║
+ * ║  Para saber en qué BYTE empieza el cambio se cuentan los    ║
+ * ║  bytes del texto anterior sin crear ningún String (Segment).║
+ * ║  Solo se admiten codificaciones en las que eso es posible:  ║
+ * ║  UTF-8 y las de un byte por carácter.                       ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class SeguimientoCambios implements DocumentListener {
+
+    private static final int SIN_CAMBIOS = Integer.MAX_VALUE;
+
+    /** Si la cola supera esta fracción del texto, se reescribe todo. */
+    private static final double FRACCION_MAXIMA_COLA = 0.5;
+
+    private final Document doc;
+
+    /* Zona sucia en coordenadas del documento actual */
+    private int inicioCambio = SIN_CAMBIOS;
+    private int finCambio = -1;
+
+    /* Menor offset de las escrituras enviadas y aún no confirmadas */
+    private int inicioPendiente = SIN_CAMBIOS;
+    private long ultimaSecuencia = 0;
+
+    /* Lo que sabemos del archivo en disco tras la última escritura confirmada */
+    private Path base;
+    private Charset charsetBase;
+    private long tamanoBase;
+    private FileTime fechaBase;
+    private boolean baseValida = false;
+
+    SeguimientoCambios(Document doc) {
+        this.doc = doc;
+        doc.addDocumentListener(this);
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  DocumentListener: ampliar la zona sucia
+    // ──────────────────────────────────────────────────────────────
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        int offset = e.getOffset();
+        int longitud = e.getLength();
+        inicioCambio = Math.min(inicioCambio, offset);
+        // Lo que estaba detrás del punto de inserción se desplaza
+        if (finCambio > offset) {
+            finCambio += longitud;
+        }
+        finCambio = Math.max(finCambio, offset + longitud);
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        int offset = e.getOffset();
+        int longitud = e.getLength();
+        inicioCambio = Math.min(inicioCambio, offset);
+        if (finCambio >= offset + longitud) {
+            finCambio -= longitud;
+        } else if (finCambio > offset) {
+            finCambio = offset;
+        }
+        finCambio = Math.max(finCambio, offset);
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // Solo cambia el formato: los bytes del archivo no varían
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  PLANIFICAR EL GUARDADO (en el EDT)                         ║
+    // ╚═════════════════════════════════════════════════════════════╝
+
+    /**
+     * Decide qué escribir y toma la copia del texto necesario.
+     * Devuelve null si el archivo ya está al día.
+     */
+    MotorGuardado.Escritura planificar(Path destino, Charset charset) {
+        Path ruta = destino.toAbsolutePath().normalize();
+        long secuencia = ++ultimaSecuencia;
+        int longitud = doc.getLength();
+
+        boolean mismoArchivo = baseValida && ruta.equals(base) && charset.equals(charsetBase)
+                && admiteOffsets(charset);
+        // Si no hay escrituras en vuelo, comprobar que nadie tocó el archivo
+        if (mismoArchivo && inicioPendiente == SIN_CAMBIOS) {
+            mismoArchivo = coincideConDisco(ruta);
+        }
+        if (mismoArchivo && inicioCambio == SIN_CAMBIOS && inicioPendiente == SIN_CAMBIOS) {
+            return null;
+        }
+
+        int inicio = Math.min(inicioCambio, inicioPendiente);
+        MotorGuardado.Escritura escritura;
+        try {
+            if (!mismoArchivo || inicio == 0
+                    || longitud - Math.min(inicio, longitud) > longitud * FRACCION_MAXIMA_COLA) {
+                escritura = new MotorGuardado.Escritura(MotorGuardado.Tipo.COMPLETA, 0,
+                        doc.getText(0, longitud), charset, secuencia);
+                inicio = 0;
+            } else {
+                inicio = alinear(Math.min(inicio, longitud));
+                escritura = planificarParcial(inicio, longitud, charset, secuencia);
+            }
+        } catch (BadLocationException ex) {
+            // No debería ocurrir: los offsets salen de la propia zona sucia
+            throw new IllegalStateException(ex);
+        }
+
+        // La próxima escritura debe cubrir también esta, hasta que se confirme
+        inicioPendiente = Math.min(inicioPendiente, inicio);
+        inicioCambio = SIN_CAMBIOS;
+        finCambio = -1;
+        if (escritura.tipo == MotorGuardado.Tipo.COMPLETA) {
+            base = ruta;
+            charsetBase = charset;
+        }
+        return escritura;
+    }
+
+    private MotorGuardado.Escritura planificarParcial(int inicio, int longitud, Charset charset,
+            long secuencia) throws BadLocationException {
+        long bytesPrefijo = contarBytes(0, inicio, charset);
+
+        // EMPALME: solo si no hay nada en vuelo (conocemos el tamaño exacto)
+        // y la zona sucia ocupa ahora los mismos bytes que antes
+        // El final se alinea hacia DELANTE para incluir el par entero
+        int fin = alinear(finCambio) < finCambio ? finCambio + 1 : finCambio;
+        if (inicioPendiente == SIN_CAMBIOS && fin > inicio && fin < longitud) {
+            long bytesZona = contarBytes(inicio, fin, charset);
+            long bytesResto = contarBytes(fin, longitud, charset);
+            if (bytesPrefijo + bytesZona + bytesResto == tamanoBase) {
+                return new MotorGuardado.Escritura(MotorGuardado.Tipo.EMPALME, bytesPrefijo,
+                        doc.getText(inicio, fin - inicio), charset, secuencia);
+            }
+        }
+        return new MotorGuardado.Escritura(MotorGuardado.Tipo.COLA, bytesPrefijo,
+                doc.getText(inicio, longitud - inicio), charset, secuencia);
+    }
+
+    /**
+     * Un emoji (fuera del BMP) ocupa DOS char (par surrogate). Si un
+     * corte cae entre ambos, se retrocede uno para no partirlo:
+     * cada mitad suelta se codificaría como '?'.
+     */
+    private int alinear(int posicion) throws BadLocationException {
+        if (posicion > 0 && posicion < doc.getLength()
+                && Character.isHighSurrogate(doc.getText(posicion - 1, 1).charAt(0))
+                && Character.isLowSurrogate(doc.getText(posicion, 1).charAt(0))) {
+            return posicion - 1;
+        }
+        return posicion;
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  CONFIRMAR / INVALIDAR (desde el Oyente, en el EDT)         ║
+    // ╚═════════════════════════════════════════════════════════════╝
+
+    /**
+     * La escritura terminó bien: el archivo en disco queda como referencia.
+     * Devuelve true si era la última enviada (el disco ya tiene el texto planificado).
+     */
+    boolean confirmar(MotorGuardado.Resultado r) {
+        if (r.escritura.secuencia == ultimaSecuencia) {
+            // Era la última enviada → no queda nada en vuelo
+            inicioPendiente = SIN_CAMBIOS;
+            base = r.destino.toAbsolutePath().normalize();
+            charsetBase = r.escritura.charset;
+            tamanoBase = r.tamanoFinal;
+            fechaBase = r.fechaFinal;
+            baseValida = true;
+            return true;
+        }
+        return false;
+    }
+
+    /** Falló una escritura: el archivo puede estar a medias → la próxima será completa. */
+    void invalidar() {
+        baseValida = false;
+        inicioPendiente = 0;
+    }
+
+    /**
+     * Tras cargar un archivo: si sus bytes corresponden exactamente al
+     * texto del documento (mismo recuento), sirve de referencia para
+     * los guardados incrementales. Si no (por ejemplo, se convirtieron
+     * saltos "\r\n"), el primer guardado será completo.
+     */
+    void establecerBase(Path archivo, Charset charset) {
+        inicioCambio = SIN_CAMBIOS;
+        finCambio = -1;
+        inicioPendiente = SIN_CAMBIOS;
+        base = archivo.toAbsolutePath().normalize();
+        charsetBase = charset;
+        baseValida = false;
+        if (!admiteOffsets(charset)) {
+            return;
+        }
+        try {
+            tamanoBase = Files.size(base);
+            fechaBase = Files.getLastModifiedTime(base);
+            baseValida = contarBytes(0, doc.getLength(), charset) == tamanoBase;
+        } catch (IOException | BadLocationException ex) {
+            baseValida = false;
+        }
+    }
+
+    private boolean coincideConDisco(Path ruta) {
+        try {
+            return Files.size(ruta) == tamanoBase
+                    && Files.getLastModifiedTime(ruta).equals(fechaBase);
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Contar bytes sin crear Strings
+    //
+    //  Segment da acceso directo al array interno del documento;
+    //  con setPartialReturn(true) lo entrega por trozos sin copiar.
+    // ──────────────────────────────────────────────────────────────
+
+    /** UTF-8 o codificaciones de 1 byte por carácter. */
+    static boolean admiteOffsets(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8)
+                || charset.newEncoder().maxBytesPerChar() == 1.0f;
+    }
+
+    private long contarBytes(int desde, int hasta, Charset charset) throws BadLocationException {
+        boolean utf8 = charset.equals(StandardCharsets.UTF_8);
+        if (!utf8) {
+            return hasta - desde; // un byte por carácter
+        }
+        Segment trozo = new Segment();
+        trozo.setPartialReturn(true);
+        long total = 0;
+        int pos = desde;
+        char pendienteAlto = 0; // surrogate alto al final del trozo anterior
+        while (pos < hasta) {
+            doc.getText(pos, hasta - pos, trozo);
+            for (int i = trozo.offset; i < trozo.offset + trozo.count; i++) {
+                char c = trozo.array[i];
+                if (pendienteAlto != 0) {
+                    // Par completo = 4 bytes; si no, el alto suelto vale 1 ('?')
+                    total += Character.isLowSurrogate(c) ? 4 : 1;
+                    pendienteAlto = 0;
+                    if (Character.isLowSurrogate(c)) {
+                        continue;
+                    }
+                }
+                if (Character.isHighSurrogate(c)) {
+                    pendienteAlto = c; // se decide con el siguiente carácter
+                } else {
+                    total += bytesUtf8(c);
+                }
+            }
+            pos += trozo.count;
+        }
+        if (pendienteAlto != 0) {
+            total += 1;
+        }
+        return total;
+    }
+
+    /** Bytes UTF-8 de un carácter suelto (un surrogate aislado se codifica como '?'). */
+    private static int bytesUtf8(char c) {
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (Character.isSurrogate(c)) {
+            return 1;
+        }
+        return 3;
+    }
+}
@@ -0,0 +1,151 @@
+package ejemplos.archivos;
+
+import javax.swing.*;
+import java.awt.*;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  VisorArchivoMapeado – visor de solo lectura para archivos  ║
+ * ║  GIGANTES (cientos de MB o varios GB)                       ║
+ * ║                                                             ║
+ * ║  Un JTextArea guarda TODO el texto en memoria: con 2 GB es  ║
+ * ║  imposible. Aquí se usa una JList "virtual":                ║
+ * ║                                                             ║
+ * ║    • El modelo (ModeloLineasMapeadas) NO guarda las líneas; ║
+ * ║      getElementAt(i) las decodifica bajo demanda desde el   ║
+ * ║      ArchivoMapeado.                                        ║
+ * ║    • JList solo pide las filas VISIBLES al pintar.          ║
+ * ║    • setFixedCellHeight/Width evita que JList mida las      ║
+ * ║      millones de filas para calcular su tamaño.             ║
+ * ║                                                             ║
+ * ║  Resultado: abrir es casi instantáneo y la memoria depende  ║
+ * ║  del número de líneas, no del tamaño del archivo.           ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class VisorArchivoMapeado {
+
+    /** Ancho máximo (en caracteres) que se reserva para una fila. */
+    private static final int MAX_COLUMNAS = 2000;
+
+    private final ModeloLineasMapeadas modelo = new ModeloLineasMapeadas();
+    private final JList<String> lista = new JList<>(modelo);
+    private final JScrollPane scroll = new JScrollPane(lista);
+
+    VisorArchivoMapeado(Font fuente) {
+        lista.setFont(fuente);
+        // Altura fija → JList calcula el alto total como filas × altura
+        lista.setFixedCellHeight(lista.getFontMetrics(fuente).getHeight());
+        lista.setFixedCellWidth(100);
+    }
+
+    JScrollPane getComponente() {
+        return scroll;
+    }
+
+    ArchivoMapeado getArchivo() {
+        return modelo.getArchivo();
+    }
+
+    /** Muestra un archivo ya indexado (llamar desde el EDT). */
+    void mostrar(ArchivoMapeado archivo) {
+        FontMetrics fm = lista.getFontMetrics(lista.getFont());
+        int columnas = Math.min(MAX_COLUMNAS, Math.max(20, archivo.getMaxBytesLinea()));
+        lista.setFixedCellWidth(fm.charWidth('m') * columnas + 10);
+        modelo.setArchivo(archivo);
+        lista.ensureIndexIsVisible(0);
+    }
+
+    /** Vacía el visor y libera la referencia al archivo proyectado. */
+    void limpiar() {
+        modelo.setArchivo(null);
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  ABRIR EN SEGUNDO PLANO                                     ║
+    // ║                                                             ║
+    // ║  Proyectar el archivo es inmediato, pero indexarlo supone   ║
+    // ║  recorrerlo una vez → se hace en un SwingWorker.            ║
+    // ║  Quien llama escucha "progress" y "state" igual que con     ║
+    // ║  VisorStreamingWorker; al terminar, done() lo muestra.      ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    SwingWorker<ArchivoMapeado, Void> abrirEnSegundoPlano(Path path) {
+        return new SwingWorker<ArchivoMapeado, Void>() {
+            @Override
+            protected ArchivoMapeado doInBackground() throws Exception {
+                ArchivoMapeado archivo = ArchivoMapeado.abrir(path);
+                if (!archivo.indexar(this::setProgress)) {
+                    throw new InterruptedException("Indexación cancelada");
+                }
+                return archivo;
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    mostrar(get());
+                } catch (Exception ex) {
+                    // El error se informa a quien escucha la propiedad "state"
+                }
+            }
+        };
+    }
+}
+
+// ╔═════════════════════════════════════════════════════════════╗
+// ║  MODELO DE LA JList: ModeloLineasMapeadas                   ║
+// ║                                                             ║
+// ║  AbstractListModel solo exige dos métodos:                  ║
+// ║    • getSize()         → número de líneas del índice        ║
+// ║    • getElementAt(i)   → decodifica la línea i              ║
+// ║                                                             ║
+// ║  Una pequeña caché LRU (LinkedHashMap en orden de acceso)   ║
+// ║  evita decodificar otra vez las líneas visibles en cada     ║
+// ║  repintado; su tamaño es fijo, así que la memoria no crece. ║
+// ╚═════════════════════════════════════════════════════════════╝
+class ModeloLineasMapeadas extends AbstractListModel<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int TAM_CACHE = 512;
+
+    private ArchivoMapeado archivo;
+
+    private final Map<Integer, String> cache = new LinkedHashMap<Integer, String>(TAM_CACHE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> mayor) {
+            return size() > TAM_CACHE;
+        }
+    };
+
+    ArchivoMapeado getArchivo() {
+        return archivo;
+    }
+
+    void setArchivo(ArchivoMapeado nuevo) {
+        int anterior = getSize();
+        archivo = nuevo;
+        cache.clear();
+        if (anterior > 0) {
+            fireIntervalRemoved(this, 0, anterior - 1);
+        }
+        if (getSize() > 0) {
+            fireIntervalAdded(this, 0, getSize() - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return archivo == null ? 0 : archivo.getNumLineas();
+    }
+
+    @Override
+    public String getElementAt(int indice) {
+        return cache.computeIfAbsent(indice, archivo::linea);
+    }
+}
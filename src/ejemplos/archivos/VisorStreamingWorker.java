@@ -0,0 +1,147 @@
+package ejemplos.archivos;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  VisorStreamingWorker – lectura por bloques en segundo plano║
+ * ║                                                             ║
+ * ║  SwingWorker que lee un archivo grande SIN bloquear el EDT: ║
+ * ║                                                             ║
+ * ║    • doInBackground() → hilo de fondo: lee bloques de bytes ║
+ * ║      y los decodifica (UTF-8) con DecodificadorBloques.     ║
+ * ║    • publish(bloque)  → envía cada bloque al EDT.           ║
+ * ║    • process(bloques) → EDT: añade los bloques al JTextArea ║
+ * ║      con UNA sola inserción por lote.                       ║
+ * ║    • setProgress(%)   → alimenta la JProgressBar.           ║
+ * ║    • cancel(true)     → botón "Cancelar".                   ║
+ * ║                                                             ║
+ * ║  Memoria acotada: el área de texto conserva como máximo     ║
+ * ║  LIMITE_CARACTERES; si se supera, se descartan las líneas   ║
+ * ║  más antiguas (como hace "tail -f" con un log). Y como      ║
+ * ║  mucho EN_VUELO bloques esperan al EDT: si decodificar va   ║
+ * ║  más rápido que insertar, el hilo de fondo se detiene.      ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class VisorStreamingWorker extends SwingWorker<Long, String> {
+
+    /** Máximo de caracteres que se mantienen en el JTextArea (~8 M). */
+    static final int LIMITE_CARACTERES = 8 * 1024 * 1024;
+
+    /** Bloques publicados que aún no ha recogido process() (~64 K caracteres cada uno). */
+    static final int EN_VUELO = 16;
+
+    // Un permiso por bloque publicado; process() los devuelve
+    private final Semaphore huecos = new Semaphore(EN_VUELO);
+
+    private final Path path;
+    private final JTextArea area;
+
+    /* Solo se usan desde el EDT (en process/done) */
+    private long caracteresMostrados = 0;
+    private long caracteresDescartados = 0;
+
+    VisorStreamingWorker(Path path, JTextArea area) {
+        this.path = path;
+        this.area = area;
+    }
+
+    /**
+     * Hilo de fondo: lee el archivo por bloques y publica cada
+     * trozo de texto decodificado. Devuelve los bytes leídos.
+     */
+    @Override
+    protected Long doInBackground() throws IOException {
+        long tamano = Files.size(path);
+        return DecodificadorBloques.decodificar(path, StandardCharsets.UTF_8, this::isCancelled,
+                (bloque, leidos) -> {
+                    if (bloque.hasRemaining()) {
+                        try {
+                            huecos.acquire(); // espera si el EDT va con retraso
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            return; // cancel(true): el decodificador para en el siguiente bloque
+                        }
+                        publish(bloque.toString());
+                    }
+                    if (tamano > 0) {
+                        setProgress((int) Math.min(100, leidos * 100 / tamano));
+                    }
+                });
+    }
+
+    /**
+     * EDT: recibe varios bloques a la vez (Swing los agrupa si el
+     * EDT va con retraso) y los inserta de una sola vez.
+     */
+    @Override
+    protected void process(List<String> bloques) {
+        huecos.release(bloques.size());
+        if (isCancelled()) {
+            return;
+        }
+        long total = 0;
+        for (String bloque : bloques) {
+            total += bloque.length();
+        }
+        caracteresMostrados += total;
+
+        // De un lote mayor que el límite solo se inserta el final
+        long saltar = Math.max(0, total - LIMITE_CARACTERES);
+        caracteresDescartados += saltar;
+        StringBuilder lote = new StringBuilder((int) (total - saltar));
+        for (String bloque : bloques) {
+            if (saltar >= bloque.length()) {
+                saltar -= bloque.length();
+                continue;
+            }
+            lote.append(bloque, (int) saltar, bloque.length());
+            saltar = 0;
+        }
+        area.append(lote.toString());
+        recortarInicio();
+    }
+
+    /**
+     * Si el documento supera LIMITE_CARACTERES, elimina las
+     * líneas más antiguas para mantener la memoria acotada.
+     */
+    private void recortarInicio() {
+        Document doc = area.getDocument();
+        int exceso = doc.getLength() - LIMITE_CARACTERES;
+        if (exceso <= 0) {
+            return;
+        }
+        try {
+            // Cortar justo después de un salto de línea para no partir líneas
+            int corte = exceso;
+            String resto = doc.getText(exceso, Math.min(4096, doc.getLength() - exceso));
+            int salto = resto.indexOf('\n');
+            if (salto >= 0) {
+                corte += salto + 1;
+            }
+            doc.remove(0, corte);
+            caracteresDescartados += corte;
+        } catch (BadLocationException ex) {
+            // No debería ocurrir: los índices se calculan a partir de getLength()
+        }
+    }
+
+    /** Caracteres recibidos hasta ahora (solo EDT). */
+    long getCaracteresMostrados() {
+        return caracteresMostrados;
+    }
+
+    /** Caracteres eliminados del principio por el límite de memoria (solo EDT). */
+    long getCaracteresDescartados() {
+        return caracteresDescartados;
+    }
+}
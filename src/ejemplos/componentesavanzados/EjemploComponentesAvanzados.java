@@ -9,6 +9,8 @@ import java.awt.*;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 
+import ejemplos.comun.RegistroCircular;
+
 /**
  * EJEMPLO 3 – COMPONENTES AVANZADOS DE SWING
  * =============================================
@@ -110,11 +112,8 @@ public class EjemploComponentesAvanzados {
         panelCentral.add(scrollLista, BorderLayout.WEST);
 
         // ── Panel de información (derecha) ─────────────────────────────────
-        JTextArea areaInfo = new JTextArea();
-        areaInfo.setEditable(false);
+        RegistroCircular areaInfo = new RegistroCircular();
         areaInfo.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        areaInfo.setLineWrap(true);
-        areaInfo.setWrapStyleWord(true);
         areaInfo.setText("Panel de información:\n"
                 + "──────────────────────────────────────\n"
                 + "Interactúa con los componentes para\n"
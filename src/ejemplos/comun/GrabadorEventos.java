@@ -0,0 +1,263 @@
+package ejemplos.comun;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  GrabadorEventos – graba el ratón y el teclado de una       ║
+ * ║  ventana para reproducirlos después (ReproductorEventos)    ║
+ * ║                                                             ║
+ * ║  Se registra con Toolkit.addAWTEventListener(): recibe los  ║
+ * ║  eventos de entrada "en bruto" de TODA la aplicación antes  ║
+ * ║  que ningún listener; nos quedamos con los de la ventana.   ║
+ * ║                                                             ║
+ * ║  Solo hace falta grabar ratón, rueda y teclado: los         ║
+ * ║  ActionEvent y FocusEvent los vuelve a generar Swing al     ║
+ * ║  reproducirlos.                                             ║
+ * ║                                                             ║
+ * ║  Cada evento guarda:                                        ║
+ * ║    • µs desde el anterior (para reproducir a velocidad 1x)  ║
+ * ║    • RUTA del componente: índices de hijo desde la ventana  ║
+ * ║      (0 → 2 → 1…), válida en otra ejecución del ejemplo     ║
+ * ║    • posición relativa a la VENTANA, no a la pantalla       ║
+ * ║                                                             ║
+ * ║  Formato binario compacto (enteros de longitud variable):   ║
+ * ║    "EVSW" · versión · registro · registro · …               ║
+ * ║  Un movimiento de ratón ocupa unos 10-12 bytes.             ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+public class GrabadorEventos {
+
+    static final int MAGIA = 0x45565357; // "EVSW"
+    static final int VERSION = 1;
+
+    static final int RATON = 1;
+    static final int RUEDA = 2;
+    static final int TECLA = 3;
+
+    private static final long MASCARA = AWTEvent.MOUSE_EVENT_MASK
+            | AWTEvent.MOUSE_MOTION_EVENT_MASK
+            | AWTEvent.MOUSE_WHEEL_EVENT_MASK
+            | AWTEvent.KEY_EVENT_MASK;
+
+    private final Window ventana;
+    private final Component excluido;   // p. ej. los propios botones de grabar
+    private final AWTEventListener oyente = this::capturar;
+
+    private ByteArrayOutputStream bytes;
+    private DataOutputStream salida;
+    private long ultimoNanos;
+    private int eventos;
+
+    /**
+     * @param ventana  solo se graban los eventos de esta ventana
+     * @param excluido componente (y sus hijos) que no se graba; puede ser null
+     */
+    public GrabadorEventos(Window ventana, Component excluido) {
+        this.ventana = ventana;
+        this.excluido = excluido;
+        // El oyente es GLOBAL (del Toolkit): si la ventana se cierra grabando,
+        // seguiría recibiendo cada evento de la aplicación y retendría la ventana
+        ventana.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                descartar();
+            }
+        });
+    }
+
+    public boolean isGrabando() {
+        return salida != null;
+    }
+
+    public int getEventos() {
+        return eventos;
+    }
+
+    /** Empieza a grabar (EDT). */
+    public void iniciar() {
+        if (isGrabando()) {
+            return;
+        }
+        bytes = new ByteArrayOutputStream(64 * 1024);
+        salida = new DataOutputStream(bytes);
+        eventos = 0;
+        ultimoNanos = System.nanoTime();
+        try {
+            salida.writeInt(MAGIA);
+            salida.writeByte(VERSION);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // en memoria no falla
+        }
+        Toolkit.getDefaultToolkit().addAWTEventListener(oyente, MASCARA);
+    }
+
+    /**
+     * Deja de grabar y guarda la grabación en 'archivo'.
+     *
+     * @return número de eventos grabados
+     */
+    public int detener(Path archivo) throws IOException {
+        if (!isGrabando()) {
+            return 0;
+        }
+        Toolkit.getDefaultToolkit().removeAWTEventListener(oyente);
+        salida.flush();
+        byte[] datos = bytes.toByteArray();
+        salida = null;
+        bytes = null;
+        Path carpeta = archivo.toAbsolutePath().getParent();
+        if (carpeta != null) {
+            Files.createDirectories(carpeta);
+        }
+        Files.write(archivo, datos);
+        return eventos;
+    }
+
+    /** Deja de grabar SIN guardar nada (EDT). */
+    public void descartar() {
+        if (!isGrabando()) {
+            return;
+        }
+        Toolkit.getDefaultToolkit().removeAWTEventListener(oyente);
+        salida = null;
+        bytes = null;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Captura (EDT, antes de que el evento llegue a su componente)
+    // ──────────────────────────────────────────────────────────────
+    private void capturar(AWTEvent evento) {
+        if (salida == null || !(evento.getSource() instanceof Component)) {
+            return;
+        }
+        Component fuente = (Component) evento.getSource();
+        if (fuente != ventana && SwingUtilities.getWindowAncestor(fuente) != ventana) {
+            return;
+        }
+        if (excluido != null && SwingUtilities.isDescendingFrom(fuente, excluido)) {
+            return;
+        }
+        long ahora = System.nanoTime();
+        try {
+            if (evento instanceof MouseWheelEvent) {
+                MouseWheelEvent e = (MouseWheelEvent) evento;
+                escribirRaton(RUEDA, e, fuente, ahora);
+                salida.writeByte(e.getScrollType());
+                escribirVarint(salida, e.getScrollAmount());
+                escribirVarint(salida, zigzag(e.getWheelRotation()));
+            } else if (evento instanceof MouseEvent) {
+                escribirRaton(RATON, (MouseEvent) evento, fuente, ahora);
+            } else if (evento instanceof KeyEvent) {
+                KeyEvent e = (KeyEvent) evento;
+                escribirCabecera(TECLA, e.getID(), fuente, ahora);
+                escribirVarint(salida, e.getModifiersEx());
+                escribirVarint(salida, e.getKeyCode());
+                escribirVarint(salida, e.getKeyChar());
+                salida.writeByte(e.getKeyLocation());
+            } else {
+                return;
+            }
+            eventos++;
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void escribirRaton(int tipo, MouseEvent e, Component fuente, long ahora) throws IOException {
+        escribirCabecera(tipo, e.getID(), fuente, ahora);
+        Point p = SwingUtilities.convertPoint(fuente, e.getX(), e.getY(), ventana);
+        escribirVarint(salida, zigzag(p.x));
+        escribirVarint(salida, zigzag(p.y));
+        escribirVarint(salida, e.getModifiersEx());
+        salida.writeByte(e.getButton());
+        salida.writeByte(Math.min(e.getClickCount(), 255));
+        salida.writeBoolean(e.isPopupTrigger());
+    }
+
+    private void escribirCabecera(int tipo, int id, Component fuente, long ahora) throws IOException {
+        salida.writeByte(tipo);
+        escribirVarint(salida, id);
+        long micros = (ahora - ultimoNanos) / 1_000;
+        escribirVarint(salida, (int) Math.min(micros, Integer.MAX_VALUE));
+        ultimoNanos = ahora;
+        List<Integer> ruta = ruta(fuente);
+        escribirVarint(salida, ruta.size());
+        for (int indice : ruta) {
+            escribirVarint(salida, indice);
+        }
+    }
+
+    /** Índices de hijo desde la ventana hasta el componente. */
+    private List<Integer> ruta(Component componente) {
+        List<Integer> ruta = new ArrayList<>();
+        Component actual = componente;
+        while (actual != ventana && actual != null) {
+            Container padre = actual.getParent();
+            if (padre == null) {
+                break;
+            }
+            ruta.add(0, indiceEn(padre, actual));
+            actual = padre;
+        }
+        return ruta;
+    }
+
+    private static int indiceEn(Container padre, Component hijo) {
+        for (int i = 0; i < padre.getComponentCount(); i++) {
+            if (padre.getComponent(i) == hijo) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Enteros de longitud variable (7 bits por byte, como en
+    //  Protocol Buffers) y "zigzag" para los que pueden ser
+    //  negativos: -1 → 1, 1 → 2, -2 → 3…
+    // ──────────────────────────────────────────────────────────────
+    static void escribirVarint(DataOutput out, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            out.writeByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        out.writeByte(valor);
+    }
+
+    static int leerVarint(DataInput in) throws IOException {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 35; desplazamiento += 7) {
+            int b = in.readUnsignedByte();
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Entero mal formado en la grabación");
+    }
+
+    static int zigzag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    static int deszigzag(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
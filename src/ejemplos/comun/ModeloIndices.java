@@ -0,0 +1,142 @@
+package ejemplos.comun;
+
+import javax.swing.*;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  ModeloIndices – ListModel que muestra un SUBCONJUNTO de un ║
+ * ║  array sin copiar sus elementos                             ║
+ * ║                                                             ║
+ * ║  Con DefaultListModel, filtrar es clear() + N × addElement: ║
+ * ║  N+1 eventos, y la JList recalcula su tamaño en cada uno.   ║
+ * ║  Aquí el modelo guarda:                                     ║
+ * ║    • datos[]   → TODOS los elementos (no se copian)         ║
+ * ║    • indices[] → qué posiciones de datos[] se ven, en orden ║
+ * ║                                                             ║
+ * ║  Dos formas de cambiar lo que se ve:                        ║
+ * ║    • reemplazarTodo(datos, indices) → UN contentsChanged    ║
+ * ║      (p. ej. al cambiar de conjunto de datos)               ║
+ * ║    • mostrar(indices) → compara con lo anterior: se salta   ║
+ * ║      el principio y el final comunes y avisa SOLO del       ║
+ * ║      tramo del medio (cambiado + añadido o quitado). Así la ║
+ * ║      JList no recalcula lo que no cambió.                   ║
+ * ║                                                             ║
+ * ║  OJO: la JList conserva el NÚMERO de fila seleccionado, y   ║
+ * ║  en el tramo del medio ese número puede ser ya otro         ║
+ * ║  elemento. Para seguir al mismo, leer getIndice() antes de  ║
+ * ║  mostrar() y volver a seleccionar getFila() después.        ║
+ * ║                                                             ║
+ * ║  Los arrays NO se copian: quien los pasa no debe            ║
+ * ║  modificarlos después. Solo desde el EDT.                   ║
+ * ║                                                             ║
+ * ║  Uso:                                                       ║
+ * ║    ModeloIndices<String> m = new ModeloIndices<>(datos);    ║
+ * ║    JList<String> lista = new JList<>(m);                    ║
+ * ║    m.mostrar(new int[] { 0, 4, 7 });                        ║
+ * ║    int original = m.getIndice(lista.getSelectedIndex());    ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+public class ModeloIndices<E> extends AbstractListModel<E> {
+
+    private static final long serialVersionUID = 1L;
+
+    private E[] datos;
+    private int[] indices;
+
+    /** Muestra todos los datos. */
+    public ModeloIndices(E[] datos) {
+        this(datos, todos(datos.length));
+    }
+
+    public ModeloIndices(E[] datos, int[] indices) {
+        this.datos = datos;
+        this.indices = indices;
+    }
+
+    @Override
+    public int getSize() {
+        return indices.length;
+    }
+
+    @Override
+    public E getElementAt(int fila) {
+        return datos[indices[fila]];
+    }
+
+    /** Posición en getDatos() del elemento que se ve en 'fila'. */
+    public int getIndice(int fila) {
+        return indices[fila];
+    }
+
+    /** Fila en la que se ve datos[indice], o -1 si no se muestra. */
+    public int getFila(int indice) {
+        for (int fila = 0; fila < indices.length; fila++) {
+            if (indices[fila] == indice) {
+                return fila;
+            }
+        }
+        return -1;
+    }
+
+    public E[] getDatos() {
+        return datos;
+    }
+
+    /** Posiciones 0..n-1 (para mostrar todos los datos). */
+    public static int[] todos(int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    /** Cambia datos e índices de golpe, con un único evento. */
+    public void reemplazarTodo(E[] datos, int[] indices) {
+        int anterior = this.indices.length;
+        this.datos = datos;
+        this.indices = indices;
+        int mayor = Math.max(anterior, indices.length);
+        if (mayor > 0) {
+            fireContentsChanged(this, 0, mayor - 1);
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  mostrar(): solo avisa del tramo que cambia
+    //
+    //    antes:  A B C D E F         prefijo común: A B
+    //    ahora:  A B X E F           sufijo común:  E F
+    //                                medio: C D → X
+    //    → contentsChanged(2, 2)  +  intervalRemoved(3, 3)
+    // ──────────────────────────────────────────────────────────────
+
+    /** Cambia los índices (mismos datos) con el mínimo de eventos. */
+    public void mostrar(int[] nuevos) {
+        int[] viejos = indices;
+        indices = nuevos;
+
+        int comunes = Math.min(viejos.length, nuevos.length);
+        int prefijo = 0;
+        while (prefijo < comunes && viejos[prefijo] == nuevos[prefijo]) {
+            prefijo++;
+        }
+        int sufijo = 0;
+        while (sufijo < comunes - prefijo
+                && viejos[viejos.length - 1 - sufijo] == nuevos[nuevos.length - 1 - sufijo]) {
+            sufijo++;
+        }
+
+        int medioViejo = viejos.length - prefijo - sufijo;
+        int medioNuevo = nuevos.length - prefijo - sufijo;
+        int cambiados = Math.min(medioViejo, medioNuevo);
+        if (cambiados > 0) {
+            fireContentsChanged(this, prefijo, prefijo + cambiados - 1);
+        }
+        if (medioViejo > medioNuevo) {
+            fireIntervalRemoved(this, prefijo + cambiados, prefijo + medioViejo - 1);
+        } else if (medioNuevo > medioViejo) {
+            fireIntervalAdded(this, prefijo + cambiados, prefijo + medioNuevo - 1);
+        }
+    }
+}
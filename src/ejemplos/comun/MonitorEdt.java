@@ -0,0 +1,377 @@
+package ejemplos.comun;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  MonitorEdt – ¿cuánto tiempo ocupa cada evento el EDT?      ║
+ * ║                                                             ║
+ * ║  Todo listener se ejecuta en el EDT. Si uno lee un fichero  ║
+ * ║  o recorre el árbol de componentes, la ventana se congela   ║
+ * ║  mientras tanto. Este monitor lo hace visible:              ║
+ * ║                                                             ║
+ * ║  • Sustituye la EventQueue del sistema (push) por una que   ║
+ * ║    cronometra cada dispatchEvent().                         ║
+ * ║  • Guarda un HistogramaLatencias por TIPO de evento y       ║
+ * ║    CLASE de la fuente (p. ej. MouseEvent.MOUSE_CLICKED      ║
+ * ║    @ JButton) → p50, p90, p99, p99.9 y máximo.              ║
+ * ║  • Un hilo VIGILANTE comprueba cada pocos ms si el evento   ║
+ * ║    en curso supera el umbral; si es así, vuelca la PILA     ║
+ * ║    del EDT en System.err mientras sigue bloqueado (se ve    ║
+ * ║    exactamente qué línea lo está frenando).                 ║
+ * ║                                                             ║
+ * ║  Los diálogos modales (JOptionPane…) abren un bucle de      ║
+ * ║  eventos anidado: el evento que los abrió no se cuenta,     ║
+ * ║  porque su duración es la del usuario, no la del código.    ║
+ * ║                                                             ║
+ * ║  Uso (App lo instala con  -Dejemplos.monitorEdt=100 ):      ║
+ * ║    MonitorEdt.instalar(100);           // umbral en ms      ║
+ * ║    MonitorEdt.mostrarInforme(ventana); // tabla de latencias║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+public final class MonitorEdt {
+
+    /** Propiedad del sistema que activa el monitor desde App. */
+    public static final String PROPIEDAD = "ejemplos.monitorEdt";
+
+    public static final long UMBRAL_POR_DEFECTO_MS = 100;
+
+    /** Bloqueos que se guardan para el informe (los más recientes). */
+    private static final int MAX_BLOQUEOS = 20;
+
+    private static volatile ColaInstrumentada cola;   // null → no instalado
+
+    private MonitorEdt() {
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  API pública                                                ║
+    // ╚═════════════════════════════════════════════════════════════╝
+
+    /**
+     * Instala el monitor si la propiedad {@value #PROPIEDAD} está
+     * definida ("true" o un umbral en ms). Llamar desde el EDT.
+     */
+    public static void instalarSiSePide() {
+        String valor = System.getProperty(PROPIEDAD);
+        if (valor == null || valor.equalsIgnoreCase("false")) {
+            return;
+        }
+        long umbral = UMBRAL_POR_DEFECTO_MS;
+        try {
+            umbral = Long.parseLong(valor.trim());
+        } catch (NumberFormatException ex) {
+            // "true" u otro texto → umbral por defecto
+        }
+        instalar(umbral);
+    }
+
+    /** Sustituye la cola de eventos (solo la primera vez). EDT. */
+    public static synchronized void instalar(long umbralMs) {
+        if (cola != null) {
+            return;
+        }
+        cola = new ColaInstrumentada(Math.max(1, umbralMs));
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(cola);
+        cola.arrancarVigilante();
+    }
+
+    public static synchronized boolean isInstalado() {
+        return cola != null;
+    }
+
+    /** Tabla de latencias en texto (vacía si no está instalado). EDT. */
+    public static String informe() {
+        ColaInstrumentada c = cola;
+        return c == null ? "" : c.informe();
+    }
+
+    /** Pone a cero histogramas y bloqueos. EDT. */
+    public static void reiniciar() {
+        ColaInstrumentada c = cola;
+        if (c != null) {
+            c.reiniciar();
+        }
+    }
+
+    /** Diálogo con el informe y botones Actualizar / Reiniciar. */
+    public static void mostrarInforme(Component padre) {
+        JTextArea area = new JTextArea(informe(), 24, 100);
+        area.setEditable(false);
+        area.setFont(new Font("Monospaced", Font.PLAIN, 12));
+
+        JButton botonActualizar = new JButton("Actualizar");
+        JButton botonReiniciar = new JButton("Reiniciar");
+        botonActualizar.addActionListener(e -> {
+            area.setText(informe());
+            area.setCaretPosition(0);
+        });
+        botonReiniciar.addActionListener(e -> {
+            reiniciar();
+            area.setText(informe());
+        });
+
+        JPanel botones = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        botones.add(botonActualizar);
+        botones.add(botonReiniciar);
+
+        JDialog dialogo = new JDialog(SwingUtilities.getWindowAncestor(padre),
+                "Latencias del EDT", Dialog.ModalityType.MODELESS);
+        dialogo.add(new JScrollPane(area), BorderLayout.CENTER);
+        dialogo.add(botones, BorderLayout.SOUTH);
+        dialogo.pack();
+        dialogo.setLocationRelativeTo(padre);
+        dialogo.setVisible(true);
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  Clave del histograma: tipo de evento + clase de la fuente  ║
+    // ║                                                             ║
+    // ║  Se compara por Class e id (sin crear textos por evento);   ║
+    // ║  los nombres legibles se calculan una vez, al crearla.      ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private static final class Clave {
+        final Class<?> tipo;
+        final int id;
+        final Class<?> fuente;
+
+        Clave(Class<?> tipo, int id, Class<?> fuente) {
+            this.tipo = tipo;
+            this.id = id;
+            this.fuente = fuente;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Clave)) {
+                return false;
+            }
+            Clave otra = (Clave) o;
+            return tipo == otra.tipo && id == otra.id && fuente == otra.fuente;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * tipo.hashCode() + id) * 31 + fuente.hashCode();
+        }
+    }
+
+    /** Estadística de una clave (solo se toca desde el EDT). */
+    private static final class Entrada {
+        final String tipo;
+        final String fuente;
+        final HistogramaLatencias histograma = new HistogramaLatencias();
+
+        Entrada(String tipo, String fuente) {
+            this.tipo = tipo;
+            this.fuente = fuente;
+        }
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  La EventQueue instrumentada                                ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private static final class ColaInstrumentada extends EventQueue {
+
+        private final long umbralNanos;
+
+        // Histogramas (solo EDT)
+        private final Map<Clave, Entrada> entradas = new HashMap<>();
+        private long excluidosModales = 0;
+
+        // Pila de despachos en curso (>1 si hay un bucle modal anidado)
+        private final long[] inicios = new long[64];
+        private final Entrada[] enCurso = new Entrada[64];
+        private final boolean[] anidados = new boolean[64];
+        private int profundidad = 0;
+
+        // Compartido con el vigilante
+        private volatile Thread edt;
+        private volatile long inicioActual = 0;   // 0 → EDT libre
+        private volatile long despachoActual = 0; // cambia en cada despacho
+        private volatile Entrada entradaActual;
+        private long despachoReportado = -1;      // solo vigilante
+
+        private final Deque<String> bloqueos = new ArrayDeque<>();
+
+        ColaInstrumentada(long umbralMs) {
+            this.umbralNanos = umbralMs * 1_000_000L;
+        }
+
+        @Override
+        protected void dispatchEvent(AWTEvent evento) {
+            if (profundidad >= inicios.length) {
+                super.dispatchEvent(evento); // anidamiento absurdo: sin medir
+                return;
+            }
+            edt = Thread.currentThread();
+            if (profundidad > 0) {
+                anidados[profundidad - 1] = true; // el de fuera abrió un bucle modal
+            }
+            Clave clave = new Clave(evento.getClass(), evento.getID(),
+                    evento.getSource() == null ? Void.class : evento.getSource().getClass());
+            Entrada entrada = entradas.computeIfAbsent(clave, k -> crearEntrada(k, evento));
+
+            long inicio = System.nanoTime();
+            inicios[profundidad] = inicio;
+            enCurso[profundidad] = entrada;
+            anidados[profundidad] = false;
+            profundidad++;
+            marcarInicio(inicio, entrada);
+            try {
+                super.dispatchEvent(evento);
+            } finally {
+                long fin = System.nanoTime();
+                profundidad--;
+                enCurso[profundidad] = null;
+                if (anidados[profundidad]) {
+                    excluidosModales++;
+                } else {
+                    entrada.histograma.registrar((fin - inicios[profundidad]) / 1_000);
+                }
+                // Vuelve a vigilar el evento de fuera (si lo hay) desde ahora:
+                // el tiempo del bucle modal no es culpa suya
+                if (profundidad > 0) {
+                    marcarInicio(fin, enCurso[profundidad - 1]);
+                } else {
+                    inicioActual = 0;
+                }
+            }
+        }
+
+        private void marcarInicio(long inicio, Entrada entrada) {
+            entradaActual = entrada;
+            despachoActual++;
+            inicioActual = inicio;
+        }
+
+        private static Entrada crearEntrada(Clave clave, AWTEvent evento) {
+            String tipo = evento.getClass().getSimpleName();
+            // paramString() empieza por el nombre del id: "MOUSE_CLICKED,(10,20),…"
+            String parametros = evento.paramString();
+            int coma = parametros.indexOf(',');
+            String id = coma < 0 ? parametros : parametros.substring(0, coma);
+            if (!id.isEmpty() && id.equals(id.toUpperCase()) && !id.contains(" ")) {
+                tipo += "." + id;
+            }
+            return new Entrada(tipo, nombreClase(clave.fuente));
+        }
+
+        private static String nombreClase(Class<?> clase) {
+            if (clase == Void.class) {
+                return "(sin fuente)";
+            }
+            String nombre = clase.getName();
+            return nombre.substring(nombre.lastIndexOf('.') + 1);
+        }
+
+        // ──────────────────────────────────────────────────────────
+        //  Vigilante: ¿lleva el EDT demasiado con el mismo evento?
+        // ──────────────────────────────────────────────────────────
+        void arrancarVigilante() {
+            long periodoMs = Math.max(5, umbralNanos / 4_000_000L);
+            Thread vigilante = new Thread(() -> {
+                while (true) {
+                    try {
+                        Thread.sleep(periodoMs);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    comprobar();
+                }
+            }, "vigilante-edt");
+            vigilante.setDaemon(true);
+            vigilante.start();
+        }
+
+        private void comprobar() {
+            long inicio = inicioActual;
+            long despacho = despachoActual;
+            Thread hilo = edt;
+            Entrada entrada = entradaActual;
+            if (inicio == 0 || hilo == null || despacho == despachoReportado) {
+                return;
+            }
+            long transcurrido = System.nanoTime() - inicio;
+            if (transcurrido < umbralNanos) {
+                return;
+            }
+            despachoReportado = despacho;
+            StackTraceElement[] pila = hilo.getStackTrace();
+            // ¿Sigue siendo el mismo despacho? Si no, la pila no sirve
+            if (despacho != despachoActual) {
+                return;
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("⚠ EDT bloqueado %,d ms en %s%n",
+                    transcurrido / 1_000_000, entrada.tipo + " @ " + entrada.fuente));
+            for (StackTraceElement linea : pila) {
+                // Lo que hay por debajo de la EventQueue es siempre igual
+                if (linea.getClassName().startsWith("java.awt.EventQueue")) {
+                    break;
+                }
+                sb.append("    at ").append(linea).append('\n');
+            }
+            String texto = sb.toString();
+            System.err.print(texto);
+            synchronized (bloqueos) {
+                bloqueos.addLast(texto);
+                while (bloqueos.size() > MAX_BLOQUEOS) {
+                    bloqueos.removeFirst();
+                }
+            }
+        }
+
+        // ──────────────────────────────────────────────────────────
+        //  Informe (EDT)
+        // ──────────────────────────────────────────────────────────
+        String informe() {
+            List<Entrada> lista = new ArrayList<>(entradas.values());
+            lista.removeIf(e -> e.histograma.getTotal() == 0);
+            // Primero lo que más tiempo de EDT ha consumido en total
+            lista.sort((a, b) -> Long.compare(b.histograma.getSuma(), a.histograma.getSuma()));
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Umbral de bloqueo: %d ms · tiempos en ms · "
+                    + "%d evento(s) con bucle modal anidado no contados%n%n",
+                    umbralNanos / 1_000_000, excluidosModales));
+            sb.append(String.format("%-44s %-26s %9s %9s %8s %8s %8s %8s %9s%n",
+                    "Tipo de evento", "Fuente", "Eventos", "Total", "p50", "p90", "p99", "p99.9", "Máx"));
+            for (Entrada e : lista) {
+                HistogramaLatencias h = e.histograma;
+                sb.append(String.format("%-44s %-26s %,9d %9.1f %8.3f %8.3f %8.3f %8.3f %9.3f%n",
+                        recortar(e.tipo, 44), recortar(e.fuente, 26), h.getTotal(),
+                        h.getSuma() / 1000.0, h.percentil(50) / 1000.0, h.percentil(90) / 1000.0,
+                        h.percentil(99) / 1000.0, h.percentil(99.9) / 1000.0, h.getMaximo() / 1000.0));
+            }
+            synchronized (bloqueos) {
+                if (!bloqueos.isEmpty()) {
+                    sb.append(String.format("%nÚltimos bloqueos (%d):%n", bloqueos.size()));
+                    for (String bloqueo : bloqueos) {
+                        sb.append(bloqueo).append('\n');
+                    }
+                }
+            }
+            return sb.toString();
+        }
+
+        void reiniciar() {
+            entradas.clear();
+            excluidosModales = 0;
+            synchronized (bloqueos) {
+                bloqueos.clear();
+            }
+        }
+
+        private static String recortar(String texto, int largo) {
+            return texto.length() <= largo ? texto : texto.substring(0, largo - 1) + "…";
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package ejemplos.comun;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  RegistroCircular – log de eventos con memoria ACOTADA      ║
+ * ║                                                             ║
+ * ║  Casi todos los ejemplos usaban un JTextArea como log:      ║
+ * ║  append() + setCaretPosition() en cada línea. En sesiones   ║
+ * ║  largas el documento crece sin límite y cada append es más  ║
+ * ║  lento. Este componente lo sustituye:                       ║
+ * ║                                                             ║
+ * ║  • BUFFER CIRCULAR: un array fijo de N líneas. Al llenarse, ║
+ * ║    cada línea nueva pisa a la más antigua (N = retención    ║
+ * ║    configurable con setCapacidad).                          ║
+ * ║  • VIRTUALIZADO: es una JList con altura de fila fija; solo ║
+ * ║    se pintan las filas visibles, haya 10 o 100.000.         ║
+ * ║  • POR FOTOGRAMAS: append() solo encola la línea (se puede  ║
+ * ║    llamar desde cualquier hilo). Un Timer de ~16 ms vuelca  ║
+ * ║    todo lo pendiente con UN evento del modelo y UN scroll.  ║
+ * ║                                                             ║
+ * ║  Uso (mismos nombres que JTextArea):                        ║
+ * ║    RegistroCircular log = new RegistroCircular();           ║
+ * ║    panel.add(new JScrollPane(log));                         ║
+ * ║    log.append("▶ algo ha pasado\n");                        ║
+ * ║    log.setText("");   // vaciar                             ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+public class RegistroCircular extends JList<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Líneas que se conservan si no se indica otra cosa. */
+    public static final int CAPACIDAD_POR_DEFECTO = 5_000;
+
+    /** ~60 volcados por segundo como máximo. */
+    private static final int MS_POR_FOTOGRAMA = 16;
+
+    private final ModeloCircular modelo;
+
+    // Líneas pendientes de volcar (append puede llegar desde cualquier hilo)
+    private final Object cerrojo = new Object();
+    private List<String> pendientes = new ArrayList<>();
+    private boolean vaciarPendiente = false;
+
+    private final Timer temporizador;
+    private int anchoMaximo;   // en caracteres (la fuente es monoespaciada)
+
+    public RegistroCircular() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    public RegistroCircular(int capacidad) {
+        this(new ModeloCircular(capacidad));
+    }
+
+    private RegistroCircular(ModeloCircular modelo) {
+        super(modelo);
+        this.modelo = modelo;
+        setFont(new Font("Monospaced", Font.PLAIN, 12));
+        setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        temporizador = new Timer(MS_POR_FOTOGRAMA, e -> volcar());
+        temporizador.setRepeats(false);
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  API tipo JTextArea                                         ║
+    // ╚═════════════════════════════════════════════════════════════╝
+
+    /**
+     * Añade texto al final. Cada "\n" separa líneas; si el texto no
+     * termina en "\n", el último trozo cuenta también como una línea.
+     * Se puede llamar desde cualquier hilo.
+     */
+    public void append(String texto) {
+        synchronized (cerrojo) {
+            int desde = 0;
+            int largo = texto.length();
+            while (desde < largo) {
+                int salto = texto.indexOf('\n', desde);
+                int hasta = salto < 0 ? largo : salto;
+                int fin = hasta > desde && texto.charAt(hasta - 1) == '\r' ? hasta - 1 : hasta;
+                pendientes.add(texto.substring(desde, fin));
+                desde = hasta + 1;
+            }
+        }
+        programarVolcado();
+    }
+
+    /** Vacía el log y, si texto no está vacío, lo añade. */
+    public void setText(String texto) {
+        synchronized (cerrojo) {
+            pendientes.clear();
+            vaciarPendiente = true;
+        }
+        if (texto != null && !texto.isEmpty()) {
+            append(texto);
+        } else {
+            programarVolcado();
+        }
+    }
+
+    public int getCapacidad() {
+        return modelo.getCapacidad();
+    }
+
+    /** Cambia la retención (se conservan las líneas más recientes). EDT. */
+    public void setCapacidad(int capacidad) {
+        modelo.setCapacidad(capacidad);
+    }
+
+    /** Líneas descartadas por superar la capacidad desde el último vaciado. */
+    public long getDescartadas() {
+        return modelo.descartadas;
+    }
+
+    /**
+     * Alto y ancho de fila FIJOS → JList no mide cada fila para
+     * calcular su tamaño (virtualización).
+     */
+    @Override
+    public void setFont(Font fuente) {
+        super.setFont(fuente);
+        if (fuente != null) {
+            setFixedCellHeight(getFontMetrics(fuente).getHeight());
+            aplicarAncho();
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Volcado por fotograma
+    // ──────────────────────────────────────────────────────────────
+    private void programarVolcado() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            if (!temporizador.isRunning()) {
+                temporizador.start();
+            }
+        } else {
+            SwingUtilities.invokeLater(this::programarVolcado);
+        }
+    }
+
+    private void volcar() {
+        List<String> lote;
+        boolean vaciar;
+        synchronized (cerrojo) {
+            lote = pendientes;
+            vaciar = vaciarPendiente;
+            pendientes = new ArrayList<>();
+            vaciarPendiente = false;
+        }
+        // ¿El usuario estaba viendo el final? Entonces seguimos al final
+        boolean alFinal = estaAlFinal();
+        if (vaciar) {
+            modelo.vaciar();
+            anchoMaximo = 0;
+            aplicarAncho();
+        }
+        if (!lote.isEmpty()) {
+            modelo.agregar(lote);
+            actualizarAncho(lote);
+        }
+        if (alFinal && modelo.getSize() > 0) {
+            ensureIndexIsVisible(modelo.getSize() - 1);
+        }
+    }
+
+    private boolean estaAlFinal() {
+        int ultima = getLastVisibleIndex();
+        return ultima < 0 || ultima >= modelo.getSize() - 1;
+    }
+
+    /** Ancho fijo = la línea más larga vista hasta ahora. */
+    private void actualizarAncho(List<String> lote) {
+        int maximo = anchoMaximo;
+        for (String linea : lote) {
+            maximo = Math.max(maximo, linea.length());
+        }
+        if (maximo != anchoMaximo) {
+            anchoMaximo = maximo;
+            aplicarAncho();
+        }
+    }
+
+    private void aplicarAncho() {
+        FontMetrics fm = getFontMetrics(getFont());
+        setFixedCellWidth(fm.charWidth('m') * (anchoMaximo + 1) + 8);
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  MODELO: buffer circular de String                          ║
+    // ║                                                             ║
+    // ║  La línea i (0 = la más antigua) está en                    ║
+    // ║  lineas[(inicio + i) % capacidad]. Añadir nunca mueve       ║
+    // ║  datos: si el buffer está lleno, se avanza 'inicio'.        ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private static class ModeloCircular extends AbstractListModel<String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private String[] lineas;
+        private int inicio = 0;
+        private int tamano = 0;
+        private long descartadas = 0;
+
+        ModeloCircular(int capacidad) {
+            if (capacidad <= 0) {
+                throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+            }
+            lineas = new String[capacidad];
+        }
+
+        int getCapacidad() {
+            return lineas.length;
+        }
+
+        @Override
+        public int getSize() {
+            return tamano;
+        }
+
+        @Override
+        public String getElementAt(int indice) {
+            return lineas[(inicio + indice) % lineas.length];
+        }
+
+        /** Añade un lote y avisa con, como mucho, dos eventos. */
+        void agregar(List<String> lote) {
+            int capacidad = lineas.length;
+            int anterior = tamano;
+            int nuevas = lote.size();
+            // Del lote solo caben las 'capacidad' últimas
+            int saltar = Math.max(0, nuevas - capacidad);
+            for (int i = saltar; i < nuevas; i++) {
+                int pos = (inicio + tamano) % capacidad;
+                if (tamano < capacidad) {
+                    tamano++;
+                } else {
+                    inicio = (inicio + 1) % capacidad; // se pisa la más antigua
+                }
+                lineas[pos] = lote.get(i);
+            }
+            int expulsadas = anterior + nuevas - tamano;
+            descartadas += expulsadas;
+
+            int quitadasDeLasViejas = Math.min(expulsadas, anterior);
+            if (quitadasDeLasViejas > 0) {
+                fireIntervalRemoved(this, 0, quitadasDeLasViejas - 1);
+            }
+            int primeraNueva = anterior - quitadasDeLasViejas;
+            if (primeraNueva < tamano) {
+                fireIntervalAdded(this, primeraNueva, tamano - 1);
+            }
+        }
+
+        void vaciar() {
+            int anterior = tamano;
+            Arrays.fill(lineas, null);
+            inicio = 0;
+            tamano = 0;
+            descartadas = 0;
+            if (anterior > 0) {
+                fireIntervalRemoved(this, 0, anterior - 1);
+            }
+        }
+
+        void setCapacidad(int capacidad) {
+            if (capacidad <= 0) {
+                throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+            }
+            int conservar = Math.min(tamano, capacidad);
+            String[] nuevas = new String[capacidad];
+            for (int i = 0; i < conservar; i++) {
+                nuevas[i] = getElementAt(tamano - conservar + i);
+            }
+            int quitadas = tamano - conservar;
+            descartadas += quitadas;
+            lineas = nuevas;
+            inicio = 0;
+            tamano = conservar;
+            // Se han ido las más antiguas, es decir, las primeras filas
+            if (quitadas > 0) {
+                fireIntervalRemoved(this, 0, quitadas - 1);
+            }
+        }
+    }
+}
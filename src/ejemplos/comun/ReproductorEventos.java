@@ -0,0 +1,253 @@
+package ejemplos.comun;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  ReproductorEventos – vuelve a inyectar una grabación de    ║
+ * ║  GrabadorEventos en una ventana                             ║
+ * ║                                                             ║
+ * ║  SwingWorker: la espera entre eventos se hace en segundo    ║
+ * ║  plano y cada evento se entrega en el EDT con invokeLater,  ║
+ * ║  buscando su componente por la RUTA grabada (o, si la       ║
+ * ║  ventana es distinta, por la posición).                     ║
+ * ║                                                             ║
+ * ║  Dos velocidades:                                           ║
+ * ║    • 1x      → respeta los tiempos originales               ║
+ * ║    • MÁXIMA  → sin esperas; cada LOTE eventos se espera a   ║
+ * ║                que el EDT los haya procesado (invokeAndWait)║
+ * ║                para no llenar la cola sin límite.           ║
+ * ║                                                             ║
+ * ║  El Resultado (eventos/s hasta que el EDT termina con el    ║
+ * ║  último) sirve para comparar una versión con otra usando    ║
+ * ║  exactamente la misma carga.                                ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+public class ReproductorEventos extends SwingWorker<ReproductorEventos.Resultado, Void> {
+
+    /** Eventos entre esperas al EDT en velocidad máxima. */
+    private static final int LOTE = 256;
+
+    /** Resumen de una reproducción. */
+    public static class Resultado {
+        public final int eventos;
+        public final long nanos;
+        public final boolean maxima;
+
+        Resultado(int eventos, long nanos, boolean maxima) {
+            this.eventos = eventos;
+            this.nanos = nanos;
+            this.maxima = maxima;
+        }
+
+        public double getEventosPorSegundo() {
+            return nanos == 0 ? 0 : eventos / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d eventos en %.2f s (%s) → %,.0f eventos/s",
+                    eventos, nanos / 1e9, maxima ? "velocidad máxima" : "1x",
+                    getEventosPorSegundo());
+        }
+    }
+
+    /** Un evento leído del fichero. */
+    private static class Registro {
+        int tipo;
+        int id;
+        long micros;       // desde el anterior
+        int[] ruta;
+        int x;
+        int y;
+        int modificadores;
+        int boton;
+        int clics;
+        boolean popup;
+        int tipoScroll;
+        int cantidadScroll;
+        int giro;
+        int codigoTecla;
+        char caracter;
+        int ubicacion;
+    }
+
+    private final Path archivo;
+    private final Window ventana;
+    private final boolean maxima;
+
+    // Componente que recibió el último MOUSE_PRESSED: como en AWT, los
+    // arrastres y el RELEASED van a él aunque el ratón ya esté fuera
+    private Component pulsado;
+
+    public ReproductorEventos(Path archivo, Window ventana, boolean maxima) {
+        this.archivo = archivo;
+        this.ventana = ventana;
+        this.maxima = maxima;
+    }
+
+    @Override
+    protected Resultado doInBackground() throws IOException, InterruptedException {
+        List<Registro> registros = leer(archivo);
+        long inicio = System.nanoTime();
+        long objetivo = inicio;
+        int enviados = 0;
+        for (Registro r : registros) {
+            if (isCancelled() || !ventana.isDisplayable()) {
+                break; // cancelado o la ventana se cerró
+            }
+            if (maxima) {
+                if (enviados > 0 && enviados % LOTE == 0) {
+                    esperarEdt();
+                }
+            } else {
+                objetivo += r.micros * 1_000;
+                long espera = objetivo - System.nanoTime();
+                if (espera > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+            }
+            SwingUtilities.invokeLater(() -> entregar(r));
+            enviados++;
+            setProgress(enviados * 100 / registros.size());
+        }
+        esperarEdt(); // el tiempo cuenta hasta que el EDT procesa el último
+        return new Resultado(enviados, System.nanoTime() - inicio, maxima);
+    }
+
+    private static void esperarEdt() throws InterruptedException {
+        try {
+            SwingUtilities.invokeAndWait(() -> { });
+        } catch (InvocationTargetException ex) {
+            // Un Runnable vacío no lanza nada
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Entrega de un evento (EDT)
+    // ──────────────────────────────────────────────────────────────
+    private void entregar(Registro r) {
+        if (!ventana.isDisplayable()) {
+            return; // la ventana se cerró durante la reproducción
+        }
+        long ahora = System.currentTimeMillis();
+        if (r.tipo == GrabadorEventos.TECLA) {
+            // El KeyboardFocusManager lo redirige al componente con el foco
+            Component destino = resolver(r);
+            destino.dispatchEvent(new KeyEvent(destino, r.id, ahora, r.modificadores,
+                    r.codigoTecla, r.caracter, r.ubicacion));
+            return;
+        }
+        Component destino;
+        if ((r.id == MouseEvent.MOUSE_DRAGGED || r.id == MouseEvent.MOUSE_RELEASED) && pulsado != null) {
+            destino = pulsado;
+        } else {
+            destino = resolver(r);
+        }
+        if (r.id == MouseEvent.MOUSE_PRESSED) {
+            pulsado = destino;
+        } else if (r.id == MouseEvent.MOUSE_RELEASED) {
+            pulsado = null;
+        }
+        Point p = SwingUtilities.convertPoint(ventana, r.x, r.y, destino);
+        MouseEvent evento;
+        if (r.tipo == GrabadorEventos.RUEDA) {
+            evento = new MouseWheelEvent(destino, r.id, ahora, r.modificadores, p.x, p.y,
+                    r.clics, r.popup, r.tipoScroll, r.cantidadScroll, r.giro);
+        } else {
+            evento = new MouseEvent(destino, r.id, ahora, r.modificadores, p.x, p.y,
+                    r.clics, r.popup, r.boton);
+        }
+        destino.dispatchEvent(evento);
+    }
+
+    /** Componente por su ruta; si no existe, el que está en esa posición. */
+    private Component resolver(Registro r) {
+        Component actual = ventana;
+        for (int indice : r.ruta) {
+            if (!(actual instanceof Container) || indice >= ((Container) actual).getComponentCount()) {
+                actual = null;
+                break;
+            }
+            actual = ((Container) actual).getComponent(indice);
+        }
+        if (actual != null) {
+            return actual;
+        }
+        Component enPosicion = SwingUtilities.getDeepestComponentAt(ventana, r.x, r.y);
+        return enPosicion != null ? enPosicion : ventana;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Lectura del fichero
+    // ──────────────────────────────────────────────────────────────
+    private static List<Registro> leer(Path archivo) throws IOException {
+        List<Registro> registros = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (in.readInt() != GrabadorEventos.MAGIA) {
+                throw new IOException("No es una grabación de eventos: " + archivo.getFileName());
+            }
+            int version = in.readUnsignedByte();
+            if (version != GrabadorEventos.VERSION) {
+                throw new IOException("Versión de grabación no soportada: " + version);
+            }
+            while (true) {
+                int tipo;
+                try {
+                    tipo = in.readUnsignedByte();
+                } catch (EOFException fin) {
+                    break;
+                }
+                Registro r = new Registro();
+                r.tipo = tipo;
+                r.id = GrabadorEventos.leerVarint(in);
+                r.micros = GrabadorEventos.leerVarint(in);
+                r.ruta = new int[GrabadorEventos.leerVarint(in)];
+                for (int i = 0; i < r.ruta.length; i++) {
+                    r.ruta[i] = GrabadorEventos.leerVarint(in);
+                }
+                switch (tipo) {
+                    case GrabadorEventos.RATON:
+                    case GrabadorEventos.RUEDA:
+                        r.x = GrabadorEventos.deszigzag(GrabadorEventos.leerVarint(in));
+                        r.y = GrabadorEventos.deszigzag(GrabadorEventos.leerVarint(in));
+                        r.modificadores = GrabadorEventos.leerVarint(in);
+                        r.boton = in.readUnsignedByte();
+                        r.clics = in.readUnsignedByte();
+                        r.popup = in.readBoolean();
+                        if (tipo == GrabadorEventos.RUEDA) {
+                            r.tipoScroll = in.readUnsignedByte();
+                            r.cantidadScroll = GrabadorEventos.leerVarint(in);
+                            r.giro = GrabadorEventos.deszigzag(GrabadorEventos.leerVarint(in));
+                        }
+                        break;
+                    case GrabadorEventos.TECLA:
+                        r.modificadores = GrabadorEventos.leerVarint(in);
+                        r.codigoTecla = GrabadorEventos.leerVarint(in);
+                        r.caracter = (char) GrabadorEventos.leerVarint(in);
+                        r.ubicacion = in.readUnsignedByte();
+                        break;
+                    default:
+                        throw new IOException("Registro desconocido (" + tipo + ") en la grabación");
+                }
+                registros.add(r);
+            }
+        }
+        return registros;
+    }
+}
@@ -0,0 +1,151 @@
+package ejemplos.documentlistener;
+
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  BusquedaDiferida – filtrar en segundo plano, con espera    ║
+ * ║                                                             ║
+ * ║  Pegar 30 caracteres dispara 30 insertUpdate: filtrar en    ║
+ * ║  cada uno, en el EDT, congela la ventana para calcular 29   ║
+ * ║  resultados que nadie va a ver. Aquí:                       ║
+ * ║                                                             ║
+ * ║  1. ESPERA (debounce): la búsqueda se programa a N ms. Si   ║
+ * ║     llega otro cambio antes, la anterior se cancela.        ║
+ * ║  2. Se ejecuta en un hilo propio; si llega texto nuevo      ║
+ * ║     mientras busca, se interrumpe (Future.cancel(true)).    ║
+ * ║  3. GENERACIÓN: cada petición recibe un número creciente.   ║
+ * ║     Un resultado solo llega a la lista si su número sigue   ║
+ * ║     siendo el último al volver al EDT → nunca se ve un      ║
+ * ║     resultado viejo aunque termine después que uno nuevo.   ║
+ * ║                                                             ║
+ * ║  Contadores: peticiones emitidas, completadas (mostradas)   ║
+ * ║  y descartadas (canceladas u obsoletas).                    ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class BusquedaDiferida {
+
+    /** Recibe en el EDT el resultado de la última petición y el resumen(). */
+    interface Receptor {
+        void recibir(Resultado resultado, String metricas);
+    }
+
+    /** Una búsqueda terminada. */
+    static class Resultado {
+        final FiltroIncremental buscador;   // sus datos son los que indexan 'ids'
+        final String filtro;
+        final int[] ids;
+        final double ms;
+        final String origen;                // caché / refinado / índice / difusa
+
+        Resultado(FiltroIncremental buscador, String filtro, int[] ids, double ms, String origen) {
+            this.buscador = buscador;
+            this.filtro = filtro;
+            this.ids = ids;
+            this.ms = ms;
+            this.origen = origen;
+        }
+    }
+
+    private final Receptor receptor;
+    private final AtomicLong generacion = new AtomicLong();
+
+    // Un solo hilo: FiltroIncremental no admite búsquedas simultáneas
+    private final ScheduledExecutorService hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "filtro-paises");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Future<?> enCurso;      // solo se toca desde el EDT
+    private int esperaMs;
+
+    /* Estadísticas (solo desde el EDT) */
+    private long emitidas = 0;
+    private long completadas = 0;
+    private long descartadas = 0;
+    private long entregada = 0;         // generación del último resultado mostrado
+
+    BusquedaDiferida(int esperaMs, Receptor receptor) {
+        this.esperaMs = esperaMs;
+        this.receptor = receptor;
+    }
+
+    int getEsperaMs() {
+        return esperaMs;
+    }
+
+    void setEsperaMs(int esperaMs) {
+        this.esperaMs = esperaMs;
+    }
+
+    /**
+     * Pide filtrar (EDT). Cancela la petición anterior si aún no ha terminado.
+     *
+     * @param difusa true → las TOP_K más parecidas (BusquedaDifusa),
+     *               false → las que contienen exactamente el filtro
+     */
+    void solicitar(FiltroIncremental buscador, String filtro, boolean difusa) {
+        long numero = generacion.incrementAndGet();
+        emitidas++;
+        if (numero > 1 && entregada != numero - 1) {
+            descartadas++; // la anterior ya nunca se mostrará
+        }
+        if (enCurso != null) {
+            enCurso.cancel(true); // aún esperando o a mitad de búsqueda
+        }
+        enCurso = hilo.schedule(() -> buscar(numero, buscador, filtro, difusa), esperaMs, TimeUnit.MILLISECONDS);
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Hilo de búsqueda
+    // ──────────────────────────────────────────────────────────────
+    private void buscar(long numero, FiltroIncremental buscador, String filtro, boolean difusa) {
+        if (numero != generacion.get()) {
+            return; // ya hay una petición más nueva
+        }
+        long inicio = System.nanoTime();
+        int[] ids;
+        String origen;
+        try {
+            if (difusa) {
+                ids = BusquedaDifusa.buscar(buscador.getIndice(), filtro, BusquedaDifusa.TOP_K);
+                origen = "difusa";
+            } else {
+                ids = buscador.filtrar(filtro);
+                // describirUltimo() aquí: en el EDT el hilo podría estar ya con otra
+                origen = buscador.describirUltimo();
+            }
+        } catch (CancellationException ex) {
+            return; // interrumpida por una petición más nueva
+        }
+        Resultado resultado = new Resultado(buscador, filtro, ids,
+                (System.nanoTime() - inicio) / 1e6, origen);
+        SwingUtilities.invokeLater(() -> {
+            if (numero != generacion.get()) {
+                return; // terminó, pero ya hay otra más nueva
+            }
+            completadas++;
+            entregada = numero;
+            receptor.recibir(resultado, resumen());
+        });
+    }
+
+    /** "30 emitidas · 1 completadas · 29 descartadas" (EDT). */
+    String resumen() {
+        return String.format("%,d emitidas · %,d completadas · %,d descartadas",
+                emitidas, completadas, descartadas);
+    }
+
+    /** Cancela lo pendiente y libera el hilo (llamar desde windowClosed). */
+    void cerrar() {
+        generacion.incrementAndGet();
+        hilo.shutdownNow();
+    }
+}
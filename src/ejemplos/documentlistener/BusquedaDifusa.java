@@ -0,0 +1,225 @@
+package ejemplos.documentlistener;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  BusquedaDifusa – las K entradas más PARECIDAS a la consulta║
+ * ║                                                             ║
+ * ║  En lugar de "contiene exactamente", cada entrada recibe    ║
+ * ║  una distancia: el mínimo de letras que habría que cambiar, ║
+ * ║  añadir o quitar para que la consulta aparezca en ella      ║
+ * ║  (distancia de edición contra cualquier trozo del texto):   ║
+ * ║                                                             ║
+ * ║    "alemnia" en "Alemania"  → 1   (falta una "a")           ║
+ * ║    "jpon"    en "Japón"     → 1                             ║
+ * ║                                                             ║
+ * ║  Algoritmo de MYERS (bit-paralelo): cada columna de la      ║
+ * ║  tabla de distancias se guarda como bits de un long, así    ║
+ * ║  que cada letra del texto cuesta ~15 operaciones sin        ║
+ * ║  importar la longitud de la consulta (hasta 64 letras).     ║
+ * ║                                                             ║
+ * ║  Solo se conservan las K mejores con un MONTÍCULO acotado   ║
+ * ║  (la peor arriba): una entrada peor que la cima se          ║
+ * ║  descarta sin más. Se admite como mucho 1 error por cada 3  ║
+ * ║  letras de la consulta.                                     ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class BusquedaDifusa {
+
+    /** Entradas que se devuelven como máximo. */
+    static final int TOP_K = 200;
+
+    /** Letras de la consulta que caben en un long. */
+    private static final int MAXIMO_LETRAS = 64;
+
+    private BusquedaDifusa() {
+    }
+
+    /**
+     * Posiciones de las (como mucho) k entradas más parecidas a 'filtro',
+     * de mejor a peor. Con la consulta vacía, todas en orden.
+     */
+    static int[] buscar(IndiceTrigramas indice, String filtro, int k) {
+        char[] consulta = ClaveBusqueda.de(filtro);
+        if (consulta.length > MAXIMO_LETRAS) {
+            consulta = Arrays.copyOf(consulta, MAXIMO_LETRAS);
+        }
+        if (consulta.length == 0) {
+            return indice.buscar(consulta);
+        }
+        Patron patron = new Patron(consulta);
+        int umbral = consulta.length / 3;
+
+        Monticulo mejores = new Monticulo(k);
+        for (int id = 0; id < indice.getTotal(); id++) {
+            if ((id & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Búsqueda cancelada");
+            }
+            char[] clave = indice.getClave(id);
+            int distancia = patron.distancia(clave, umbral);
+            if (distancia <= umbral) {
+                mejores.ofrecer(distancia, clave.length, id);
+            }
+        }
+        return mejores.ordenados();
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Patrón precompilado: para cada letra, un long con un bit a 1
+    //  en cada posición de la consulta donde aparece ("peq").
+    //  ASCII en un array; el resto (ñ, letras griegas…) en una
+    //  lista corta que se recorre.
+    // ──────────────────────────────────────────────────────────────
+    private static final class Patron {
+        private final int m;
+        private final long[] ascii = new long[128];
+        private final char[] otras;
+        private final long[] mascarasOtras;
+
+        Patron(char[] consulta) {
+            m = consulta.length;
+            char[] letras = new char[m];
+            long[] mascaras = new long[m];
+            int n = 0;
+            for (int i = 0; i < m; i++) {
+                char c = consulta[i];
+                if (c < 128) {
+                    ascii[c] |= 1L << i;
+                    continue;
+                }
+                int j = 0;
+                while (j < n && letras[j] != c) {
+                    j++;
+                }
+                if (j == n) {
+                    letras[n++] = c;
+                }
+                mascaras[j] |= 1L << i;
+            }
+            otras = Arrays.copyOf(letras, n);
+            mascarasOtras = Arrays.copyOf(mascaras, n);
+        }
+
+        private long mascara(char c) {
+            if (c < 128) {
+                return ascii[c];
+            }
+            for (int j = 0; j < otras.length; j++) {
+                if (otras[j] == c) {
+                    return mascarasOtras[j];
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Menor distancia de edición entre la consulta y un trozo de
+         * 'texto'. Para en cuanto encuentra 0; si supera 'umbral' el valor
+         * exacto da igual (se devuelve algo mayor).
+         */
+        int distancia(char[] texto, int umbral) {
+            long pv = -1L;          // diferencias verticales +1
+            long mv = 0;            // diferencias verticales -1
+            long alto = 1L << (m - 1);
+            int puntos = m;         // distancia en la última fila
+            int minimo = m;
+            for (char c : texto) {
+                long eq = mascara(c);
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & alto) != 0) {
+                    puntos++;
+                } else if ((mh & alto) != 0) {
+                    puntos--;
+                }
+                // Sin "| 1": la consulta puede empezar en cualquier letra del texto
+                ph <<= 1;
+                mh <<= 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+                if (puntos < minimo) {
+                    minimo = puntos;
+                    if (minimo == 0) {
+                        return 0;
+                    }
+                }
+            }
+            return minimo <= umbral ? minimo : umbral + 1;
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Montículo de máximos de tamaño fijo sobre un long[].
+    //  Clave = distancia | longitud | id → a igual distancia gana
+    //  el texto más corto y, después, el que aparece antes.
+    // ──────────────────────────────────────────────────────────────
+    private static final class Monticulo {
+        private final long[] claves;
+        private int tamano = 0;
+
+        Monticulo(int capacidad) {
+            claves = new long[capacidad];
+        }
+
+        void ofrecer(int distancia, int longitud, int id) {
+            long clave = ((long) distancia << 52) | ((long) Math.min(longitud, 0xFFFFF) << 32) | id;
+            if (tamano < claves.length) {
+                claves[tamano] = clave;
+                subir(tamano++);
+            } else if (tamano > 0 && clave < claves[0]) {
+                claves[0] = clave; // sustituye a la peor
+                bajar(0);
+            }
+        }
+
+        int[] ordenados() {
+            long[] copia = Arrays.copyOf(claves, tamano);
+            Arrays.sort(copia);
+            int[] ids = new int[tamano];
+            for (int i = 0; i < tamano; i++) {
+                ids[i] = (int) copia[i]; // los 32 bits bajos
+            }
+            return ids;
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int padre = (i - 1) / 2;
+                if (claves[padre] >= claves[i]) {
+                    return;
+                }
+                intercambiar(i, padre);
+                i = padre;
+            }
+        }
+
+        private void bajar(int i) {
+            while (true) {
+                int mayor = i;
+                int izq = 2 * i + 1;
+                int der = izq + 1;
+                if (izq < tamano && claves[izq] > claves[mayor]) {
+                    mayor = izq;
+                }
+                if (der < tamano && claves[der] > claves[mayor]) {
+                    mayor = der;
+                }
+                if (mayor == i) {
+                    return;
+                }
+                intercambiar(i, mayor);
+                i = mayor;
+            }
+        }
+
+        private void intercambiar(int a, int b) {
+            long t = claves[a];
+            claves[a] = claves[b];
+            claves[b] = t;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ejemplos.documentlistener;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  ClaveBusqueda – texto "plegado" para comparar sin tildes   ║
+ * ║  ni mayúsculas                                              ║
+ * ║                                                             ║
+ * ║  "Japón".toLowerCase().contains("japon") → false, y además  ║
+ * ║  crea un String nuevo en cada comparación. Aquí cada texto  ║
+ * ║  se pliega UNA vez a un char[]:                             ║
+ * ║                                                             ║
+ * ║    "Bélgica"  → b e l g i c a                               ║
+ * ║    "ESPAÑA"   → e s p a n a                                 ║
+ * ║                                                             ║
+ * ║  1. Normalizer NFD separa cada letra de su tilde:           ║
+ * ║        "é" → "e" + U+0301 (tilde suelta, marca combinante)  ║
+ * ║  2. Se descartan las marcas (Character.NON_SPACING_MARK).   ║
+ * ║  3. Se pasa cada char a minúscula.                          ║
+ * ║                                                             ║
+ * ║  La ñ también pierde su tilde: quien escribe "espana" sin   ║
+ * ║  teclado español encuentra "España".                        ║
+ * ║                                                             ║
+ * ║  Los caracteres latinos (hasta U+024F) se pliegan con una   ║
+ * ║  TABLA calculada una vez; Normalizer solo se usa con el     ║
+ * ║  resto (griego, cirílico…).                                 ║
+ * ║                                                             ║
+ * ║  contiene() compara dos char[] directamente: sin crear      ║
+ * ║  objetos, se puede llamar millones de veces por búsqueda.   ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class ClaveBusqueda {
+
+    /** Caracteres con plegado precalculado: ASCII + Latin-1 + Latin Extended A/B. */
+    private static final int LIMITE_TABLA = 0x250;
+
+    // char → char plegado; 0 = no se pliega a un único char (p. ej. "Ǆ")
+    private static final char[] TABLA = new char[LIMITE_TABLA];
+
+    static {
+        for (char c = 0; c < LIMITE_TABLA; c++) {
+            char[] plegado = plegarConNormalizer(String.valueOf(c));
+            TABLA[c] = plegado.length == 1 ? plegado[0] : 0;
+        }
+    }
+
+    private ClaveBusqueda() {
+    }
+
+    /** Clave plegada (sin tildes, en minúsculas) de 'texto'. */
+    static char[] de(String texto) {
+        // Camino rápido: todo está en la tabla (casi siempre) → un char por char
+        char[] clave = new char[texto.length()];
+        for (int i = 0; i < clave.length; i++) {
+            char c = texto.charAt(i);
+            char plegado = c < LIMITE_TABLA ? TABLA[c] : 0;
+            if (plegado == 0 && c != 0) {
+                return plegarConNormalizer(texto);
+            }
+            clave[i] = plegado;
+        }
+        return clave;
+    }
+
+    private static char[] plegarConNormalizer(String texto) {
+        String separado = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        char[] clave = new char[separado.length()];
+        int n = 0;
+        for (int i = 0; i < separado.length(); i++) {
+            char c = separado.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                clave[n++] = Character.toLowerCase(c);
+            }
+        }
+        return n == clave.length ? clave : Arrays.copyOf(clave, n);
+    }
+
+    /** ¿Aparece 'patron' dentro de 'texto'? (ambos ya plegados) */
+    static boolean contiene(char[] texto, char[] patron) {
+        int m = patron.length;
+        if (m == 0) {
+            return true;
+        }
+        char primero = patron[0];
+        int ultimoInicio = texto.length - m;
+        for (int i = 0; i <= ultimoInicio; i++) {
+            if (texto[i] != primero) {
+                continue;
+            }
+            int j = 1;
+            while (j < m && texto[i + j] == patron[j]) {
+                j++;
+            }
+            if (j == m) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
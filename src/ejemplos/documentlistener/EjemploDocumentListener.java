@@ -4,6 +4,13 @@ import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+import ejemplos.comun.ModeloIndices;
+import ejemplos.comun.RegistroCircular;
 
 /**
  * ╔═════════════════════════════════════════════════════════════╗
@@ -25,13 +32,19 @@ import java.awt.*;
  */
 public class EjemploDocumentListener {
 
+    /** Entradas del conjunto de datos de prueba (botón "Datos de prueba"). */
+    private static final int ENTRADAS_PRUEBA = 300_000;
+
+    /** Espera inicial (debounce) antes de filtrar, en ms. */
+    private static final int ESPERA_POR_DEFECTO_MS = 150;
+
     public static void launch() {
 
         // ╔══════════════════════════════════════════════════════════════╗
         // ║  VENTANA PRINCIPAL                                           ║
         // ╚══════════════════════════════════════════════════════════════╝
         JFrame ventana = new JFrame("Ejemplo 5 – DocumentListener");
-        ventana.setSize(700, 520);
+        ventana.setSize(880, 520);
         ventana.setLocationRelativeTo(null);
         ventana.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
@@ -89,22 +102,43 @@ public class EjemploDocumentListener {
         botonReset.setToolTipText(
                 "Resetea el campo con setText(\"\") – también dispara DocumentListener");
 
+        JButton botonDatos = new JButton("Datos de prueba");
+        botonDatos.setToolTipText(String.format(
+                "Cambia entre los países y %,d entradas generadas", ENTRADAS_PRUEBA));
+
+        // Espera tras la última tecla antes de filtrar (0 = inmediato)
+        JSpinner spinnerEspera = new JSpinner(new SpinnerNumberModel(ESPERA_POR_DEFECTO_MS, 0, 2000, 10));
+        spinnerEspera.setToolTipText("Milisegundos sin escribir antes de lanzar la búsqueda");
+
+        // Búsqueda difusa: las más parecidas (admite errores), ordenadas
+        JCheckBox checkDifusa = new JCheckBox("Difusa");
+        checkDifusa.setToolTipText("Muestra las " + BusquedaDifusa.TOP_K
+                + " entradas más parecidas (admite erratas), de mejor a peor");
+
         JPanel panelSuperior = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 6));
         panelSuperior.setBorder(BorderFactory.createTitledBorder("Buscador en tiempo real"));
         panelSuperior.add(labelBuscar);
         panelSuperior.add(campoBusqueda);
         panelSuperior.add(labelContador);
         panelSuperior.add(botonReset);
+        panelSuperior.add(botonDatos);
+        panelSuperior.add(checkDifusa);
+        panelSuperior.add(new JLabel("Espera (ms):"));
+        panelSuperior.add(spinnerEspera);
 
         // ──────────────────────────────────────────────────────────────
         //  PANEL CENTRAL: lista filtrada (izq.) + log de eventos (der.)
         // ──────────────────────────────────────────────────────────────
 
+        // — Índice de trigramas: se construye UNA vez; cada búsqueda
+        //   devuelve un int[] con las posiciones que coinciden. El
+        //   FiltroIncremental reutiliza los resultados anteriores —
+        //   (array de 1 elemento para poder cambiarlo desde las lambdas)
+        FiltroIncremental[] buscador = { new FiltroIncremental(new IndiceTrigramas(paises)) };
+        String[] nombreDatos = { "Países" };
+
         // — JList con los países filtrados —
-        DefaultListModel<String> modeloLista = new DefaultListModel<>();
-        for (String p : paises) {
-            modeloLista.addElement(p);
-        }
+        ModeloIndices<String> modeloLista = new ModeloIndices<>(paises, buscador[0].filtrar(""));
         JList<String> listaFiltrada = new JList<>(modeloLista);
         listaFiltrada.setFont(new Font("SansSerif", Font.PLAIN, 13));
         JScrollPane scrollLista = new JScrollPane(listaFiltrada);
@@ -112,8 +146,7 @@ public class EjemploDocumentListener {
                 "Países (" + paises.length + " en total)"));
 
         // — Log de eventos de DocumentListener —
-        JTextArea logEventos = new JTextArea();
-        logEventos.setEditable(false);
+        RegistroCircular logEventos = new RegistroCircular();
         logEventos.setFont(new Font("Monospaced", Font.PLAIN, 11));
         JScrollPane scrollLog = new JScrollPane(logEventos);
         scrollLog.setBorder(BorderFactory.createTitledBorder("Log de DocumentListener"));
@@ -141,6 +174,82 @@ public class EjemploDocumentListener {
 
         int[] contadorLog = { 0 }; // array de 1 elemento para poder usarlo en la lambda
 
+        // ──────────────────────────────────────────────────────────────
+        //  Búsqueda en segundo plano: cada cambio cancela la anterior y
+        //  solo el resultado de la ÚLTIMA petición llega aquí (EDT).
+        //  Con los mismos datos, el modelo solo avisa del tramo que
+        //  cambia; con otros datos, UN único evento para todo.
+        // ──────────────────────────────────────────────────────────────
+        BusquedaDiferida busqueda = new BusquedaDiferida(ESPERA_POR_DEFECTO_MS, (r, metricas) -> {
+            String[] datos = r.buscador.getIndice().getDatos();
+            if (datos == modeloLista.getDatos()) {
+                // La JList conserva el NÚMERO de fila seleccionado: hay que
+                // moverlo a donde quede el mismo país (o quitarlo)
+                int seleccionada = listaFiltrada.getSelectedIndex();
+                int pais = seleccionada >= 0 ? modeloLista.getIndice(seleccionada) : -1;
+                modeloLista.mostrar(r.ids);
+                int fila = pais >= 0 ? modeloLista.getFila(pais) : -1;
+                if (fila >= 0) {
+                    listaFiltrada.setSelectedIndex(fila);
+                    listaFiltrada.ensureIndexIsVisible(fila);
+                } else {
+                    listaFiltrada.clearSelection();
+                }
+            } else {
+                listaFiltrada.clearSelection();
+                modeloLista.reemplazarTodo(datos, r.ids);
+            }
+            boolean ordenada = r.origen.equals("difusa") && !r.filtro.isEmpty();
+            scrollLista.setBorder(BorderFactory.createTitledBorder(nombreDatos[0] + " ("
+                    + r.ids.length + (ordenada ? " más parecidas)" : " coincidencias)")));
+            barraEstado.setText(String.format("  Mostrando %,d de %,d  |  filtro: \"%s\"  |  %.2f ms (%s)  |  %s",
+                    r.ids.length, r.buscador.getIndice().getTotal(), r.filtro.isEmpty() ? "ninguno" : r.filtro,
+                    r.ms, r.origen, metricas));
+        });
+        spinnerEspera.addChangeListener(e -> busqueda.setEsperaMs((Integer) spinnerEspera.getValue()));
+        ventana.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                busqueda.cerrar();
+            }
+        });
+
+        // ──────────────────────────────────────────────────────────────
+        //  Actualiza contador + colores y pide filtrar. Se llama desde los 3
+        //  métodos del listener para no repetir el mismo código
+        //  (principio DRY) y al cambiar de conjunto de datos.
+        // ──────────────────────────────────────────────────────────────
+        Runnable actualizarUI = () -> {
+            String filtro = campoBusqueda.getText();
+            int len = filtro.length();
+
+            // 1. Actualizar el contador de caracteres
+            labelContador.setText(len + " / " + MAX_CHARS);
+
+            // 2. Cambiar el color del campo según longitud
+            if (len == 0) {
+                campoBusqueda.setBackground(Color.WHITE);
+                labelContador.setForeground(Color.GRAY);
+            } else if (len < MAX_CHARS) {
+                campoBusqueda.setBackground(new Color(240, 255, 240)); // verde suave
+                labelContador.setForeground(new Color(0, 130, 0));
+            } else {
+                campoBusqueda.setBackground(new Color(255, 230, 230)); // rojo suave
+                labelContador.setForeground(Color.RED);
+                // Limitar a MAX_CHARS (si pega texto muy largo)
+                if (len > MAX_CHARS) {
+                    // No se puede modificar el Document dentro de su propio
+                    // listener → se aplaza; setText() volverá a disparar el listener
+                    SwingUtilities.invokeLater(() -> campoBusqueda.setText(filtro.substring(0, MAX_CHARS)));
+                    return;
+                }
+            }
+
+            // 3. Pedir el filtrado en segundo plano (ignora mayúsculas/
+            //    minúsculas); el resultado llega a 'busqueda' más abajo
+            busqueda.solicitar(buscador[0], filtro, checkDifusa.isSelected());
+        };
+
         campoBusqueda.getDocument().addDocumentListener(new DocumentListener() {
 
             @Override
@@ -150,7 +259,7 @@ public class EjemploDocumentListener {
                 contadorLog[0]++;
                 logEventos.append(String.format("[%03d] insertUpdate  → texto: \"%s\"%n",
                         contadorLog[0], campoBusqueda.getText()));
-                actualizarUI();
+                actualizarUI.run();
             }
 
             @Override
@@ -160,7 +269,7 @@ public class EjemploDocumentListener {
                 contadorLog[0]++;
                 logEventos.append(String.format("[%03d] removeUpdate  → texto: \"%s\"%n",
                         contadorLog[0], campoBusqueda.getText()));
-                actualizarUI();
+                actualizarUI.run();
             }
 
             @Override
@@ -171,58 +280,7 @@ public class EjemploDocumentListener {
                 contadorLog[0]++;
                 logEventos.append(String.format("[%03d] changedUpdate → texto: \"%s\"%n",
                         contadorLog[0], campoBusqueda.getText()));
-                actualizarUI();
-            }
-
-            // ──────────────────────────────────────────────────────────
-            //  Método auxiliar: actualiza lista + contador + colores
-            //  Se llama desde los 3 métodos del listener para no
-            //  repetir el mismo código (principio DRY).
-            // ──────────────────────────────────────────────────────────
-            private void actualizarUI() {
-                String filtro = campoBusqueda.getText();
-                int len = filtro.length();
-
-                // 1. Actualizar el contador de caracteres
-                labelContador.setText(len + " / " + MAX_CHARS);
-
-                // 2. Cambiar el color del campo según longitud
-                if (len == 0) {
-                    campoBusqueda.setBackground(Color.WHITE);
-                    labelContador.setForeground(Color.GRAY);
-                } else if (len < MAX_CHARS) {
-                    campoBusqueda.setBackground(new Color(240, 255, 240)); // verde suave
-                    labelContador.setForeground(new Color(0, 130, 0));
-                } else {
-                    campoBusqueda.setBackground(new Color(255, 230, 230)); // rojo suave
-                    labelContador.setForeground(Color.RED);
-                    // Limitar a MAX_CHARS (si pega texto muy largo)
-                    if (len > MAX_CHARS) {
-                        campoBusqueda.setText(filtro.substring(0, MAX_CHARS));
-                        return; // setText() volverá a disparar el listener
-                    }
-                }
-
-                // 3. Filtrar la lista: mostrar solo países que contienen el filtro
-                //    (ignorando mayúsculas/minúsculas con toLowerCase)
-                modeloLista.clear();
-                int coincidencias = 0;
-                for (String pais : paises) {
-                    if (pais.toLowerCase().contains(filtro.toLowerCase())) {
-                        modeloLista.addElement(pais);
-                        coincidencias++;
-                    }
-                }
-
-                // 4. Actualizar barra de estado y título de la lista
-                scrollLista.setBorder(BorderFactory.createTitledBorder(
-                        "Países (" + coincidencias + " coincidencias)"));
-                barraEstado.setText("  Mostrando " + coincidencias + " de "
-                        + paises.length + "  |  filtro: \""
-                        + (filtro.isEmpty() ? "ninguno" : filtro) + "\"");
-
-                // 5. Auto scroll del log al final
-                logEventos.setCaretPosition(logEventos.getDocument().getLength());
+                actualizarUI.run();
             }
         });
 
@@ -243,7 +301,57 @@ public class EjemploDocumentListener {
             campoBusqueda.setText("");
             campoBusqueda.requestFocus();
             logEventos.append("──── Limpiar con setText(\"\") → disparó removeUpdate ────\n");
-            logEventos.setCaretPosition(logEventos.getDocument().getLength());
+        });
+
+        // Cambiar de modo vuelve a filtrar con el mismo texto
+        checkDifusa.addActionListener(e -> {
+            logEventos.append(checkDifusa.isSelected()
+                    ? "──── Modo difuso: las más parecidas, de mejor a peor ────\n"
+                    : "──── Modo exacto: las que contienen el texto ────\n");
+            actualizarUI.run();
+        });
+
+        // ──────────────────────────────────────────────────────────────
+        //  Datos de prueba: generar e indexar cientos de miles de
+        //  entradas tarda; se hace en un SwingWorker para no congelar
+        //  la ventana. Solo se sustituye el índice (en el EDT) al acabar.
+        // ──────────────────────────────────────────────────────────────
+        botonDatos.addActionListener(e -> {
+            if (buscador[0].getIndice().getDatos() != paises) {
+                buscador[0] = new FiltroIncremental(new IndiceTrigramas(paises));
+                nombreDatos[0] = "Países";
+                logEventos.append("──── Vuelta a los " + paises.length + " países ────\n");
+                actualizarUI.run();
+                return;
+            }
+            botonDatos.setEnabled(false);
+            barraEstado.setText(String.format("  Generando e indexando %,d entradas...", ENTRADAS_PRUEBA));
+            new SwingWorker<IndiceTrigramas, Void>() {
+                private long inicio;
+
+                @Override
+                protected IndiceTrigramas doInBackground() {
+                    inicio = System.nanoTime();
+                    return new IndiceTrigramas(generarDatosPrueba(paises, ENTRADAS_PRUEBA));
+                }
+
+                @Override
+                protected void done() {
+                    botonDatos.setEnabled(true);
+                    try {
+                        buscador[0] = new FiltroIncremental(get());
+                    } catch (InterruptedException | ExecutionException ex) {
+                        barraEstado.setText("  ✘ No se pudieron generar los datos de prueba");
+                        JOptionPane.showMessageDialog(ventana, "Error al generar los datos:\n" + ex.getMessage(),
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    nombreDatos[0] = "Entradas";
+                    logEventos.append(String.format("──── %,d entradas indexadas en %.0f ms ────%n",
+                            buscador[0].getIndice().getTotal(), (System.nanoTime() - inicio) / 1e6));
+                    actualizarUI.run();
+                }
+            }.execute();
         });
 
         // ──────────────────────────────────────────────────────────────
@@ -263,6 +371,24 @@ public class EjemploDocumentListener {
         campoBusqueda.requestFocus();
     }
 
+    /**
+     * Nombres inventados pero realistas ("Villa Perú del Norte 1234"):
+     * siempre los mismos (semilla fija) para poder comparar tiempos.
+     */
+    private static String[] generarDatosPrueba(String[] paises, int cantidad) {
+        String[] prefijos = { "Nueva", "San", "Villa", "Puerto", "Alta", "Baja", "Gran", "Santa", "Monte", "Río" };
+        String[] sufijos = { "del Norte", "del Sur", "de Arriba", "Oriental", "Occidental",
+                "Central", "la Vieja", "de los Ríos" };
+        Random aleatorio = new Random(42);
+        String[] datos = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            datos[i] = prefijos[aleatorio.nextInt(prefijos.length)] + " "
+                    + paises[aleatorio.nextInt(paises.length)] + " "
+                    + sufijos[aleatorio.nextInt(sufijos.length)] + " " + (i + 1);
+        }
+        return datos;
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -0,0 +1,126 @@
+package ejemplos.documentlistener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  FiltroIncremental – aprovecha el resultado anterior        ║
+ * ║                                                             ║
+ * ║  Al escribir, cada consulta suele AMPLIAR la anterior:      ║
+ * ║     "es" → "esp" → "espa"                                   ║
+ * ║  Todo lo que contiene "esp" contiene también "es", así que  ║
+ * ║  basta con volver a comprobar el resultado de "es" (cada    ║
+ * ║  vez más pequeño) en lugar de buscar en todos los datos.    ║
+ * ║                                                             ║
+ * ║  Al borrar ("espa" → "esp") la consulta ya se hizo hace un  ║
+ * ║  momento: se guarda en una caché LRU de las últimas         ║
+ * ║  RECIENTES consultas y se devuelve sin buscar nada.         ║
+ * ║                                                             ║
+ * ║  Orden de preferencia:                                      ║
+ * ║    1. CACHÉ     → la misma consulta ya está guardada        ║
+ * ║    2. REFINADO  → el menor resultado guardado cuya consulta ║
+ * ║                   está contenida en la nueva, si es más     ║
+ * ║                   barato que el índice                      ║
+ * ║    3. ÍNDICE    → búsqueda normal en IndiceTrigramas        ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class FiltroIncremental {
+
+    /** Consultas recientes que se conservan (plegadas, sin tildes). */
+    static final int RECIENTES = 16;
+
+    /** De dónde salió el último resultado (para la barra de estado). */
+    enum Origen {
+        CACHE("caché"), REFINADO("refinado"), INDICE("índice");
+
+        private final String texto;
+
+        Origen(String texto) {
+            this.texto = texto;
+        }
+
+        @Override
+        public String toString() {
+            return texto;
+        }
+    }
+
+    private final IndiceTrigramas indice;
+
+    // LinkedHashMap en orden de ACCESO: get() mueve la entrada al final
+    // y removeEldestEntry() descarta la que lleva más tiempo sin usarse
+    private final Map<String, int[]> recientes = new LinkedHashMap<String, int[]>(32, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> mayor) {
+            return size() > RECIENTES;
+        }
+    };
+
+    private Origen ultimoOrigen = Origen.INDICE;
+    private int ultimaBase;   // tamaño del resultado que se refinó
+
+    FiltroIncremental(IndiceTrigramas indice) {
+        this.indice = indice;
+    }
+
+    IndiceTrigramas getIndice() {
+        return indice;
+    }
+
+    Origen getUltimoOrigen() {
+        return ultimoOrigen;
+    }
+
+    /** Entradas que se volvieron a comprobar en el último REFINADO. */
+    int getUltimaBase() {
+        return ultimaBase;
+    }
+
+    /** "caché", "índice" o "refinado de 1.234" (para la barra de estado). */
+    String describirUltimo() {
+        return ultimoOrigen == Origen.REFINADO
+                ? String.format("refinado de %,d", ultimaBase)
+                : ultimoOrigen.toString();
+    }
+
+    /**
+     * Posiciones (en orden) de las entradas que contienen 'filtro'.
+     * Si la búsqueda se cancela (CancellationException) no se guarda
+     * nada en la caché. No es seguro usarlo desde varios hilos a la vez.
+     */
+    int[] filtrar(String filtro) {
+        char[] consulta = ClaveBusqueda.de(filtro);
+        String clave = new String(consulta);
+
+        // 1. Misma consulta que hace poco
+        int[] guardado = recientes.get(clave);
+        if (guardado != null) {
+            ultimoOrigen = Origen.CACHE;
+            return guardado;
+        }
+
+        // 2. El resultado guardado más pequeño que sirva de punto de partida
+        int[] base = null;
+        for (Map.Entry<String, int[]> e : recientes.entrySet()) {
+            if (clave.contains(e.getKey()) && (base == null || e.getValue().length < base.length)) {
+                base = e.getValue();
+            }
+        }
+
+        int[] resultado;
+        if (base != null && base.length <= indice.estimar(consulta)) {
+            ultimoOrigen = Origen.REFINADO;
+            ultimaBase = base.length;
+            resultado = indice.refinar(base, consulta);
+        } else {
+            // 3. Sin base útil (o el índice descarta más): búsqueda normal
+            ultimoOrigen = Origen.INDICE;
+            resultado = indice.buscar(consulta);
+        }
+        recientes.put(clave, resultado);
+        return resultado;
+    }
+}
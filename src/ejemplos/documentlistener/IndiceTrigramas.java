@@ -0,0 +1,319 @@
+package ejemplos.documentlistener;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  IndiceTrigramas – buscar "contiene" sin recorrer todo      ║
+ * ║                                                             ║
+ * ║  Filtrar con  pais.toLowerCase().contains(filtro)  en cada  ║
+ * ║  tecla recorre (y copia) TODAS las entradas. Con cientos de ║
+ * ║  miles tarda segundos. Este índice se construye UNA vez:    ║
+ * ║                                                             ║
+ * ║  1. Cada entrada se pliega una sola vez a un char[] sin     ║
+ * ║     tildes ni mayúsculas (ClaveBusqueda).                   ║
+ * ║  2. Para cada TRIGRAMA (3 letras seguidas) se guarda la     ║
+ * ║     lista ordenada de entradas que lo contienen:            ║
+ * ║        "esp" → [15, 203, 4120, …]                           ║
+ * ║  3. Buscar "españ" = entradas que tienen "esp", "spa" y     ║
+ * ║     "pan" → INTERSECCIÓN de sus listas (empezando por la    ║
+ * ║     más corta) y, como los trigramas pueden estar separados,║
+ * ║     se confirma cada candidata con ClaveBusqueda.contiene().║
+ * ║                                                             ║
+ * ║  Con menos de 3 letras no hay trigramas: se recorren las    ║
+ * ║  claves ya plegadas (sin crear ningún objeto).              ║
+ * ║                                                             ║
+ * ║  El resultado es un int[] de posiciones en los datos, en    ║
+ * ║  orden, listo para ModeloIndices.                           ║
+ * ║                                                             ║
+ * ║  Las búsquedas pueden hacerse en otro hilo: si se           ║
+ * ║  interrumpe, los recorridos largos lanzan                   ║
+ * ║  CancellationException en lugar de terminar.                ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class IndiceTrigramas {
+
+    private final String[] datos;
+    private final char[][] claves;   // datos plegados, mismo índice
+
+    private static final long VACIO = -1;
+
+    // Tabla hash de direccionamiento abierto: trigrama (3 chars en un long) → lista.
+    // Crece al llenarse a la mitad (hay muchos menos trigramas distintos que letras).
+    private long[] trigramas = new long[1024];
+    private int[] cuentas = new int[1024];
+    private int[] ultima = new int[1024];   // última entrada contada (evita repetidos)
+    private int[][] listas;
+    private int ocupados = 0;
+
+    IndiceTrigramas(String[] datos) {
+        this.datos = datos;
+        this.claves = new char[datos.length][];
+        for (int i = 0; i < datos.length; i++) {
+            claves[i] = ClaveBusqueda.de(datos[i]);
+        }
+        Arrays.fill(trigramas, VACIO);
+        Arrays.fill(ultima, -1);
+
+        // Pasada 1: trigramas distintos y cuántas entradas tiene cada uno
+        for (int id = 0; id < claves.length; id++) {
+            char[] clave = claves[id];
+            for (int i = 0; i + 3 <= clave.length; i++) {
+                int hueco = hueco(codificar(clave, i));
+                if (ultima[hueco] != id) {
+                    ultima[hueco] = id;
+                    cuentas[hueco]++;
+                }
+            }
+        }
+        // Pasada 2: rellenar las listas (quedan ordenadas porque id crece)
+        listas = new int[trigramas.length][];
+        int[] llenas = new int[trigramas.length];
+        Arrays.fill(ultima, -1);
+        for (int id = 0; id < claves.length; id++) {
+            char[] clave = claves[id];
+            for (int i = 0; i + 3 <= clave.length; i++) {
+                int hueco = buscarHueco(codificar(clave, i));
+                if (ultima[hueco] != id) {
+                    ultima[hueco] = id;
+                    if (listas[hueco] == null) {
+                        listas[hueco] = new int[cuentas[hueco]];
+                    }
+                    listas[hueco][llenas[hueco]++] = id;
+                }
+            }
+        }
+        cuentas = null; // solo hacían falta para construir
+        ultima = null;
+    }
+
+    int getTotal() {
+        return datos.length;
+    }
+
+    String get(int id) {
+        return datos[id];
+    }
+
+    String[] getDatos() {
+        return datos;
+    }
+
+    /** Clave plegada de la entrada 'id' (no modificar). */
+    char[] getClave(int id) {
+        return claves[id];
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  BÚSQUEDA                                                   ║
+    // ╚═════════════════════════════════════════════════════════════╝
+
+    /** Posiciones (en orden) de las entradas que contienen 'filtro'. */
+    int[] buscar(String filtro) {
+        return buscar(ClaveBusqueda.de(filtro));
+    }
+
+    /** Igual, con la consulta ya plegada (ClaveBusqueda.de). */
+    int[] buscar(char[] consulta) {
+        if (consulta.length == 0) {
+            return todas();
+        }
+        if (consulta.length < 3) {
+            return recorrer(consulta);
+        }
+
+        // Listas de los trigramas de la consulta (si falta uno → nada)
+        int n = consulta.length - 2;
+        int[][] partes = new int[n][];
+        for (int i = 0; i < n; i++) {
+            int hueco = buscarHueco(codificar(consulta, i));
+            if (hueco < 0) {
+                return new int[0];
+            }
+            partes[i] = listas[hueco];
+        }
+        // La más corta primero: el resultado nunca puede ser mayor que ella
+        Arrays.sort(partes, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] candidatas = partes[0].clone();
+        int tamano = candidatas.length;
+        for (int p = 1; p < partes.length && tamano > 0; p++) {
+            if (partes[p] == partes[p - 1]) {
+                continue; // trigrama repetido en la consulta
+            }
+            tamano = intersecar(candidatas, tamano, partes[p]);
+        }
+
+        // Confirmar: los trigramas podían estar en sitios distintos
+        int encontradas = 0;
+        for (int i = 0; i < tamano; i++) {
+            comprobarCancelacion(i);
+            int id = candidatas[i];
+            if (ClaveBusqueda.contiene(claves[id], consulta)) {
+                candidatas[encontradas++] = id;
+            }
+        }
+        return Arrays.copyOf(candidatas, encontradas);
+    }
+
+    /**
+     * Coste aproximado de buscar(consulta): tamaño de la lista más corta
+     * de sus trigramas (o todas las entradas si hay que recorrerlas).
+     * 'consulta' ya debe estar plegada.
+     */
+    int estimar(char[] consulta) {
+        if (consulta.length < 3) {
+            return datos.length;
+        }
+        int menor = datos.length;
+        for (int i = 0; i + 3 <= consulta.length; i++) {
+            int hueco = buscarHueco(codificar(consulta, i));
+            if (hueco < 0) {
+                return 0;
+            }
+            menor = Math.min(menor, listas[hueco].length);
+        }
+        return menor;
+    }
+
+    /**
+     * De las posiciones 'ids' (un resultado anterior), las que contienen
+     * 'consulta' (ya plegada). No modifica 'ids'.
+     */
+    int[] refinar(int[] ids, char[] consulta) {
+        int[] quedan = new int[ids.length];
+        int encontradas = 0;
+        for (int i = 0; i < ids.length; i++) {
+            comprobarCancelacion(i);
+            int id = ids[i];
+            if (ClaveBusqueda.contiene(claves[id], consulta)) {
+                quedan[encontradas++] = id;
+            }
+        }
+        return Arrays.copyOf(quedan, encontradas);
+    }
+
+    private int[] todas() {
+        int[] ids = new int[datos.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        return ids;
+    }
+
+    private int[] recorrer(char[] consulta) {
+        int[] ids = new int[datos.length];
+        int encontradas = 0;
+        for (int id = 0; id < claves.length; id++) {
+            comprobarCancelacion(id);
+            if (ClaveBusqueda.contiene(claves[id], consulta)) {
+                ids[encontradas++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, encontradas);
+    }
+
+    /** Cada 4096 vueltas mira si el hilo fue interrumpido (Future.cancel). */
+    private static void comprobarCancelacion(int vuelta) {
+        if ((vuelta & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Búsqueda cancelada");
+        }
+    }
+
+    /**
+     * Deja en a[0..tamano) solo los que también están en b (ambos
+     * ordenados). Si b es mucho mayor, se busca con saltos binarios.
+     */
+    private static int intersecar(int[] a, int tamano, int[] b) {
+        int quedan = 0;
+        int j = 0;
+        for (int i = 0; i < tamano && j < b.length; i++) {
+            int valor = a[i];
+            if (b.length > 8 * tamano) {
+                int pos = Arrays.binarySearch(b, j, b.length, valor);
+                if (pos >= 0) {
+                    a[quedan++] = valor;
+                    j = pos + 1;
+                } else {
+                    j = -pos - 1;
+                }
+            } else {
+                while (j < b.length && b[j] < valor) {
+                    j++;
+                }
+                if (j < b.length && b[j] == valor) {
+                    a[quedan++] = valor;
+                    j++;
+                }
+            }
+        }
+        return quedan;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Tabla hash de trigramas
+    // ──────────────────────────────────────────────────────────────
+    private static long codificar(char[] s, int i) {
+        return ((long) s[i] << 32) | ((long) s[i + 1] << 16) | s[i + 2];
+    }
+
+    private static int dispersar(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /** Hueco del trigrama; si no está, lo añade (creciendo si hace falta). */
+    private int hueco(long trigrama) {
+        int mascara = trigramas.length - 1;
+        int i = dispersar(trigrama) & mascara;
+        while (trigramas[i] != trigrama) {
+            if (trigramas[i] == VACIO) {
+                if (2 * (ocupados + 1) > trigramas.length) {
+                    crecer();
+                    return hueco(trigrama);
+                }
+                trigramas[i] = trigrama;
+                ocupados++;
+                return i;
+            }
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void crecer() {
+        long[] viejos = trigramas;
+        int[] viejasCuentas = cuentas;
+        int[] viejasUltimas = ultima;
+        trigramas = new long[viejos.length * 2];
+        cuentas = new int[trigramas.length];
+        ultima = new int[trigramas.length];
+        Arrays.fill(trigramas, VACIO);
+        Arrays.fill(ultima, -1); // 0 es una entrada válida: un hueco nuevo no la ha contado
+        int mascara = trigramas.length - 1;
+        for (int j = 0; j < viejos.length; j++) {
+            if (viejos[j] != VACIO) {
+                int i = dispersar(viejos[j]) & mascara;
+                while (trigramas[i] != VACIO) {
+                    i = (i + 1) & mascara;
+                }
+                trigramas[i] = viejos[j];
+                cuentas[i] = viejasCuentas[j];
+                ultima[i] = viejasUltimas[j];
+            }
+        }
+    }
+
+    private int buscarHueco(long trigrama) {
+        int mascara = trigramas.length - 1;
+        int i = dispersar(trigrama) & mascara;
+        while (trigramas[i] != VACIO) {
+            if (trigramas[i] == trigrama) {
+                return i;
+            }
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+}
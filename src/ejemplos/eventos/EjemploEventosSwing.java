@@ -3,6 +3,16 @@ package ejemplos.eventos;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import ejemplos.comun.GrabadorEventos;
+import ejemplos.comun.RegistroCircular;
+import ejemplos.comun.ReproductorEventos;
 
 /**
  * ╔═════════════════════════════════════════════════════════════╗
@@ -23,9 +33,12 @@ import java.awt.event.*;
 public class EjemploEventosSwing {
 
     /* Área de log compartida por todos los listeners */
-    private static JTextArea logEventos;
+    private static RegistroCircular logEventos;
     private static int contadorEventos = 0;
 
+    /* Fichero donde se guarda la última grabación de eventos */
+    private static final Path ARCHIVO_GRABACION = Paths.get("data", "grabacion-eventos.bin");
+
     public static void launch() {
 
         // Reiniciar estado (por si se abre varias veces desde el lanzador)
@@ -96,9 +109,15 @@ public class EjemploEventosSwing {
         panelRaton.setPreferredSize(new Dimension(280, 0));
         panelRaton.add(labelCoords, BorderLayout.CENTER);
 
-        // — Log de eventos (JTextArea de solo lectura) —
-        logEventos = new JTextArea();
-        logEventos.setEditable(false);
+        // Contador: eventos de movimiento recibidos vs repintados hechos
+        JLabel labelContador = new JLabel("0 eventos de movimiento → 0 repintados",
+                SwingConstants.CENTER);
+        labelContador.setFont(new Font("SansSerif", Font.PLAIN, 11));
+        labelContador.setForeground(Color.DARK_GRAY);
+        panelRaton.add(labelContador, BorderLayout.SOUTH);
+
+        // — Log de eventos (RegistroCircular: memoria acotada) —
+        logEventos = new RegistroCircular();
         logEventos.setFont(new Font("Monospaced", Font.PLAIN, 11));
         JScrollPane scrollLog = new JScrollPane(logEventos);
         scrollLog.setBorder(BorderFactory.createTitledBorder("Log de eventos"));
@@ -213,6 +232,18 @@ public class EjemploEventosSwing {
             }
         });
 
+        // Coalescencia de mouseMoved/mouseDragged (ver el bloque 4)
+        MovimientoCoalescido movimiento = new MovimientoCoalescido((x, y, arrastrando) -> {
+            if (arrastrando) {
+                labelCoords.setText("Arrastrando → (" + x + ", " + y + ")");
+            } else {
+                // Coordenadas en pantalla (NO en el log → demasiados eventos)
+                labelCoords.setText("(" + x + ", " + y + ")");
+                barraEstado.setText("  Ratón en (" + x + ", " + y
+                        + ") → doble clic para color aleatorio");
+            }
+        }, labelContador);
+
         // ╔═════════════════════════════════════════════════════════════╗
         // ║  3. MouseListener / MouseAdapter                            ║
         // ║                                                             ║
@@ -268,6 +299,7 @@ public class EjemploEventosSwing {
                 // Al salir → restaurar color y cursor
                 panelRaton.setBackground(new Color(230, 240, 255));
                 panelRaton.setCursor(Cursor.getDefaultCursor());
+                movimiento.descartar();
                 labelCoords.setText("Mueve el ratón aquí");
                 log("🖱 MouseEvent → ratón SALIÓ de la zona");
             }
@@ -285,20 +317,22 @@ public class EjemploEventosSwing {
         // ║                                                             ║
         // ║  NOTA: mouseMoved se dispara muchísimas veces por segundo.  ║
         // ║  Evita hacer operaciones costosas dentro de este método.    ║
+        // ║                                                             ║
+        // ║  Por eso aquí el listener NO toca las etiquetas: solo       ║
+        // ║  guarda la última posición en 'movimiento' (creado antes    ║
+        // ║  del MouseAdapter, que lo usa en mouseExited), y este la    ║
+        // ║  aplica como mucho una vez por fotograma (~16 ms).          ║
         // ╚═════════════════════════════════════════════════════════════╝
 
         panelRaton.addMouseMotionListener(new MouseMotionAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
-                // Actualizar coordenadas en pantalla (NO en el log → demasiados eventos)
-                labelCoords.setText("(" + e.getX() + ", " + e.getY() + ")");
-                barraEstado.setText("  Ratón en (" + e.getX() + ", " + e.getY()
-                        + ") → doble clic para color aleatorio");
+                movimiento.registrar(e, false);
             }
 
             @Override
             public void mouseDragged(MouseEvent e) {
-                labelCoords.setText("Arrastrando → (" + e.getX() + ", " + e.getY() + ")");
+                movimiento.registrar(e, true);
             }
         });
 
@@ -332,7 +366,7 @@ public class EjemploEventosSwing {
         // ──────────────────────────────────────────────────────────────
         panelPrincipal.add(panelSuperior, BorderLayout.NORTH);
         panelPrincipal.add(splitCentral, BorderLayout.CENTER);
-        panelPrincipal.add(barraEstado, BorderLayout.SOUTH);
+        panelPrincipal.add(crearPanelInferior(ventana, barraEstado), BorderLayout.SOUTH);
 
         ventana.add(panelPrincipal);
         ventana.setVisible(true);
@@ -343,6 +377,103 @@ public class EjemploEventosSwing {
         campoTexto.requestFocus();
     }
 
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  6. GRABAR Y REPRODUCIR EVENTOS                             ║
+    // ║                                                             ║
+    // ║  GrabadorEventos guarda el ratón y el teclado de la ventana ║
+    // ║  en un fichero binario; ReproductorEventos los vuelve a     ║
+    // ║  inyectar a velocidad 1x o máxima. Así se puede repetir     ║
+    // ║  exactamente la misma carga y comparar eventos/segundo      ║
+    // ║  entre dos versiones del código.                            ║
+    // ║                                                             ║
+    // ║  Los clics en estos botones NO se graban (excluidos).       ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private static JPanel crearPanelInferior(JFrame ventana, JLabel barraEstado) {
+        JButton botonGrabar = new JButton("● Grabar");
+        JButton botonReproducir = new JButton("▶ 1x");
+        JButton botonMaxima = new JButton("⏩ Máx.");
+        botonGrabar.setToolTipText("Grabar ratón y teclado de esta ventana");
+        botonReproducir.setToolTipText("Reproducir la grabación con sus tiempos originales");
+        botonMaxima.setToolTipText("Reproducir la grabación lo más rápido posible");
+
+        JPanel panelGrabacion = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        panelGrabacion.add(botonGrabar);
+        panelGrabacion.add(botonReproducir);
+        panelGrabacion.add(botonMaxima);
+
+        GrabadorEventos grabador = new GrabadorEventos(ventana, panelGrabacion);
+
+        botonGrabar.addActionListener(e -> {
+            if (!grabador.isGrabando()) {
+                grabador.iniciar();
+                botonGrabar.setText("■ Parar");
+                botonReproducir.setEnabled(false);
+                botonMaxima.setEnabled(false);
+                log("⏺ Grabando eventos de ratón y teclado…");
+                return;
+            }
+            try {
+                int n = grabador.detener(ARCHIVO_GRABACION);
+                log("⏹ Grabación guardada: " + n + " eventos en " + ARCHIVO_GRABACION);
+                barraEstado.setText("  ✔ Grabados " + n + " eventos");
+            } catch (IOException ex) {
+                barraEstado.setText("  ✘ No se pudo guardar la grabación");
+                JOptionPane.showMessageDialog(ventana,
+                        "No se pudo guardar la grabación:\n" + ex.getMessage(),
+                        "Error de E/S", JOptionPane.ERROR_MESSAGE);
+            }
+            botonGrabar.setText("● Grabar");
+            botonReproducir.setEnabled(true);
+            botonMaxima.setEnabled(true);
+        });
+
+        botonReproducir.addActionListener(e -> reproducir(ventana, barraEstado, false,
+                botonGrabar, botonReproducir, botonMaxima));
+        botonMaxima.addActionListener(e -> reproducir(ventana, barraEstado, true,
+                botonGrabar, botonReproducir, botonMaxima));
+
+        JPanel panelInferior = new JPanel(new BorderLayout());
+        panelInferior.add(barraEstado, BorderLayout.CENTER);
+        panelInferior.add(panelGrabacion, BorderLayout.EAST);
+        return panelInferior;
+    }
+
+    private static void reproducir(JFrame ventana, JLabel barraEstado, boolean maxima,
+            JButton... botones) {
+        if (!Files.exists(ARCHIVO_GRABACION)) {
+            JOptionPane.showMessageDialog(ventana,
+                    "Aún no hay ninguna grabación. Pulsa \"● Grabar\" primero.",
+                    "Sin grabación", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        for (JButton boton : botones) {
+            boton.setEnabled(false);
+        }
+        log("▶ Reproduciendo " + ARCHIVO_GRABACION + (maxima ? " a velocidad máxima" : " a 1x"));
+        ReproductorEventos reproductor = new ReproductorEventos(ARCHIVO_GRABACION, ventana, maxima) {
+            @Override
+            protected void done() {
+                for (JButton boton : botones) {
+                    boton.setEnabled(true);
+                }
+                try {
+                    ReproductorEventos.Resultado r = get();
+                    log("✔ Reproducción: " + r);
+                    barraEstado.setText("  ✔ " + r);
+                } catch (CancellationException ex) {
+                    barraEstado.setText("  ✘ Reproducción cancelada");
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    barraEstado.setText("  ✘ Error al reproducir");
+                    JOptionPane.showMessageDialog(ventana,
+                            "No se pudo reproducir la grabación:\n" + causa.getMessage(),
+                            "Error de E/S", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        reproductor.execute();
+    }
+
     /**
      * Añade un mensaje numerado al log de eventos
      * y hace scroll automático al final.
@@ -350,8 +481,6 @@ public class EjemploEventosSwing {
     private static void log(String mensaje) {
         contadorEventos++;
         logEventos.append(String.format("[%03d] %s%n", contadorEventos, mensaje));
-        // Auto-scroll: mover el cursor al final del texto
-        logEventos.setCaretPosition(logEventos.getDocument().getLength());
     }
 
     public static void main(String[] args) {
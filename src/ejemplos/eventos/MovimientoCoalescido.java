@@ -0,0 +1,94 @@
+package ejemplos.eventos;
+
+import javax.swing.*;
+import java.awt.event.MouseEvent;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  MovimientoCoalescido – como mucho UNA actualización por    ║
+ * ║  fotograma, lleguen los eventos de ratón que lleguen        ║
+ * ║                                                             ║
+ * ║  Un ratón de 1000 Hz genera hasta 1000 mouseMoved por       ║
+ * ║  segundo, pero la pantalla solo se refresca ~60 veces.      ║
+ * ║  Si cada evento cambia etiquetas (texto nuevo, revalidate,  ║
+ * ║  repaint), casi todo ese trabajo no llega a verse nunca.    ║
+ * ║                                                             ║
+ * ║  Aquí cada evento solo GUARDA la última posición (barato)   ║
+ * ║  y arranca, si no lo estaba, un Timer de ~16 ms. Cuando     ║
+ * ║  salta, se aplica la posición más reciente una sola vez.    ║
+ * ║                                                             ║
+ * ║  En cada fotograma aplicado se actualiza también la         ║
+ * ║  etiqueta contador: eventos recibidos vs repintados.        ║
+ * ║                                                             ║
+ * ║  Todo ocurre en el EDT: no hace falta sincronizar nada.     ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class MovimientoCoalescido {
+
+    /** Lo que se hace con la posición final de cada fotograma. */
+    interface Aplicador {
+        void aplicar(int x, int y, boolean arrastrando);
+    }
+
+    /** ~60 actualizaciones por segundo como máximo. */
+    private static final int MS_POR_FOTOGRAMA = 16;
+
+    private final Aplicador aplicador;
+    private final JLabel etiquetaContador;
+    private final Timer temporizador;
+
+    // Última posición recibida (pendiente de aplicar)
+    private int x;
+    private int y;
+    private boolean arrastrando;
+    private boolean pendiente = false;
+
+    // Contadores para ver el efecto de la coalescencia
+    private long eventosRecibidos = 0;
+    private long actualizaciones = 0;
+
+    MovimientoCoalescido(Aplicador aplicador, JLabel etiquetaContador) {
+        this.aplicador = aplicador;
+        this.etiquetaContador = etiquetaContador;
+        temporizador = new Timer(MS_POR_FOTOGRAMA, e -> aplicarPendiente());
+        temporizador.setRepeats(false);
+    }
+
+    /** Llamar desde mouseMoved / mouseDragged: solo anota y programa. */
+    void registrar(MouseEvent e, boolean arrastrando) {
+        eventosRecibidos++;
+        this.x = e.getX();
+        this.y = e.getY();
+        this.arrastrando = arrastrando;
+        pendiente = true;
+        if (!temporizador.isRunning()) {
+            temporizador.start();
+        }
+    }
+
+    /**
+     * Descarta la posición pendiente (p. ej. en mouseExited, para que
+     * un fotograma atrasado no pise el texto de "fuera de la zona").
+     */
+    void descartar() {
+        pendiente = false;
+        temporizador.stop();
+    }
+
+    /** "1.234 eventos → 240 repintados (5,1 por repintado)" */
+    String resumen() {
+        return String.format("%,d eventos de movimiento → %,d repintados (%.1f por repintado)",
+                eventosRecibidos, actualizaciones,
+                actualizaciones == 0 ? 0.0 : (double) eventosRecibidos / actualizaciones);
+    }
+
+    private void aplicarPendiente() {
+        if (!pendiente) {
+            return;
+        }
+        pendiente = false;
+        actualizaciones++;
+        aplicador.aplicar(x, y, arrastrando);
+        etiquetaContador.setText(resumen());
+    }
+}
@@ -0,0 +1,339 @@
+package ejemplos.fileorganizer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  CachePlantillas – contenido guardado UNA sola vez          ║
+ * ║                                                             ║
+ * ║  Si se crea muchas veces la misma estructura, escribir cada ║
+ * ║  fichero desde cero repite el mismo trabajo. Aquí:          ║
+ * ║                                                             ║
+ * ║  • Caché DIRECCIONADA POR CONTENIDO: cada contenido se      ║
+ * ║    guarda en  data/.plantillas/objetos/<SHA-256>  una vez,  ║
+ * ║    aunque aparezca en mil ficheros o en mil ejecuciones.    ║
+ * ║  • PLANTILLA = manifiesto "compilado": un índice con la     ║
+ * ║    ruta y el hash de cada fichero. Mientras el manifiesto   ║
+ * ║    no cambie (tamaño y fecha), se reutiliza el índice y no  ║
+ * ║    se vuelve a leer, codificar ni calcular ningún hash.     ║
+ * ║  • Cada fichero se crea desde su objeto con un ENLACE DURO  ║
+ * ║    (Files.createLink: 0 bytes escritos) o, si el sistema de ║
+ * ║    archivos no lo permite, con Files.copy.                  ║
+ * ║                                                             ║
+ * ║  Ojo: un enlace duro COMPARTE los datos con la caché; si se ║
+ * ║  edita uno de esos ficheros, cambian todos. Por eso los     ║
+ * ║  enlaces son opcionales.                                    ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class CachePlantillas {
+
+    static final Path CARPETA = Paths.get("data", ".plantillas");
+
+    private static final String CABECERA = "PLANTILLA 1";
+
+    /** Un fichero de la plantilla: dónde va y qué contenido (hash) lleva. */
+    static class Fichero {
+        final String ruta;
+        final String hash;
+        final long tamano;
+        final int linea;
+
+        Fichero(String ruta, String hash, long tamano, int linea) {
+            this.ruta = ruta;
+            this.hash = hash;
+            this.tamano = tamano;
+            this.linea = linea;
+        }
+    }
+
+    /** Manifiesto compilado, listo para materializar. */
+    static class Plantilla {
+        final List<String> carpetas = new ArrayList<>();
+        final List<Fichero> ficheros = new ArrayList<>();
+        final List<String> errores = new ArrayList<>();
+        /** Contenidos que aún no están en la caché (hash → bytes). */
+        final Map<String, byte[]> nuevos = new LinkedHashMap<>();
+        boolean desdeIndice;
+
+        long bytesNuevos() {
+            long total = 0;
+            for (byte[] b : nuevos.values()) {
+                total += b.length;
+            }
+            return total;
+        }
+    }
+
+    private final Path objetos;
+    private final Path indices;
+    private volatile boolean enlacesDisponibles = true;
+
+    CachePlantillas(Path carpeta) {
+        this.objetos = carpeta.resolve("objetos");
+        this.indices = carpeta.resolve("indices");
+    }
+
+    boolean isEnlacesDisponibles() {
+        return enlacesDisponibles;
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  PREPARAR: índice guardado o compilar el manifiesto         ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    Plantilla preparar(Path manifiesto) throws IOException {
+        Plantilla p = leerIndice(manifiesto);
+        return p != null ? p : compilar(manifiesto);
+    }
+
+    private Plantilla compilar(Path manifiesto) throws IOException {
+        Manifiesto m = Manifiesto.leer(manifiesto);
+        Plantilla p = new Plantilla();
+        p.errores.addAll(m.getErrores());
+        // Cada contenido distinto se codifica y se resume una sola vez
+        Map<String, Fichero> primeroPorContenido = new HashMap<>();
+        MessageDigest sha = sha256();
+        for (Manifiesto.Entrada e : m.getEntradas()) {
+            if (e.carpeta) {
+                p.carpetas.add(e.ruta);
+                continue;
+            }
+            Fichero igual = primeroPorContenido.get(e.contenido);
+            Fichero f;
+            if (igual != null) {
+                f = new Fichero(e.ruta, igual.hash, igual.tamano, e.linea);
+            } else {
+                byte[] bytes = e.contenido.getBytes(StandardCharsets.UTF_8);
+                f = new Fichero(e.ruta, hex(sha.digest(bytes)), bytes.length, e.linea);
+                primeroPorContenido.put(e.contenido, f);
+                if (!Files.exists(objeto(f.hash))) {
+                    p.nuevos.put(f.hash, bytes);
+                }
+            }
+            p.ficheros.add(f);
+        }
+        return p;
+    }
+
+    /**
+     * Guarda en la caché los contenidos nuevos y el índice de la
+     * plantilla (en una simulación NO se llama).
+     */
+    void guardar(Plantilla p, Path manifiesto) throws IOException {
+        Files.createDirectories(objetos);
+        for (Map.Entry<String, byte[]> nuevo : p.nuevos.entrySet()) {
+            Path destino = objeto(nuevo.getKey());
+            if (!Files.exists(destino)) {
+                // Sin createTempFile: dejaría el objeto en 0600 y los enlaces
+                // duros lo comparten, así que cada fichero creado saldría igual
+                Path temporal = crearTemporal(objetos, nuevo.getKey());
+                try {
+                    Files.write(temporal, nuevo.getValue());
+                    mover(temporal, destino);
+                } finally {
+                    Files.deleteIfExists(temporal);
+                }
+            }
+        }
+        p.nuevos.clear();
+        if (!p.desdeIndice) {
+            escribirIndice(p, manifiesto);
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  MATERIALIZAR un fichero (hilos del pool)
+    // ──────────────────────────────────────────────────────────────
+
+    /** @return bytes escritos (0 si se creó un enlace duro) */
+    long materializar(Fichero f, Path destino, boolean enlazar) throws IOException {
+        Path origen = objeto(f.hash);
+        if (enlazar && enlacesDisponibles) {
+            // El enlace se crea al lado y se mueve encima: si falla, el
+            // destino anterior sigue intacto
+            Path temporal = destino.resolveSibling("." + destino.getFileName() + ".enlace");
+            try {
+                // Ya es un enlace al mismo objeto: rename() entre dos nombres
+                // del mismo inodo no hace nada y dejaría el temporal suelto
+                if (Files.exists(destino) && Files.isSameFile(origen, destino)) {
+                    return 0;
+                }
+                Files.deleteIfExists(temporal);
+                Files.createLink(temporal, origen);
+                mover(temporal, destino);
+                return 0;
+            } catch (UnsupportedOperationException ex) {
+                enlacesDisponibles = false;   // el sistema no tiene enlaces duros
+            } catch (FileSystemException ex) {
+                if (sinEnlaces(ex)) {
+                    enlacesDisponibles = false;
+                }
+                // Cualquier otro fallo (permisos, carpeta borrada…) afecta
+                // solo a este fichero: se copia y los demás siguen enlazando
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        }
+        Files.copy(origen, destino, StandardCopyOption.REPLACE_EXISTING);
+        return f.tamano;
+    }
+
+    /**
+     * ¿El error dice que AQUÍ no se pueden crear enlaces (otro disco o
+     * unidad, sistema de archivos sin enlaces duros)? Las subclases
+     * (AccessDeniedException, NoSuchFileException…) son fallos de un
+     * fichero concreto, no del destino entero.
+     */
+    private static boolean sinEnlaces(FileSystemException ex) {
+        if (ex.getClass() != FileSystemException.class || ex.getReason() == null) {
+            return false;
+        }
+        String motivo = ex.getReason().toLowerCase(Locale.ROOT);
+        return motivo.contains("cross-device")          // Linux/macOS: EXDEV
+                || motivo.contains("different disk")    // Windows: ERROR_NOT_SAME_DEVICE
+                || motivo.contains("not permitted")     // EPERM: FAT, exFAT…
+                || motivo.contains("not supported");
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Índice de la plantilla (texto, una línea por entrada)
+    //
+    //    PLANTILLA 1
+    //    <tamaño del manifiesto> <fecha en ms>
+    //    C  ruta/                     ← carpeta
+    //    F  hash  tamaño  línea  ruta ← fichero
+    //    E  mensaje                   ← error del manifiesto
+    // ──────────────────────────────────────────────────────────────
+    private Path indice(Path manifiesto) throws IOException {
+        byte[] clave = manifiesto.toAbsolutePath().normalize().toString()
+                .getBytes(StandardCharsets.UTF_8);
+        return indices.resolve(hex(sha256().digest(clave)).substring(0, 32) + ".idx");
+    }
+
+    private static String firma(Path manifiesto) throws IOException {
+        return Files.size(manifiesto) + " " + Files.getLastModifiedTime(manifiesto).toMillis();
+    }
+
+    private void escribirIndice(Plantilla p, Path manifiesto) throws IOException {
+        Files.createDirectories(indices);
+        Path destino = indice(manifiesto);
+        Path temporal = Files.createTempFile(indices, "indice", ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+            w.write(CABECERA + "\n" + firma(manifiesto) + "\n");
+            for (String carpeta : p.carpetas) {
+                w.write("C\t" + carpeta + "\n");
+            }
+            for (Fichero f : p.ficheros) {
+                w.write("F\t" + f.hash + "\t" + f.tamano + "\t" + f.linea + "\t" + f.ruta + "\n");
+            }
+            for (String error : p.errores) {
+                w.write("E\t" + error.replace('\n', ' ') + "\n");
+            }
+        }
+        mover(temporal, destino);
+    }
+
+    /** Devuelve null si no hay índice, si el manifiesto cambió o si falta algún objeto. */
+    private Plantilla leerIndice(Path manifiesto) throws IOException {
+        Path ruta = indice(manifiesto);
+        if (!Files.exists(ruta)) {
+            return null;
+        }
+        Plantilla p = new Plantilla();
+        try (BufferedReader r = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            if (!CABECERA.equals(r.readLine()) || !firma(manifiesto).equals(r.readLine())) {
+                return null;
+            }
+            String linea;
+            while ((linea = r.readLine()) != null) {
+                String[] partes = linea.split("\t", 5);
+                switch (partes[0]) {
+                    case "C":
+                        p.carpetas.add(partes[1]);
+                        break;
+                    case "F":
+                        p.ficheros.add(new Fichero(partes[4], partes[1],
+                                Long.parseLong(partes[2]), Integer.parseInt(partes[3])));
+                        break;
+                    case "E":
+                        p.errores.add(partes[1]);
+                        break;
+                    default:
+                        return null;
+                }
+            }
+        } catch (RuntimeException ex) {
+            return null; // índice corrupto → se vuelve a compilar
+        }
+        for (Fichero f : p.ficheros) {
+            if (!Files.exists(objeto(f.hash))) {
+                return null;
+            }
+        }
+        p.desdeIndice = true;
+        return p;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Utilidades
+    // ──────────────────────────────────────────────────────────────
+    private Path objeto(String hash) {
+        return objetos.resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex); // toda JVM incluye SHA-256
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static void mover(Path origen, Path destino) throws IOException {
+        try {
+            Files.move(origen, destino,
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(origen, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Temporal vacío con los permisos por defecto de un archivo nuevo (no 0600). */
+    private static Path crearTemporal(Path carpeta, String prefijo) throws IOException {
+        while (true) {
+            Path temporal = carpeta.resolve(prefijo + "."
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(temporal);
+            } catch (FileAlreadyExistsException ex) {
+                // nombre ocupado: probar con otro
+            }
+        }
+    }
+}
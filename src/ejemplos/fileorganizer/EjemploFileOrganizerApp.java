@@ -6,7 +6,13 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import ejemplos.comun.RegistroCircular;
 
 /**
  * ╔═════════════════════════════════════════════════════════════╗
@@ -25,6 +31,12 @@ import java.io.IOException;
  * ║    • GridBagLayout → posicionar componentes en cuadrícula   ║
  * ║    • JFrame como herencia (extends JFrame)                  ║
  * ║    • SwingUtilities.invokeLater → lanzar la ventana         ║
+ * ║                                                             ║
+ * ║  Modo LOTE: "Crear desde manifiesto..." lee un archivo con  ║
+ * ║  miles de carpetas/ficheros (Manifiesto) y los crea con un  ║
+ * ║  pool de hilos (ProvisionadorLotes), con barra de progreso  ║
+ * ║  y botón Cancelar. Los contenidos se deduplican en una      ║
+ * ║  caché de plantillas (CachePlantillas) y se puede simular.  ║
  * ╚═════════════════════════════════════════════════════════════╝
  */
 public class EjemploFileOrganizerApp extends JFrame {
@@ -41,8 +53,16 @@ public class EjemploFileOrganizerApp extends JFrame {
     private JTextField campoSubcarpeta;
     private JTextField campoNombreArchivo;
     private JTextArea areaContenido;
-    private JTextArea logResultados;
+    private RegistroCircular logResultados;
     private JLabel barraEstado;
+    private JButton botonLote;
+    private JButton botonCancelar;
+    private JProgressBar barraProgreso;
+    private JCheckBox checkCache;
+    private JCheckBox checkEnlaces;
+    private JCheckBox checkSimulacion;
+    private ProvisionadorLotes loteActual;
+    private final CachePlantillas cachePlantillas = new CachePlantillas(CachePlantillas.CARPETA);
 
     public EjemploFileOrganizerApp() {
         setTitle("Ejemplo 12 – Organizador de Ficheros");
@@ -134,8 +154,7 @@ public class EjemploFileOrganizerApp extends JFrame {
         // ──────────────────────────────────────────────────────────────
         //  Log de acciones realizadas
         // ──────────────────────────────────────────────────────────────
-        logResultados = new JTextArea();
-        logResultados.setEditable(false);
+        logResultados = new RegistroCircular();
         logResultados.setFont(new Font("Monospaced", Font.PLAIN, 11));
         JScrollPane scrollLog = new JScrollPane(logResultados);
         scrollLog.setBorder(BorderFactory.createTitledBorder("Log de operaciones"));
@@ -147,8 +166,30 @@ public class EjemploFileOrganizerApp extends JFrame {
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 4));
         JButton botonCrear = new JButton("Crear estructura");
         JButton botonLimpiar = new JButton("Limpiar formulario");
+        botonLote = new JButton("Crear desde manifiesto...");
+        botonLote.setToolTipText("CSV (ruta,contenido) o árbol con sangría; se crea dentro de Carpeta/Subcarpeta");
+        botonCancelar = new JButton("Cancelar");
+        botonCancelar.setEnabled(false);
         panelBotones.add(botonCrear);
         panelBotones.add(botonLimpiar);
+        panelBotones.add(botonLote);
+        panelBotones.add(botonCancelar);
+
+        // Opciones del modo lote
+        JPanel panelOpciones = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        checkCache = new JCheckBox("Caché de plantillas", true);
+        checkCache.setToolTipText("Guarda cada contenido una sola vez en " + CachePlantillas.CARPETA);
+        checkEnlaces = new JCheckBox("Enlaces duros");
+        checkEnlaces.setToolTipText("0 bytes por fichero, pero comparten datos con la caché: no editarlos");
+        checkSimulacion = new JCheckBox("Simulación (no escribe)");
+        checkCache.addItemListener(e -> checkEnlaces.setEnabled(checkCache.isSelected()));
+        panelOpciones.add(checkCache);
+        panelOpciones.add(checkEnlaces);
+        panelOpciones.add(checkSimulacion);
+
+        barraProgreso = new JProgressBar(0, 100);
+        barraProgreso.setStringPainted(true);
+        barraProgreso.setVisible(false);
 
         // — Barra de estado —
         barraEstado = new JLabel("  Introduce los datos y pulsa \"Crear estructura\"");
@@ -167,6 +208,12 @@ public class EjemploFileOrganizerApp extends JFrame {
         // ╚═════════════════════════════════════════════════════════════╝
 
         botonCrear.addActionListener(e -> crearEstructura());
+        botonLote.addActionListener(e -> crearDesdeManifiesto());
+        botonCancelar.addActionListener(e -> {
+            if (loteActual != null) {
+                loteActual.cancel(true);
+            }
+        });
 
         botonLimpiar.addActionListener(e -> {
             campoCarpeta.setText("data");
@@ -181,9 +228,15 @@ public class EjemploFileOrganizerApp extends JFrame {
         //  MONTAJE FINAL
         // ──────────────────────────────────────────────────────────────
         JPanel panelSur = new JPanel(new BorderLayout());
-        panelSur.add(panelBotones, BorderLayout.NORTH);
+        JPanel panelAcciones = new JPanel(new BorderLayout());
+        panelAcciones.add(panelBotones, BorderLayout.NORTH);
+        panelAcciones.add(panelOpciones, BorderLayout.SOUTH);
+        panelSur.add(panelAcciones, BorderLayout.NORTH);
         panelSur.add(scrollLog, BorderLayout.CENTER);
-        panelSur.add(barraEstado, BorderLayout.SOUTH);
+        JPanel panelEstado = new JPanel(new BorderLayout(5, 0));
+        panelEstado.add(barraEstado, BorderLayout.CENTER);
+        panelEstado.add(barraProgreso, BorderLayout.EAST);
+        panelSur.add(panelEstado, BorderLayout.SOUTH);
 
         panelPrincipal.add(panelFormulario, BorderLayout.CENTER);
         panelPrincipal.add(panelSur, BorderLayout.SOUTH);
@@ -227,7 +280,6 @@ public class EjemploFileOrganizerApp extends JFrame {
             logResultados.append("✔ Archivo creado: " + filePath.toAbsolutePath() + "\n");
             logResultados.append("  → " + contenido.length() + " caracteres escritos\n");
             logResultados.append("─────────────────────────────────────────\n");
-            logResultados.setCaretPosition(logResultados.getDocument().getLength());
 
             barraEstado.setText("  ✔ Estructura creada: " + filePath.toAbsolutePath());
 
@@ -240,6 +292,98 @@ public class EjemploFileOrganizerApp extends JFrame {
         }
     }
 
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  MODO LOTE: crear desde un manifiesto                       ║
+    // ║                                                             ║
+    // ║  El EDT solo elige el archivo y lanza el SwingWorker. La    ║
+    // ║  lectura del manifiesto y toda la E/S van en segundo plano; ║
+    // ║  process() recibe los errores de cada entrada y done() el   ║
+    // ║  resumen final.                                             ║
+    // ╚═════════════════════════════════════════════════════════════╝
+    private void crearDesdeManifiesto() {
+        String carpeta = campoCarpeta.getText().trim();
+        String subcarpeta = campoSubcarpeta.getText().trim();
+        if (carpeta.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    "Indica la carpeta donde se creará el lote.",
+                    "Datos incompletos", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        JFileChooser selector = new JFileChooser(new File("data"));
+        selector.setDialogTitle("Selecciona un manifiesto (.csv o árbol .txt)");
+        if (selector.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            barraEstado.setText("  Lote cancelado por el usuario");
+            return;
+        }
+        Path archivoManifiesto = selector.getSelectedFile().toPath();
+        Path destino = subcarpeta.isEmpty() ? Paths.get(carpeta) : Paths.get(carpeta, subcarpeta);
+        int hilos = Math.max(4, Runtime.getRuntime().availableProcessors());
+        boolean usarCache = checkCache.isSelected();
+        boolean simulacion = checkSimulacion.isSelected();
+
+        // El manifiesto se lee dentro del worker: puede tener miles de líneas
+        ProvisionadorLotes lote = new ProvisionadorLotes(destino, archivoManifiesto, hilos,
+                usarCache ? cachePlantillas : null, checkEnlaces.isSelected(), simulacion) {
+            @Override
+            protected void process(List<String> errores) {
+                for (String error : errores) {
+                    logResultados.append(error + "\n");
+                }
+            }
+
+            @Override
+            protected void done() {
+                terminarLote(this);
+            }
+        };
+        lote.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                barraProgreso.setValue((Integer) evt.getNewValue());
+            }
+        });
+
+        loteActual = lote;
+        botonLote.setEnabled(false);
+        botonCancelar.setEnabled(true);
+        barraProgreso.setValue(0);
+        barraProgreso.setVisible(true);
+        logResultados.append("▶ Lote: " + archivoManifiesto.getFileName() + " → "
+                + destino.toAbsolutePath() + " (" + hilos + " hilos"
+                + (usarCache ? ", caché" : "") + (simulacion ? ", simulación" : "") + ")\n");
+        barraEstado.setText("  Creando lote en segundo plano...");
+        lote.execute();
+    }
+
+    private void terminarLote(ProvisionadorLotes lote) {
+        loteActual = null;
+        botonLote.setEnabled(true);
+        botonCancelar.setEnabled(false);
+        barraProgreso.setVisible(false);
+        try {
+            ProvisionadorLotes.Resumen r = lote.get();
+            if (lote.getErroresNoMostrados() > 0) {
+                logResultados.append("  … y " + lote.getErroresNoMostrados() + " error(es) más\n");
+            }
+            if (checkCache.isSelected() && checkEnlaces.isSelected()
+                    && !cachePlantillas.isEnlacesDisponibles()) {
+                logResultados.append("  (este sistema de archivos no admite enlaces duros: se copió)\n");
+            }
+            logResultados.append("✔ Lote terminado: " + r + "\n");
+            barraEstado.setText("  ✔ " + r);
+        } catch (CancellationException ex) {
+            logResultados.append("✘ Lote cancelado (lo ya creado se mantiene)\n");
+            barraEstado.setText("  Lote cancelado");
+        } catch (ExecutionException | InterruptedException ex) {
+            Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+            logResultados.append("✘ Error: " + causa.getMessage() + "\n");
+            barraEstado.setText("  ✘ Error en el lote");
+            JOptionPane.showMessageDialog(this,
+                    "Error al procesar el manifiesto:\n" + causa.getMessage(),
+                    "Error de E/S", JOptionPane.ERROR_MESSAGE);
+        }
+        logResultados.append("─────────────────────────────────────────\n");
+    }
+
     // ╔═════════════════════════════════════════════════════════════╗
     // ║  SwingUtilities.invokeLater()                               ║
     // ║                                                             ║
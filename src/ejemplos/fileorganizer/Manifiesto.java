@@ -0,0 +1,197 @@
+package ejemplos.fileorganizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  Manifiesto – lista de carpetas y ficheros a crear          ║
+ * ║                                                             ║
+ * ║  Admite dos formatos de texto (UTF-8):                      ║
+ * ║                                                             ║
+ * ║  1) CSV (extensión .csv) → una entrada por línea:           ║
+ * ║       ruta,contenido                                        ║
+ * ║       src/main/java/                 ← acaba en "/": carpeta║
+ * ║       src/main/java/App.java,"class App {}"                 ║
+ * ║     El contenido puede ir entre comillas ("" = comilla) y   ║
+ * ║     "\n" dentro del contenido es un salto de línea.         ║
+ * ║                                                             ║
+ * ║  2) Árbol (cualquier otra extensión) → sangría de 2         ║
+ * ║     espacios (o un tabulador) por nivel:                    ║
+ * ║       proyecto/                                             ║
+ * ║         src/                                                ║
+ * ║           App.java = class App {}                           ║
+ * ║         LEEME.md = # Proyecto                               ║
+ * ║                                                             ║
+ * ║  En los dos, las líneas vacías y las que empiezan por "#"   ║
+ * ║  se ignoran. Una línea mal escrita NO aborta la lectura:    ║
+ * ║  se anota en getErrores() con su número de línea.           ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class Manifiesto {
+
+    /** Una carpeta o un fichero del manifiesto (ruta relativa, con "/"). */
+    static class Entrada {
+        final String ruta;
+        final boolean carpeta;
+        final String contenido;   // "" en las carpetas
+        final int linea;
+
+        Entrada(String ruta, boolean carpeta, String contenido, int linea) {
+            this.ruta = ruta;
+            this.carpeta = carpeta;
+            this.contenido = contenido;
+            this.linea = linea;
+        }
+    }
+
+    private final List<Entrada> entradas = new ArrayList<>();
+    private final List<String> errores = new ArrayList<>();
+
+    private Manifiesto() {
+    }
+
+    List<Entrada> getEntradas() {
+        return entradas;
+    }
+
+    List<String> getErrores() {
+        return errores;
+    }
+
+    /** Lee el manifiesto; el formato se deduce de la extensión. */
+    static Manifiesto leer(Path archivo) throws IOException {
+        Manifiesto m = new Manifiesto();
+        boolean csv = archivo.getFileName().toString().toLowerCase().endsWith(".csv");
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            if (csv) {
+                m.leerCsv(lector);
+            } else {
+                m.leerArbol(lector);
+            }
+        }
+        return m;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Formato CSV
+    // ──────────────────────────────────────────────────────────────
+    private void leerCsv(BufferedReader lector) throws IOException {
+        String linea;
+        int numero = 0;
+        boolean primera = true;
+        while ((linea = lector.readLine()) != null) {
+            numero++;
+            String limpia = linea.trim();
+            if (limpia.isEmpty() || limpia.startsWith("#")) {
+                continue;
+            }
+            // Cabecera opcional
+            if (primera && limpia.equalsIgnoreCase("ruta,contenido")) {
+                primera = false;
+                continue;
+            }
+            primera = false;
+
+            int coma = linea.indexOf(',');
+            String ruta = (coma < 0 ? linea : linea.substring(0, coma)).trim();
+            String contenido = "";
+            if (coma >= 0) {
+                contenido = leerCampo(linea.substring(coma + 1).trim(), numero);
+                if (contenido == null) {
+                    continue;
+                }
+            }
+            agregar(ruta, contenido, numero);
+        }
+    }
+
+    /** Quita las comillas del campo (si las tiene) y traduce "\n". */
+    private String leerCampo(String campo, int numero) {
+        if (campo.startsWith("\"")) {
+            if (campo.length() < 2 || !campo.endsWith("\"")) {
+                errores.add("línea " + numero + ": falta la comilla de cierre");
+                return null;
+            }
+            campo = campo.substring(1, campo.length() - 1).replace("\"\"", "\"");
+        }
+        return desescapar(campo);
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Formato árbol (sangría)
+    //
+    //  Se mantiene una pila con la carpeta de cada nivel: la ruta
+    //  de una línea es la de su "padre" (nivel - 1) + su nombre.
+    // ──────────────────────────────────────────────────────────────
+    private void leerArbol(BufferedReader lector) throws IOException {
+        List<String> pila = new ArrayList<>();
+        String linea;
+        int numero = 0;
+        while ((linea = lector.readLine()) != null) {
+            numero++;
+            String limpia = linea.trim();
+            if (limpia.isEmpty() || limpia.startsWith("#")) {
+                continue;
+            }
+            int espacios = 0;
+            int i = 0;
+            while (i < linea.length() && (linea.charAt(i) == ' ' || linea.charAt(i) == '\t')) {
+                espacios += linea.charAt(i) == '\t' ? 2 : 1;
+                i++;
+            }
+            int nivel = espacios / 2;
+            if (nivel > pila.size()) {
+                errores.add("línea " + numero + ": sangría mayor que la de su carpeta");
+                continue;
+            }
+            while (pila.size() > nivel) {
+                pila.remove(pila.size() - 1);
+            }
+            String padre = pila.isEmpty() ? "" : pila.get(pila.size() - 1);
+
+            String nombre = limpia;
+            String contenido = "";
+            int igual = limpia.indexOf(" = ");
+            if (igual >= 0) {
+                nombre = limpia.substring(0, igual).trim();
+                contenido = desescapar(limpia.substring(igual + 3));
+            }
+            String ruta = padre + nombre;
+            if (agregar(ruta, contenido, numero) && ruta.endsWith("/")) {
+                pila.add(ruta);
+            }
+        }
+    }
+
+    /** Valida la ruta y añade la entrada. Devuelve false si se descartó. */
+    private boolean agregar(String ruta, String contenido, int numero) {
+        ruta = ruta.replace('\\', '/');
+        if (ruta.isEmpty() || ruta.equals("/")) {
+            errores.add("línea " + numero + ": ruta vacía");
+            return false;
+        }
+        // Nada de rutas absolutas ni de salir de la carpeta destino con ".."
+        if (ruta.startsWith("/") || ruta.matches("^[A-Za-z]:.*")
+                || ("/" + ruta + "/").contains("/../")) {
+            errores.add("línea " + numero + ": ruta no permitida: " + ruta);
+            return false;
+        }
+        boolean carpeta = ruta.endsWith("/");
+        if (carpeta && !contenido.isEmpty()) {
+            errores.add("línea " + numero + ": una carpeta no puede tener contenido: " + ruta);
+            return false;
+        }
+        entradas.add(new Entrada(ruta, carpeta, contenido, numero));
+        return true;
+    }
+
+    private static String desescapar(String texto) {
+        return texto.replace("\\n", "\n").replace("\\t", "\t");
+    }
+}
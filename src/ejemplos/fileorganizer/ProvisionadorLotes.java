@@ -0,0 +1,300 @@
+package ejemplos.fileorganizer;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  ProvisionadorLotes – crear miles de carpetas y ficheros    ║
+ * ║                                                             ║
+ * ║  SwingWorker que recorre un Manifiesto y lo materializa en  ║
+ * ║  disco con un POOL DE HILOS:                                ║
+ * ║                                                             ║
+ * ║    • ThreadPoolExecutor con una cola ACOTADA                ║
+ * ║      (ArrayBlockingQueue): si los hilos no dan abasto, la   ║
+ * ║      política CallerRunsPolicy hace que el propio worker    ║
+ * ║      ejecute la tarea → se frena solo, sin llenar memoria.  ║
+ * ║    • Fase 1: carpetas (solo las "hojas": createDirectories  ║
+ * ║      ya crea las intermedias). Fase 2: ficheros.            ║
+ * ║    • Un error en una entrada NO para el lote: se publica    ║
+ * ║      (publish) y se sigue con las demás.                    ║
+ * ║    • setProgress(%) alimenta la JProgressBar y cancel()     ║
+ * ║      detiene el reparto de tareas.                          ║
+ * ║                                                             ║
+ * ║  Con CachePlantillas cada contenido se guarda una sola vez  ║
+ * ║  y los ficheros se crean con enlaces duros o Files.copy.    ║
+ * ║  En modo SIMULACIÓN no se toca el disco: solo se calcula    ║
+ * ║  cuántos bytes se escribirían y cuántos se ahorran.         ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class ProvisionadorLotes extends SwingWorker<ProvisionadorLotes.Resumen, String> {
+
+    /** Tareas que pueden esperar en la cola del pool. */
+    private static final int CAPACIDAD_COLA = 256;
+
+    /** Errores que se muestran uno a uno en el log (el resto solo se cuentan). */
+    private static final int MAX_ERRORES_LOG = 200;
+
+    /** Totales del lote (se entregan en done()). */
+    static class Resumen {
+        final int carpetas;
+        final int archivos;
+        final int errores;
+        final long bytesFicheros;  // tamaño total de los ficheros creados
+        final long bytesEscritos;  // lo que realmente se escribe (caché incluida)
+        final long nanos;
+        final boolean simulacion;
+
+        Resumen(int carpetas, int archivos, int errores, long bytesFicheros, long bytesEscritos,
+                long nanos, boolean simulacion) {
+            this.carpetas = carpetas;
+            this.archivos = archivos;
+            this.errores = errores;
+            this.bytesFicheros = bytesFicheros;
+            this.bytesEscritos = bytesEscritos;
+            this.nanos = nanos;
+            this.simulacion = simulacion;
+        }
+
+        long getBytesAhorrados() {
+            return bytesFicheros - bytesEscritos;
+        }
+
+        @Override
+        public String toString() {
+            double segundos = nanos / 1e9;
+            if (simulacion) {
+                return String.format("SIMULACIÓN: %,d carpetas y %,d archivos (%,d bytes)"
+                        + " → se escribirían %,d bytes, ahorro %,d bytes  |  %d error(es)",
+                        carpetas, archivos, bytesFicheros, bytesEscritos, getBytesAhorrados(), errores);
+            }
+            return String.format("%,d carpetas y %,d archivos (%,d bytes) en %.2f s"
+                    + " → %,.0f elementos/s  |  escritos %,d bytes, ahorro %,d  |  %d error(es)",
+                    carpetas, archivos, bytesFicheros, segundos,
+                    segundos == 0 ? 0 : (carpetas + archivos) / segundos,
+                    bytesEscritos, getBytesAhorrados(), errores);
+        }
+    }
+
+    private final Path destino;
+    private final Path archivoManifiesto;
+    private final int hilos;
+    private final CachePlantillas cache;   // null → sin caché (Files.write)
+    private final boolean enlazar;
+    private final boolean simulacion;
+
+    private final AtomicInteger carpetasCreadas = new AtomicInteger();
+    private final AtomicInteger archivosCreados = new AtomicInteger();
+    private final AtomicInteger errores = new AtomicInteger();
+    private final AtomicLong bytesFicheros = new AtomicLong();
+    private final AtomicLong bytesEscritos = new AtomicLong();
+    private final AtomicInteger terminadas = new AtomicInteger();
+    private int totalTareas;
+
+    ProvisionadorLotes(Path destino, Path archivoManifiesto, int hilos,
+            CachePlantillas cache, boolean enlazar, boolean simulacion) {
+        this.destino = destino.toAbsolutePath().normalize();
+        this.archivoManifiesto = archivoManifiesto;
+        this.hilos = hilos;
+        this.cache = cache;
+        this.enlazar = enlazar;
+        this.simulacion = simulacion;
+    }
+
+    @Override
+    protected Resumen doInBackground() throws IOException, InterruptedException {
+        long inicio = System.nanoTime();
+
+        // Carpetas necesarias y una tarea por fichero (con o sin caché)
+        TreeSet<String> carpetas = new TreeSet<>();
+        List<Runnable> ficheros = new ArrayList<>();
+        if (cache == null) {
+            Manifiesto manifiesto = Manifiesto.leer(archivoManifiesto);
+            informarErroresManifiesto(manifiesto.getErrores());
+            for (Manifiesto.Entrada e : manifiesto.getEntradas()) {
+                if (e.carpeta) {
+                    carpetas.add(e.ruta);
+                } else {
+                    agregarPadre(carpetas, e.ruta);
+                    ficheros.add(() -> crearArchivo(e));
+                }
+            }
+        } else {
+            CachePlantillas.Plantilla plantilla = cache.preparar(archivoManifiesto);
+            informarErroresManifiesto(plantilla.errores);
+            // Los contenidos nuevos se escriben una vez en la caché
+            bytesEscritos.addAndGet(plantilla.bytesNuevos());
+            if (!simulacion) {
+                cache.guardar(plantilla, archivoManifiesto);
+            }
+            carpetas.addAll(plantilla.carpetas);
+            for (CachePlantillas.Fichero f : plantilla.ficheros) {
+                agregarPadre(carpetas, f.ruta);
+                ficheros.add(() -> materializar(f));
+            }
+        }
+        List<String> hojas = hojas(carpetas);
+        totalTareas = hojas.size() + ficheros.size();
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CAPACIDAD_COLA), r -> {
+                    Thread hilo = new Thread(r, "provisionador");
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            // ── Fase 1: carpetas ──
+            CountDownLatch fase1 = new CountDownLatch(hojas.size());
+            for (String carpeta : hojas) {
+                if (isCancelled()) {
+                    break;
+                }
+                pool.execute(() -> {
+                    try {
+                        if (!isCancelled()) {
+                            crearCarpeta(carpeta);
+                        }
+                    } finally {
+                        fase1.countDown();
+                        avanzar();
+                    }
+                });
+            }
+            if (isCancelled()) {
+                return resumen(inicio);
+            }
+            fase1.await();
+
+            // ── Fase 2: ficheros ──
+            CountDownLatch fase2 = new CountDownLatch(ficheros.size());
+            for (Runnable fichero : ficheros) {
+                if (isCancelled()) {
+                    break;
+                }
+                pool.execute(() -> {
+                    try {
+                        if (!isCancelled()) {
+                            fichero.run();
+                        }
+                    } finally {
+                        fase2.countDown();
+                        avanzar();
+                    }
+                });
+            }
+            if (!isCancelled()) {
+                fase2.await();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return resumen(inicio);
+    }
+
+    private void informarErroresManifiesto(List<String> erroresManifiesto) {
+        for (String error : erroresManifiesto) {
+            informarError("✘ Manifiesto, " + error);
+        }
+    }
+
+    private static void agregarPadre(TreeSet<String> carpetas, String ruta) {
+        int barra = ruta.lastIndexOf('/');
+        if (barra > 0) {
+            carpetas.add(ruta.substring(0, barra + 1));
+        }
+    }
+
+    /** Carpetas que no son prefijo de otra (las demás se crean de paso). */
+    private static List<String> hojas(TreeSet<String> carpetas) {
+        List<String> hojas = new ArrayList<>();
+        String anterior = null;
+        // En orden alfabético, una carpeta va justo antes de sus subcarpetas
+        for (String carpeta : carpetas) {
+            if (anterior != null && !carpeta.startsWith(anterior)) {
+                hojas.add(anterior);
+            }
+            anterior = carpeta;
+        }
+        if (anterior != null) {
+            hojas.add(anterior);
+        }
+        return hojas;
+    }
+
+    private void crearCarpeta(String ruta) {
+        try {
+            if (!simulacion) {
+                Files.createDirectories(destino.resolve(ruta));
+            }
+            carpetasCreadas.incrementAndGet();
+        } catch (IOException ex) {
+            informarError("✘ " + ruta + ": " + ex);
+        }
+    }
+
+    private void crearArchivo(Manifiesto.Entrada fichero) {
+        try {
+            byte[] bytes = fichero.contenido.getBytes(StandardCharsets.UTF_8);
+            if (!simulacion) {
+                Files.write(destino.resolve(fichero.ruta), bytes);
+            }
+            archivosCreados.incrementAndGet();
+            bytesFicheros.addAndGet(bytes.length);
+            bytesEscritos.addAndGet(bytes.length);
+        } catch (IOException ex) {
+            informarError("✘ línea " + fichero.linea + " · " + fichero.ruta + ": " + ex);
+        }
+    }
+
+    /** Fichero desde la caché: enlace duro (0 bytes) o copia. */
+    private void materializar(CachePlantillas.Fichero fichero) {
+        try {
+            long escritos;
+            if (simulacion) {
+                escritos = enlazar && cache.isEnlacesDisponibles() ? 0 : fichero.tamano;
+            } else {
+                escritos = cache.materializar(fichero, destino.resolve(fichero.ruta), enlazar);
+            }
+            archivosCreados.incrementAndGet();
+            bytesFicheros.addAndGet(fichero.tamano);
+            bytesEscritos.addAndGet(escritos);
+        } catch (IOException ex) {
+            informarError("✘ línea " + fichero.linea + " · " + fichero.ruta + ": " + ex);
+        }
+    }
+
+    private void informarError(String mensaje) {
+        int n = errores.incrementAndGet();
+        if (n <= MAX_ERRORES_LOG) {
+            publish(mensaje); // publish() se puede llamar desde cualquier hilo
+        }
+    }
+
+    private void avanzar() {
+        int hechas = terminadas.incrementAndGet();
+        if (totalTareas > 0) {
+            setProgress(Math.min(100, (int) (hechas * 100L / totalTareas)));
+        }
+    }
+
+    private Resumen resumen(long inicio) {
+        return new Resumen(carpetasCreadas.get(), archivosCreados.get(), errores.get(),
+                bytesFicheros.get(), bytesEscritos.get(), System.nanoTime() - inicio, simulacion);
+    }
+
+    int getErroresNoMostrados() {
+        return Math.max(0, errores.get() - MAX_ERRORES_LOG);
+    }
+}
@@ -5,6 +5,8 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
+import ejemplos.comun.RegistroCircular;
+
 /**
  * EJEMPLO 1 – GUI BÁSICA CON SWING
  * ==================================
@@ -16,7 +18,8 @@ import java.awt.event.ActionListener;
  * - JLabel : texto estático (etiquetas informativas).
  * - JTextField : campo de entrada de texto (una línea).
  * - JButton : botón que el usuario puede pulsar.
- * - JTextArea : área de texto multilínea (aquí se usa como panel informativo).
+ * - RegistroCircular : log de solo lectura (una JList con memoria acotada,
+ *   ver ejemplos.comun) que se usa como panel informativo.
  * - ActionListener : cómo reaccionar cuando el usuario pulsa un botón.
  *
  * Layout utilizado: null (posicionamiento manual con setBounds).
@@ -117,8 +120,9 @@ public class EjemploGuiBasica {
         botonSaludar.setFont(new Font("SansSerif", Font.BOLD, 13));
         panel.add(botonSaludar);
 
-        // ── ÁREA INFORMATIVA (JTextArea + JScrollPane) ─────────────────────
-        // JTextArea es un componente de texto multilínea.
+        // ── ÁREA INFORMATIVA (RegistroCircular + JScrollPane) ──────────────
+        // RegistroCircular muestra una línea por mensaje y solo guarda las
+        // últimas N: por mucho que se use, no crece sin límite.
         // Lo envolvemos en JScrollPane para que tenga barras de desplazamiento
         // si el contenido crece más que el espacio visible.
         JLabel etiquetaInfo = new JLabel("Registro de acciones:");
@@ -126,8 +130,7 @@ public class EjemploGuiBasica {
         etiquetaInfo.setFont(new Font("SansSerif", Font.BOLD, 13));
         panel.add(etiquetaInfo);
 
-        JTextArea areaInfo = new JTextArea();
-        areaInfo.setEditable(false); // Solo lectura: el usuario no puede escribir aquí
+        RegistroCircular areaInfo = new RegistroCircular();
         areaInfo.setFont(new Font("Monospaced", Font.PLAIN, 12));
         areaInfo.setBackground(new Color(255, 255, 255));
         areaInfo.setText("Bienvenido/a al Ejemplo 1 – GUI Básica.\n"
@@ -138,7 +141,7 @@ public class EjemploGuiBasica {
                 + "• Pulsa \"Cerrar\" para cerrar la ventana.\n"
                 + "──────────────────────────────────────\n");
 
-        // JScrollPane: envuelve al JTextArea para añadir scroll automático
+        // JScrollPane: envuelve al registro para añadir scroll automático
         JScrollPane scrollArea = new JScrollPane(areaInfo);
         scrollArea.setBounds(20, 168, 470, 150);
         panel.add(scrollArea);
@@ -0,0 +1,92 @@
+package ejemplos.jtable;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  AgregadosProductos – la fila de totales de la tabla        ║
+ * ║                                                             ║
+ * ║  Recorrer un millón de filas para sumar cada vez que cambia ║
+ * ║  una celda es tirar el trabajo. Las sumas, el mínimo y el   ║
+ * ║  máximo los mantiene el ALMACÉN (TotalesProductos), que ve  ║
+ * ║  el valor anterior de cada celda antes de cambiarla: aquí   ║
+ * ║  solo se leen, sin copiar ninguna columna.                  ║
+ * ║                                                             ║
+ * ║  Este listener del modelo solo avisa (una vez por tanda de  ║
+ * ║  eventos) de que hay que repintar los totales.              ║
+ * ║                                                             ║
+ * ║  Solo desde el EDT (lo llama el propio modelo).             ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class AgregadosProductos implements TableModelListener {
+
+    private final ModeloProductos modelo;
+
+    private Runnable alCambiar = () -> { };
+    private boolean avisoPendiente = false;
+
+    AgregadosProductos(ModeloProductos modelo) {
+        this.modelo = modelo;
+        modelo.addTableModelListener(this);
+    }
+
+    /**
+     * Se ejecuta en el EDT tras los cambios. Varios eventos seguidos
+     * (un lote, una edición…) producen un único aviso.
+     */
+    void setAlCambiar(Runnable alCambiar) {
+        this.alCambiar = alCambiar;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Valores
+    // ──────────────────────────────────────────────────────────────
+    int getFilas() {
+        return modelo.getRowCount();
+    }
+
+    double getSumaPrecios() {
+        return modelo.getTotales().getSumaPrecios();
+    }
+
+    double getMediaPrecios() {
+        return getFilas() == 0 ? 0 : getSumaPrecios() / getFilas();
+    }
+
+    double getMinimoPrecio() {
+        return modelo.getTotales().getMinimoPrecio();
+    }
+
+    double getMaximoPrecio() {
+        return modelo.getTotales().getMaximoPrecio();
+    }
+
+    long getSumaStock() {
+        return modelo.getTotales().getSumaStock();
+    }
+
+    double getValorStock() {
+        return modelo.getTotales().getValorStock();
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Eventos del modelo
+    // ──────────────────────────────────────────────────────────────
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        avisar();
+    }
+
+    private void avisar() {
+        if (avisoPendiente) {
+            return;
+        }
+        avisoPendiente = true;
+        SwingUtilities.invokeLater(() -> {
+            avisoPendiente = false;
+            alCambiar.run();
+        });
+    }
+}
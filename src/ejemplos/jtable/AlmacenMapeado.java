@@ -0,0 +1,473 @@
+package ejemplos.jtable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  AlmacenMapeado – las filas en un ARCHIVO proyectado        ║
+ * ║                                                             ║
+ * ║  Cada fila es un registro de 24 bytes en productos.dat:     ║
+ * ║                                                             ║
+ * ║    cabecera (72 bytes): "PROD" · versión · filas · 24       ║
+ * ║                 · estado · totales (TotalesProductos)       ║
+ * ║    registro i:  id (4) · código (4) · precio (8) · stock (4)║
+ * ║                 · 4 libres   → en 72 + i × 24               ║
+ * ║                                                             ║
+ * ║  FileChannel.map() proyecta el archivo en memoria virtual:  ║
+ * ║  leer una celda es leer 4 u 8 bytes de la proyección, y el  ║
+ * ║  sistema operativo carga del disco solo las páginas que se  ║
+ * ║  tocan. Abrir un catálogo de varios GB es instantáneo y una ║
+ * ║  edición se escribe EN SU SITIO, sin volver a guardar todo. ║
+ * ║                                                             ║
+ * ║  Se proyecta en SEGMENTOS de 65.536 registros (1,5 MB):     ║
+ * ║  crecer es proyectar uno más, como los bloques de           ║
+ * ║  ColumnaInt. Los nombres van aparte (productos.nombres),    ║
+ * ║  uno por código, y se cargan en un Diccionario al abrir.    ║
+ * ║                                                             ║
+ * ║  El archivo no encoge al eliminar filas: la cabecera dice   ║
+ * ║  cuántos registros son válidos. Mientras está abierto, el   ║
+ * ║  archivo queda bloqueado (FileLock) para los demás.         ║
+ * ║                                                             ║
+ * ║  Los totales viajan en la cabecera, así que abrir no suma   ║
+ * ║  las filas. Solo tras un cierre brusco (estado ≠ CERRADO)   ║
+ * ║  se recalculan recorriéndolas una vez.                      ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class AlmacenMapeado implements AlmacenProductos {
+
+    private static final int MAGICO = 0x50524F44;       // "PROD"
+    private static final int VERSION = 2;
+    private static final int POS_FILAS = 8;
+    private static final int POS_TAM_REGISTRO = 12;
+    private static final int POS_ESTADO = 16;           // CERRADO solo tras un cerrar() completo
+    private static final int POS_TOTALES = 24;
+    private static final int CABECERA = POS_TOTALES + TotalesProductos.BYTES;
+
+    private static final int ABIERTO = 0;
+    private static final int CERRADO = 1;
+
+    private static final int TAM_REGISTRO = 24;
+    private static final int DESP_ID = 0;
+    private static final int DESP_CODIGO = 4;
+    private static final int DESP_PRECIO = 8;
+    private static final int DESP_STOCK = 16;
+
+    private static final int BITS_SEGMENTO = 16;
+    private static final int REGISTROS_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA = REGISTROS_SEGMENTO - 1;
+    private static final long TAM_SEGMENTO = (long) REGISTROS_SEGMENTO * TAM_REGISTRO;
+
+    private final FileChannel canal;
+    private final MappedByteBuffer cabecera;
+    private MappedByteBuffer[] segmentos;
+    private int proyectados;
+    private int filas;
+
+    private final Diccionario nombres;
+    private final DataOutputStream salidaNombres;
+    private final TotalesProductos totales;
+
+    private byte[] temporal;            // para desplazar registros al eliminar
+
+    private AlmacenMapeado(FileChannel canal, MappedByteBuffer cabecera, int filas,
+            Diccionario nombres, DataOutputStream salidaNombres) throws IOException {
+        this.canal = canal;
+        this.cabecera = cabecera;
+        this.filas = filas;
+        this.nombres = nombres;
+        this.salidaNombres = salidaNombres;
+        this.totales = new TotalesProductos(this, cabecera, POS_TOTALES);
+        int necesarios = (filas + MASCARA) >>> BITS_SEGMENTO;
+        segmentos = new MappedByteBuffer[Math.max(4, necesarios)];
+        while (proyectados < necesarios) {
+            proyectar();
+        }
+    }
+
+    /**
+     * Abre (o crea, si no existe) el almacén y su archivo de nombres.
+     * Solo se leen la cabecera y los nombres: las filas se leerán
+     * cuando la tabla las pida.
+     *
+     * @throws IOException si no se puede abrir o no es un almacén válido
+     */
+    static AlmacenMapeado abrir(Path archivo) throws IOException {
+        String base = archivo.getFileName().toString().replaceFirst("\\.dat$", "");
+        Path archivoNombres = archivo.resolveSibling(base + ".nombres");
+
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel canalNombres = null;
+        try {
+            // Dos ventanas sobre el mismo archivo se pisarían filas y
+            // códigos de nombre: el bloqueo se suelta al cerrar el canal
+            if (bloquear(canal) == null) {
+                throw new IOException(archivo + " está abierto en otra ventana o programa");
+            }
+            boolean nuevo = canal.size() == 0;
+            MappedByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_WRITE, 0, CABECERA);
+            if (nuevo) {
+                cabecera.putInt(0, MAGICO);
+                cabecera.putInt(4, VERSION);
+                cabecera.putInt(POS_FILAS, 0);
+                cabecera.putInt(POS_TAM_REGISTRO, TAM_REGISTRO);
+                cabecera.putInt(POS_ESTADO, CERRADO); // vacío: los totales a cero son exactos
+            } else if (cabecera.getInt(0) != MAGICO || cabecera.getInt(POS_TAM_REGISTRO) != TAM_REGISTRO) {
+                throw new IOException(archivo + " no es un almacén de productos");
+            } else if (cabecera.getInt(4) != VERSION) {
+                throw new IOException(archivo + " es de la versión " + cabecera.getInt(4)
+                        + " del almacén (se esperaba la " + VERSION + "): bórralo para empezar uno nuevo");
+            }
+            int filas = cabecera.getInt(POS_FILAS);
+            if (filas < 0 || CABECERA + (long) filas * TAM_REGISTRO > canal.size()) {
+                throw new IOException(archivo + " está dañado: la cabecera indica "
+                        + filas + " filas y no caben en el archivo");
+            }
+
+            Diccionario nombres = new Diccionario();
+            long validos = leerNombres(archivoNombres, nombres);
+            canalNombres = FileChannel.open(archivoNombres, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            canalNombres.truncate(validos); // un nombre a medias (cierre brusco) se descarta
+            canalNombres.position(validos);
+            DataOutputStream salidaNombres = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(canalNombres)));
+
+            boolean cerradoBien = cabecera.getInt(POS_ESTADO) == CERRADO;
+            cabecera.putInt(POS_ESTADO, ABIERTO);
+            cabecera.force(); // si ahora se corta la luz, la próxima vez se sabrá
+
+            AlmacenMapeado almacen = new AlmacenMapeado(canal, cabecera, filas, nombres, salidaNombres);
+            if (!cerradoBien) {
+                almacen.totales.recalcular();
+            }
+            return almacen;
+        } catch (IOException | RuntimeException ex) {
+            canal.close();
+            if (canalNombres != null) {
+                canalNombres.close();
+            }
+            throw ex;
+        }
+    }
+
+    /** null si otro programa (o esta misma JVM) ya tiene el archivo. */
+    private static FileLock bloquear(FileChannel canal) throws IOException {
+        try {
+            return canal.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            return null;
+        }
+    }
+
+    /** Carga los nombres en el diccionario; devuelve los bytes válidos leídos. */
+    private static long leerNombres(Path archivoNombres, Diccionario nombres) throws IOException {
+        if (!Files.exists(archivoNombres)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(archivoNombres);
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(bytes));
+        long validos = 0;
+        try {
+            while (entrada.available() > 0) {
+                nombres.codigo(entrada.readUTF());
+                validos = bytes.length - entrada.available();
+            }
+        } catch (EOFException ex) {
+            // El último nombre quedó a medias: se ignora
+        }
+        return validos;
+    }
+
+    /** Proyecta el siguiente segmento (el archivo crece si hace falta). */
+    private void proyectar() throws IOException {
+        if (proyectados == segmentos.length) {
+            segmentos = Arrays.copyOf(segmentos, segmentos.length * 2);
+        }
+        segmentos[proyectados] = canal.map(FileChannel.MapMode.READ_WRITE,
+                CABECERA + proyectados * TAM_SEGMENTO, TAM_SEGMENTO);
+        proyectados++;
+    }
+
+    private MappedByteBuffer segmento(int fila) {
+        return segmentos[fila >>> BITS_SEGMENTO];
+    }
+
+    private static int posicion(int fila) {
+        return (fila & MASCARA) * TAM_REGISTRO;
+    }
+
+    private void guardarFilas(int nuevas) {
+        filas = nuevas;
+        cabecera.putInt(POS_FILAS, filas);
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Filas: se leen y se escriben directamente en la proyección
+    // ──────────────────────────────────────────────────────────────
+    @Override
+    public int filas() {
+        return filas;
+    }
+
+    @Override
+    public int getId(int fila) {
+        return segmento(fila).getInt(posicion(fila) + DESP_ID);
+    }
+
+    @Override
+    public int getCodigo(int fila) {
+        return segmento(fila).getInt(posicion(fila) + DESP_CODIGO);
+    }
+
+    @Override
+    public double getPrecio(int fila) {
+        return segmento(fila).getDouble(posicion(fila) + DESP_PRECIO);
+    }
+
+    @Override
+    public int getStock(int fila) {
+        return segmento(fila).getInt(posicion(fila) + DESP_STOCK);
+    }
+
+    @Override
+    public void setId(int fila, int id) {
+        segmento(fila).putInt(posicion(fila) + DESP_ID, id);
+    }
+
+    @Override
+    public void setCodigo(int fila, int codigo) {
+        segmento(fila).putInt(posicion(fila) + DESP_CODIGO, codigo);
+    }
+
+    @Override
+    public void setPrecio(int fila, double precio) {
+        int stock = getStock(fila);
+        totales.restar(getPrecio(fila), stock);
+        segmento(fila).putDouble(posicion(fila) + DESP_PRECIO, precio);
+        totales.sumar(precio, stock);
+    }
+
+    @Override
+    public void setStock(int fila, int stock) {
+        double precio = getPrecio(fila);
+        totales.restar(precio, getStock(fila));
+        segmento(fila).putInt(posicion(fila) + DESP_STOCK, stock);
+        totales.sumar(precio, stock);
+    }
+
+    /**
+     * @throws UncheckedIOException si no se puede proyectar un segmento más
+     */
+    @Override
+    public void agregar(int id, int codigo, double precio, int stock) {
+        int fila = filas;
+        if ((fila >>> BITS_SEGMENTO) == proyectados) {
+            try {
+                proyectar();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        MappedByteBuffer segmento = segmento(fila);
+        int posicion = posicion(fila);
+        segmento.putInt(posicion + DESP_ID, id);
+        segmento.putInt(posicion + DESP_CODIGO, codigo);
+        segmento.putDouble(posicion + DESP_PRECIO, precio);
+        segmento.putInt(posicion + DESP_STOCK, stock);
+        totales.sumar(precio, stock);
+        // La cabecera se actualiza después del registro, pero eso solo
+        // ordena la memoria: si se va la luz, el sistema puede haber
+        // llevado al disco la página de la cabecera y no la del registro
+        // (que se leería a ceros). La marca de cierre detecta ese caso y
+        // rehace los totales; las filas en sí no se pueden reconstruir
+        guardarFilas(fila + 1);
+    }
+
+    @Override
+    public void eliminar(int desde, int hasta) {
+        for (int fila = desde; fila <= hasta; fila++) {
+            totales.restar(getPrecio(fila), getStock(fila));
+        }
+        mover(hasta + 1, desde, filas - hasta - 1);
+        guardarFilas(filas - (hasta - desde + 1));
+    }
+
+    @Override
+    public void eliminar(int[] filasEliminadas) {
+        for (int fila : filasEliminadas) {
+            totales.restar(getPrecio(fila), getStock(fila));
+        }
+        int destino = filasEliminadas[0];
+        for (int i = 0; i < filasEliminadas.length; i++) {
+            int inicio = filasEliminadas[i] + 1;
+            int fin = i + 1 < filasEliminadas.length ? filasEliminadas[i + 1] : filas;
+            mover(inicio, destino, fin - inicio);
+            destino += fin - inicio;
+        }
+        guardarFilas(filas - filasEliminadas.length);
+    }
+
+    /** Copia 'cantidad' registros hacia atrás (destino < origen), tramo a tramo. */
+    private void mover(int origen, int destino, int cantidad) {
+        if (temporal == null) {
+            temporal = new byte[(int) TAM_SEGMENTO];
+        }
+        while (cantidad > 0) {
+            int n = Math.min(cantidad, Math.min(REGISTROS_SEGMENTO - (origen & MASCARA),
+                    REGISTROS_SEGMENTO - (destino & MASCARA)));
+            int longitud = n * TAM_REGISTRO;
+            ByteBuffer lectura = segmento(origen).duplicate();
+            lectura.position(posicion(origen));
+            lectura.get(temporal, 0, longitud);
+            ByteBuffer escritura = segmento(destino).duplicate();
+            escritura.position(posicion(destino));
+            escritura.put(temporal, 0, longitud);
+            origen += n;
+            destino += n;
+            cantidad -= n;
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Nombres: cada nombre NUEVO se añade al archivo al momento
+    // ──────────────────────────────────────────────────────────────
+
+    /**
+     * @throws UncheckedIOException si no se puede escribir el nombre nuevo
+     *         (también si pasa de 65 535 bytes: el límite de writeUTF)
+     */
+    @Override
+    public int codigo(String nombre) {
+        int codigo = nombres.buscar(nombre);
+        if (codigo >= 0) {
+            return codigo;
+        }
+        // Primero al archivo y DESPUÉS al diccionario: si la escritura
+        // falla, el nombre no queda con un código que el archivo no tiene
+        try {
+            if (bytesUtf(nombre) > 65_535) {
+                throw new UTFDataFormatException("Nombre demasiado largo ("
+                        + bytesUtf(nombre) + " bytes; el máximo es 65535)");
+            }
+            salidaNombres.writeUTF(nombre);
+            salidaNombres.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return nombres.codigo(nombre);
+    }
+
+    /** Bytes que ocupa el texto en el UTF-8 modificado de writeUTF. */
+    private static int bytesUtf(String texto) {
+        int bytes = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            bytes += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String nombre(int codigo) {
+        return nombres.texto(codigo);
+    }
+
+    @Override
+    public int nombresDistintos() {
+        return nombres.tamano();
+    }
+
+    @Override
+    public String[] copiarNombres() {
+        return nombres.copiar();
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Copias y cierre
+    // ──────────────────────────────────────────────────────────────
+    @Override
+    public TotalesProductos totales() {
+        return totales;
+    }
+
+    @Override
+    public int[] copiarEnteros(int columna) {
+        int desplazamiento;
+        switch (columna) {
+            case ModeloProductos.COL_ID:
+                desplazamiento = DESP_ID;
+                break;
+            case ModeloProductos.COL_PRODUCTO:
+                desplazamiento = DESP_CODIGO;
+                break;
+            case ModeloProductos.COL_STOCK:
+                desplazamiento = DESP_STOCK;
+                break;
+            default:
+                throw new IllegalArgumentException("La columna " + columna + " no es de enteros");
+        }
+        int[] copia = new int[filas];
+        for (int fila = 0; fila < filas; fila++) {
+            copia[fila] = segmento(fila).getInt(posicion(fila) + desplazamiento);
+        }
+        return copia;
+    }
+
+    @Override
+    public double[] copiarPrecios() {
+        double[] copia = new double[filas];
+        for (int fila = 0; fila < filas; fila++) {
+            copia[fila] = getPrecio(fila);
+        }
+        return copia;
+    }
+
+    @Override
+    public long bytes() {
+        return proyectados * TAM_SEGMENTO;
+    }
+
+    /**
+     * Los cambios ya están en la proyección (el sistema operativo los
+     * lleva al disco por su cuenta); force() espera a que terminen.
+     * Aunque force() falle, los archivos se cierran (y se suelta el bloqueo).
+     */
+    @Override
+    public void cerrar() throws IOException {
+        try {
+            for (int i = 0; i < proyectados; i++) {
+                segmentos[i].force();
+            }
+            // Solo con las filas ya en disco se marca el archivo como cerrado
+            // bien: sus totales valen para la próxima vez
+            cabecera.putInt(POS_ESTADO, CERRADO);
+            cabecera.force();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause(); // force() avisa así de un error de disco
+        } finally {
+            try {
+                salidaNombres.close();
+            } finally {
+                canal.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ejemplos.jtable;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  AlmacenMemoria – las filas en columnas de primitivos       ║
+ * ║                                                             ║
+ * ║    ID          → ColumnaInt     (4 bytes)                   ║
+ * ║    Producto    → ColumnaInt     (4 bytes, código en el      ║
+ * ║                                  Diccionario de nombres)    ║
+ * ║    Precio (€)  → ColumnaDouble  (8 bytes)                   ║
+ * ║    Stock       → ColumnaInt     (4 bytes)                   ║
+ * ║                                                             ║
+ * ║  Rápido y sin archivos, pero todo se pierde al cerrar.      ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class AlmacenMemoria implements AlmacenProductos {
+
+    private final ColumnaInt ids = new ColumnaInt();
+    private final ColumnaInt productos = new ColumnaInt();
+    private final ColumnaDouble precios = new ColumnaDouble();
+    private final ColumnaInt stocks = new ColumnaInt();
+    private final Diccionario nombres = new Diccionario();
+    private final TotalesProductos totales = new TotalesProductos(this);
+
+    @Override
+    public int filas() {
+        return ids.tamano();
+    }
+
+    @Override
+    public int getId(int fila) {
+        return ids.get(fila);
+    }
+
+    @Override
+    public int getCodigo(int fila) {
+        return productos.get(fila);
+    }
+
+    @Override
+    public double getPrecio(int fila) {
+        return precios.get(fila);
+    }
+
+    @Override
+    public int getStock(int fila) {
+        return stocks.get(fila);
+    }
+
+    @Override
+    public void setId(int fila, int id) {
+        ids.set(fila, id);
+    }
+
+    @Override
+    public void setCodigo(int fila, int codigo) {
+        productos.set(fila, codigo);
+    }
+
+    @Override
+    public void setPrecio(int fila, double precio) {
+        int stock = stocks.get(fila);
+        totales.restar(precios.get(fila), stock);
+        precios.set(fila, precio);
+        totales.sumar(precio, stock);
+    }
+
+    @Override
+    public void setStock(int fila, int stock) {
+        double precio = precios.get(fila);
+        totales.restar(precio, stocks.get(fila));
+        stocks.set(fila, stock);
+        totales.sumar(precio, stock);
+    }
+
+    @Override
+    public void agregar(int id, int codigo, double precio, int stock) {
+        ids.agregar(id);
+        productos.agregar(codigo);
+        precios.agregar(precio);
+        stocks.agregar(stock);
+        totales.sumar(precio, stock);
+    }
+
+    @Override
+    public void eliminar(int desde, int hasta) {
+        for (int fila = desde; fila <= hasta; fila++) {
+            totales.restar(precios.get(fila), stocks.get(fila));
+        }
+        ids.eliminar(desde, hasta);
+        productos.eliminar(desde, hasta);
+        precios.eliminar(desde, hasta);
+        stocks.eliminar(desde, hasta);
+    }
+
+    @Override
+    public void eliminar(int[] filas) {
+        for (int fila : filas) {
+            totales.restar(precios.get(fila), stocks.get(fila));
+        }
+        ids.eliminar(filas);
+        productos.eliminar(filas);
+        precios.eliminar(filas);
+        stocks.eliminar(filas);
+    }
+
+    @Override
+    public int codigo(String nombre) {
+        return nombres.codigo(nombre);
+    }
+
+    @Override
+    public String nombre(int codigo) {
+        return nombres.texto(codigo);
+    }
+
+    @Override
+    public int nombresDistintos() {
+        return nombres.tamano();
+    }
+
+    @Override
+    public String[] copiarNombres() {
+        return nombres.copiar();
+    }
+
+    @Override
+    public TotalesProductos totales() {
+        return totales;
+    }
+
+    @Override
+    public int[] copiarEnteros(int columna) {
+        switch (columna) {
+            case ModeloProductos.COL_ID:
+                return ids.copiar();
+            case ModeloProductos.COL_PRODUCTO:
+                return productos.copiar();
+            case ModeloProductos.COL_STOCK:
+                return stocks.copiar();
+            default:
+                throw new IllegalArgumentException("La columna " + columna + " no es de enteros");
+        }
+    }
+
+    @Override
+    public double[] copiarPrecios() {
+        return precios.copiar();
+    }
+
+    @Override
+    public long bytes() {
+        return ids.bytes() + productos.bytes() + precios.bytes() + stocks.bytes();
+    }
+
+    @Override
+    public void cerrar() {
+        // Nada que guardar
+    }
+}
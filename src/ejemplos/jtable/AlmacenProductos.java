@@ -0,0 +1,89 @@
+package ejemplos.jtable;
+
+import java.io.IOException;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  AlmacenProductos – DÓNDE viven las filas del modelo        ║
+ * ║                                                             ║
+ * ║  ModeloProductos solo sabe de filas y columnas; quién las   ║
+ * ║  guarda lo decide la implementación:                        ║
+ * ║                                                             ║
+ * ║    AlmacenMemoria  → columnas de primitivos en el heap      ║
+ * ║                      (se pierden al cerrar)                 ║
+ * ║    AlmacenMapeado  → registros de tamaño fijo en un archivo ║
+ * ║                      proyectado con FileChannel.map()       ║
+ * ║                                                             ║
+ * ║  El nombre del producto se guarda como CÓDIGO (int) y el    ║
+ * ║  texto, una vez, en el diccionario del propio almacén.      ║
+ * ║  Los totales (TotalesProductos) también los lleva él: es    ║
+ * ║  quien ve el valor anterior de cada celda que cambia.       ║
+ * ║                                                             ║
+ * ║  Solo desde el EDT (como el modelo que lo usa).             ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+interface AlmacenProductos {
+
+    int filas();
+
+    int getId(int fila);
+
+    int getCodigo(int fila);
+
+    double getPrecio(int fila);
+
+    int getStock(int fila);
+
+    void setId(int fila, int id);
+
+    void setCodigo(int fila, int codigo);
+
+    void setPrecio(int fila, double precio);
+
+    void setStock(int fila, int stock);
+
+    /** Añade una fila al final. */
+    void agregar(int id, int codigo, double precio, int stock);
+
+    /** Quita las filas [desde, hasta] desplazando las siguientes una sola vez. */
+    void eliminar(int desde, int hasta);
+
+    /** Quita varias filas (ordenadas de menor a mayor, sin repetir) en UNA pasada. */
+    void eliminar(int[] filas);
+
+    // ──────────────────────────────────────────────────────────────
+    //  Nombres de producto
+    // ──────────────────────────────────────────────────────────────
+
+    /** Código del nombre (lo añade si es nuevo). */
+    int codigo(String nombre);
+
+    String nombre(int codigo);
+
+    int nombresDistintos();
+
+    /** Todos los nombres, indexados por código. */
+    String[] copiarNombres();
+
+    // ──────────────────────────────────────────────────────────────
+    //  Totales (el almacén los mantiene al cambiar cada celda)
+    // ──────────────────────────────────────────────────────────────
+
+    /** Sumas, mínimo y máximo de Precio y Stock, siempre al día. */
+    TotalesProductos totales();
+
+    // ──────────────────────────────────────────────────────────────
+    //  Copias para otros hilos y estadísticas
+    // ──────────────────────────────────────────────────────────────
+
+    /** Una columna de enteros (ModeloProductos.COL_*) en un único int[]. */
+    int[] copiarEnteros(int columna);
+
+    double[] copiarPrecios();
+
+    /** Bytes reservados para las filas (en el heap o en el archivo). */
+    long bytes();
+
+    /** Deja los cambios en disco y libera los recursos (nada, en memoria). */
+    void cerrar() throws IOException;
+}
@@ -0,0 +1,113 @@
+package ejemplos.jtable;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  CampoProducto – el ESQUEMA de la tabla de productos        ║
+ * ║                                                             ║
+ * ║  Cada columna declara su tipo primitivo y cómo se muestra:  ║
+ * ║                                                             ║
+ * ║    ID          ENTERO   "000"        7      → "007"         ║
+ * ║    Producto    TEXTO    —            (código en Diccionario)║
+ * ║    Precio (€)  DECIMAL  "#,##0.00"   1234.5 → "1.234,50"    ║
+ * ║    Stock       ENTERO   "#,##0"      1500   → "1.500"       ║
+ * ║                                                             ║
+ * ║  Con esto, el modelo sabe en qué columna de primitivos      ║
+ * ║  guardar cada valor, leerEntero() / leerDecimal() convierten║
+ * ║  lo que escribe el usuario UNA sola vez al insertarlo y el  ║
+ * ║  renderizador formatea directamente desde el int/double.    ║
+ * ║                                                             ║
+ * ║  El orden es el de las columnas (ModeloProductos.COL_*).    ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+enum CampoProducto {
+
+    ID("ID", Tipo.ENTERO, "000"),
+    PRODUCTO("Producto", Tipo.TEXTO, null),
+    PRECIO("Precio (€)", Tipo.DECIMAL, "#,##0.00"),
+    STOCK("Stock", Tipo.ENTERO, "#,##0");
+
+    /** Tipo primitivo con el que se guarda la columna. */
+    enum Tipo {
+        ENTERO(Integer.class),
+        DECIMAL(Double.class),
+        TEXTO(String.class);
+
+        private final Class<?> clase;
+
+        Tipo(Class<?> clase) {
+            this.clase = clase;
+        }
+
+        /** Clase que ve la JTable (decide alineación y editor). */
+        Class<?> getClase() {
+            return clase;
+        }
+    }
+
+    private final String titulo;
+    private final Tipo tipo;
+    private final String patron;
+
+    CampoProducto(String titulo, Tipo tipo, String patron) {
+        this.titulo = titulo;
+        this.tipo = tipo;
+        this.patron = patron;
+    }
+
+    String getTitulo() {
+        return titulo;
+    }
+
+    Tipo getTipo() {
+        return tipo;
+    }
+
+    static CampoProducto de(int columna) {
+        return values()[columna];
+    }
+
+    /**
+     * Un formateador NUEVO para esta columna (DecimalFormat no se puede
+     * compartir entre hilos: cada renderizador guarda el suyo).
+     */
+    DecimalFormat crearFormato() {
+        if (patron == null) {
+            throw new IllegalStateException(titulo + " no es numérica");
+        }
+        return new DecimalFormat(patron, DecimalFormatSymbols.getInstance(new Locale("es", "ES")));
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Leer lo que escribe el usuario (una vez, al insertar)
+    // ──────────────────────────────────────────────────────────────
+
+    /** Entero de un texto ("", o espacios → 'vacio'). */
+    int leerEntero(String texto, int vacio) {
+        String limpio = texto.trim();
+        if (limpio.isEmpty()) {
+            return vacio;
+        }
+        try {
+            return Integer.parseInt(limpio);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(titulo + ": \"" + limpio + "\" no es un número entero");
+        }
+    }
+
+    /** Decimal de un texto; admite coma o punto decimal ("7,25"). */
+    double leerDecimal(String texto, double vacio) {
+        String limpio = texto.trim();
+        if (limpio.isEmpty()) {
+            return vacio;
+        }
+        try {
+            return Double.parseDouble(limpio.replace(',', '.'));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(titulo + ": \"" + limpio + "\" no es un número");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ejemplos.jtable;
+
+import java.util.Arrays;
+
+/**
+ * Columna de double en bloques de tamaño fijo: la misma idea que
+ * {@link ColumnaInt} (8 bytes por fila, sin objetos Double).
+ */
+final class ColumnaDouble {
+
+    private static final int BITS_BLOQUE = ColumnaInt.BITS_BLOQUE;
+    private static final int MASCARA = ColumnaInt.TAMANO_BLOQUE - 1;
+
+    private double[][] bloques = new double[4][];
+    private int tamano = 0;
+
+    int tamano() {
+        return tamano;
+    }
+
+    double get(int fila) {
+        return bloques[fila >>> BITS_BLOQUE][fila & MASCARA];
+    }
+
+    void set(int fila, double valor) {
+        bloques[fila >>> BITS_BLOQUE][fila & MASCARA] = valor;
+    }
+
+    void agregar(double valor) {
+        int bloque = tamano >>> BITS_BLOQUE;
+        if (bloque == bloques.length) {
+            bloques = Arrays.copyOf(bloques, bloques.length * 2);
+        }
+        if (bloques[bloque] == null) {
+            bloques[bloque] = new double[ColumnaInt.TAMANO_BLOQUE];
+        }
+        bloques[bloque][tamano & MASCARA] = valor;
+        tamano++;
+    }
+
+    void eliminar(int fila) {
+        eliminar(fila, fila);
+    }
+
+    /** Quita las filas [desde, hasta] desplazando las siguientes una sola vez. */
+    void eliminar(int desde, int hasta) {
+        mover(hasta + 1, desde, tamano - hasta - 1);
+        tamano -= hasta - desde + 1;
+    }
+
+    /**
+     * Quita varias filas (ordenadas de menor a mayor, sin repetir) en UNA
+     * pasada: cada tramo que queda entre dos borradas se mueve una vez.
+     */
+    void eliminar(int[] filas) {
+        int destino = filas[0];
+        for (int i = 0; i < filas.length; i++) {
+            int inicio = filas[i] + 1;
+            int fin = i + 1 < filas.length ? filas[i + 1] : tamano;
+            mover(inicio, destino, fin - inicio);
+            destino += fin - inicio;
+        }
+        tamano -= filas.length;
+    }
+
+    /** Copia 'cantidad' valores hacia atrás (destino < origen), bloque a bloque. */
+    private void mover(int origen, int destino, int cantidad) {
+        while (cantidad > 0) {
+            int enOrigen = origen & MASCARA;
+            int enDestino = destino & MASCARA;
+            int n = Math.min(cantidad, Math.min(ColumnaInt.TAMANO_BLOQUE - enOrigen, ColumnaInt.TAMANO_BLOQUE - enDestino));
+            System.arraycopy(bloques[origen >>> BITS_BLOQUE], enOrigen,
+                    bloques[destino >>> BITS_BLOQUE], enDestino, n);
+            origen += n;
+            destino += n;
+            cantidad -= n;
+        }
+    }
+
+    /** Copia en un único double[] (un arraycopy por bloque). */
+    double[] copiar() {
+        double[] copia = new double[tamano];
+        for (int desde = 0; desde < tamano; desde += ColumnaInt.TAMANO_BLOQUE) {
+            System.arraycopy(bloques[desde >>> BITS_BLOQUE], 0, copia, desde,
+                    Math.min(ColumnaInt.TAMANO_BLOQUE, tamano - desde));
+        }
+        return copia;
+    }
+
+    long bytes() {
+        long total = 0;
+        for (double[] bloque : bloques) {
+            if (bloque != null) {
+                total += 8L * bloque.length;
+            }
+        }
+        return total;
+    }
+}
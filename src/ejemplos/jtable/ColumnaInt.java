@@ -0,0 +1,113 @@
+package ejemplos.jtable;
+
+import java.util.Arrays;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  ColumnaInt – una columna de int en BLOQUES de tamaño fijo  ║
+ * ║                                                             ║
+ * ║  Un int[] que crece por duplicación copia todo lo anterior  ║
+ * ║  y, durante la copia, ocupa el doble. Aquí los datos van en ║
+ * ║  bloques de 65.536 valores: crecer es añadir UN bloque.     ║
+ * ║                                                             ║
+ * ║     fila 200.000 → bloque 200.000 >>> 16 = 3                ║
+ * ║                    posición 200.000 & 0xFFFF = 3.392        ║
+ * ║                                                             ║
+ * ║  4 bytes por fila, sin objetos (frente a un Integer en un   ║
+ * ║  Vector: ~20 bytes más la referencia).                      ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class ColumnaInt {
+
+    static final int BITS_BLOQUE = 16;
+    static final int TAMANO_BLOQUE = 1 << BITS_BLOQUE;
+    private static final int MASCARA = TAMANO_BLOQUE - 1;
+
+    private int[][] bloques = new int[4][];
+    private int tamano = 0;
+
+    int tamano() {
+        return tamano;
+    }
+
+    int get(int fila) {
+        return bloques[fila >>> BITS_BLOQUE][fila & MASCARA];
+    }
+
+    void set(int fila, int valor) {
+        bloques[fila >>> BITS_BLOQUE][fila & MASCARA] = valor;
+    }
+
+    void agregar(int valor) {
+        int bloque = tamano >>> BITS_BLOQUE;
+        if (bloque == bloques.length) {
+            bloques = Arrays.copyOf(bloques, bloques.length * 2); // solo referencias
+        }
+        if (bloques[bloque] == null) {
+            bloques[bloque] = new int[TAMANO_BLOQUE];
+        }
+        bloques[bloque][tamano & MASCARA] = valor;
+        tamano++;
+    }
+
+    /** Quita la fila desplazando las siguientes. */
+    void eliminar(int fila) {
+        eliminar(fila, fila);
+    }
+
+    /** Quita las filas [desde, hasta] desplazando las siguientes una sola vez. */
+    void eliminar(int desde, int hasta) {
+        mover(hasta + 1, desde, tamano - hasta - 1);
+        tamano -= hasta - desde + 1;
+    }
+
+    /**
+     * Quita varias filas (ordenadas de menor a mayor, sin repetir) en UNA
+     * pasada: cada tramo que queda entre dos borradas se mueve una vez.
+     */
+    void eliminar(int[] filas) {
+        int destino = filas[0];
+        for (int i = 0; i < filas.length; i++) {
+            int inicio = filas[i] + 1;
+            int fin = i + 1 < filas.length ? filas[i + 1] : tamano;
+            mover(inicio, destino, fin - inicio);
+            destino += fin - inicio;
+        }
+        tamano -= filas.length;
+    }
+
+    /** Copia 'cantidad' valores hacia atrás (destino < origen), bloque a bloque. */
+    private void mover(int origen, int destino, int cantidad) {
+        while (cantidad > 0) {
+            int enOrigen = origen & MASCARA;
+            int enDestino = destino & MASCARA;
+            int n = Math.min(cantidad, Math.min(TAMANO_BLOQUE - enOrigen, TAMANO_BLOQUE - enDestino));
+            System.arraycopy(bloques[origen >>> BITS_BLOQUE], enOrigen,
+                    bloques[destino >>> BITS_BLOQUE], enDestino, n);
+            origen += n;
+            destino += n;
+            cantidad -= n;
+        }
+    }
+
+    /** Copia en un único int[] (un arraycopy por bloque). */
+    int[] copiar() {
+        int[] copia = new int[tamano];
+        for (int desde = 0; desde < tamano; desde += TAMANO_BLOQUE) {
+            System.arraycopy(bloques[desde >>> BITS_BLOQUE], 0, copia, desde,
+                    Math.min(TAMANO_BLOQUE, tamano - desde));
+        }
+        return copia;
+    }
+
+    /** Bytes reservados (bloques completos). */
+    long bytes() {
+        long total = 0;
+        for (int[] bloque : bloques) {
+            if (bloque != null) {
+                total += 4L * bloque.length;
+            }
+        }
+        return total;
+    }
+}
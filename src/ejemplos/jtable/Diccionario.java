@@ -0,0 +1,56 @@
+package ejemplos.jtable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  Diccionario – cada texto distinto se guarda UNA vez        ║
+ * ║                                                             ║
+ * ║  En un catálogo de millones de filas, los nombres de        ║
+ * ║  producto se repiten mucho. La columna guarda un int        ║
+ * ║  (código) y el texto se busca aquí:                         ║
+ * ║                                                             ║
+ * ║     "Ratón Logitech MX" → 1      textos[1] = "Ratón…"       ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class Diccionario {
+
+    private String[] textos = new String[64];
+    private final Map<String, Integer> codigos = new HashMap<>();
+
+    int tamano() {
+        return codigos.size();
+    }
+
+    /** Código del texto, o -1 si aún no está (no lo añade). */
+    int buscar(String texto) {
+        Integer codigo = codigos.get(texto);
+        return codigo != null ? codigo : -1;
+    }
+
+    /** Código del texto (lo añade si es nuevo). */
+    int codigo(String texto) {
+        Integer codigo = codigos.get(texto);
+        if (codigo != null) {
+            return codigo;
+        }
+        int nuevo = codigos.size();
+        if (nuevo == textos.length) {
+            textos = Arrays.copyOf(textos, nuevo * 2);
+        }
+        textos[nuevo] = texto;
+        codigos.put(texto, nuevo);
+        return nuevo;
+    }
+
+    String texto(int codigo) {
+        return textos[codigo];
+    }
+
+    /** Todos los textos, indexados por código. */
+    String[] copiar() {
+        return Arrays.copyOf(textos, tamano());
+    }
+}
@@ -1,38 +1,64 @@
 package ejemplos.jtable;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
 
 /**
  * ╔═════════════════════════════════════════════════════════════╗
  * ║  EJEMPLO 11 – JTable (tabla de datos)                       ║
  * ║                                                             ║
  * ║  JTable muestra datos en filas y columnas, similar a una    ║
- * ║  hoja de cálculo. Se usa junto con DefaultTableModel,       ║
- * ║  que almacena los datos por separado (patrón MVC).          ║
+ * ║  hoja de cálculo. Se usa junto con un TableModel, que       ║
+ * ║  almacena los datos por separado (patrón MVC).              ║
  * ║                                                             ║
  * ║  Componentes clave:                                         ║
  * ║    • JTable            → la vista (la tabla visual)         ║
- * ║    • DefaultTableModel → el modelo (los datos en memoria)   ║
+ * ║    • ModeloProductos   → el modelo (columnas de primitivos, ║
+ * ║                          pensado para millones de filas)    ║
  * ║    • JScrollPane       → necesario para ver las cabeceras   ║
  * ║                                                             ║
  * ║  Operaciones CRUD demostradas:                              ║
  * ║    • Añadir filas      → modelo.addRow(datos)               ║
- * ║    • Eliminar filas    → modelo.removeRow(indice)           ║
- * ║    • Obtener selección → tabla.getSelectedRow()             ║
+ * ║    • Eliminar filas    → modelo.eliminarFilas(indices)      ║
+ * ║    • Obtener selección → tabla.getSelectedRows()            ║
+ * ║    • Pegar (Ctrl+V)    → filas copiadas de hoja de cálculo  ║
+ * ║    • Ordenar/filtrar   → OrdenadorProductos (RowSorter)     ║
  * ║    • Leer celdas       → modelo.getValueAt(fila, col)       ║
+ * ║    • Importar/exportar → CSV en segundo plano (SwingWorker) ║
  * ╚═════════════════════════════════════════════════════════════╝
  */
 public class EjemploJTable {
 
+    /** Filas que añade el botón "Generar". */
+    private static final int FILAS_GENERADAS = 1_000_000;
+
+    /** Almacén persistente de la tabla (registros de tamaño fijo). */
+    private static final Path ARCHIVO_PRODUCTOS = Paths.get("data", "productos.dat");
+
     public static void launch() {
 
         // ╔═════════════════════════════════════════════════════════════╗
         // ║  VENTANA PRINCIPAL                                          ║
         // ╚═════════════════════════════════════════════════════════════╝
         JFrame ventana = new JFrame("Ejemplo 11 – JTable");
-        ventana.setSize(650, 480);
+        ventana.setSize(900, 500);
         ventana.setLocationRelativeTo(null);
         ventana.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
@@ -40,32 +66,72 @@ public class EjemploJTable {
         panelPrincipal.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         // ╔═════════════════════════════════════════════════════════════╗
-        // ║  DefaultTableModel: el modelo de datos                      ║
+        // ║  ModeloProductos: el modelo de datos                        ║
         // ║                                                             ║
-        // ║  Almacena los datos en un array bidimensional interno.      ║
-        // ║  Constructor: DefaultTableModel(Object[][] datos,           ║
-        // ║                                  Object[] columnas)         ║
+        // ║  Un AbstractTableModel que guarda cada columna en un array  ║
+        // ║  de primitivos (int, double) en lugar de un Vector de       ║
+        // ║  objetos por fila como DefaultTableModel.                   ║
         // ║                                                             ║
         // ║  Métodos importantes:                                       ║
-        // ║    addRow(Object[])       → añadir fila al final            ║
+        // ║    addRow(id, producto, precio, stock) → fila al final      ║
+        // ║    agregarLote(lote)      → muchas filas, UN evento         ║
         // ║    removeRow(int)         → eliminar fila por índice        ║
+        // ║    eliminarFilas(int[])   → varias filas en una pasada      ║
         // ║    getValueAt(int, int)   → obtener valor de una celda      ║
         // ║    setValueAt(obj, f, c)  → modificar valor de una celda    ║
         // ║    getRowCount()          → número de filas actuales        ║
+        // ║                                                             ║
+        // ║  Las filas se guardan en data/productos.dat, proyectado en  ║
+        // ║  memoria (AlmacenMapeado): abrir no lee las filas, y cada   ║
+        // ║  cambio se escribe en su sitio → siguen ahí al volver.      ║
         // ╚═════════════════════════════════════════════════════════════╝
-
-        // Datos iniciales de la tabla
-        Object[][] datosIniciales = {
-                { "001", "Portátil HP Pavilion", 749.99, 5 },
-                { "002", "Ratón Logitech MX", 69.99, 25 },
-                { "003", "Teclado Mecánico", 89.50, 12 },
-                { "004", "Monitor 27\" 4K", 349.00, 3 },
-                { "005", "Auriculares Bluetooth", 45.00, 40 }
-        };
-        String[] columnas = { "ID", "Producto", "Precio (€)", "Stock" };
-
-        // Crear el modelo (NO la tabla directamente con datos)
-        DefaultTableModel modelo = new DefaultTableModel(datosIniciales, columnas);
+        boolean primeraVez = !Files.exists(ARCHIVO_PRODUCTOS);
+        AlmacenProductos almacen;
+        String origen;
+        try {
+            Files.createDirectories(ARCHIVO_PRODUCTOS.getParent());
+            almacen = AlmacenMapeado.abrir(ARCHIVO_PRODUCTOS);
+            origen = ARCHIVO_PRODUCTOS.toString();
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null,
+                    "No se pudo abrir " + ARCHIVO_PRODUCTOS + ":\n" + ex.getMessage()
+                            + "\n\nLa tabla trabajará en memoria (los cambios no se guardarán).",
+                    "Almacén no disponible", JOptionPane.WARNING_MESSAGE);
+            almacen = new AlmacenMemoria();
+            origen = "memoria";
+            primeraVez = true;
+        }
+        ModeloProductos modelo = new ModeloProductos(almacen);
+
+        // Datos iniciales de la tabla (solo si el almacén es nuevo)
+        if (primeraVez) {
+            modelo.addRow(1, "Portátil HP Pavilion", 749.99, 5);
+            modelo.addRow(2, "Ratón Logitech MX", 69.99, 25);
+            modelo.addRow(3, "Teclado Mecánico", 89.50, 12);
+            modelo.addRow(4, "Monitor 27\" 4K", 349.00, 3);
+            modelo.addRow(5, "Auriculares Bluetooth", 45.00, 40);
+        }
+
+        // Al cerrar la ventana: llevar al disco lo que quede y cerrar el archivo.
+        // Antes se cancelan las tareas en marcha (generar, importar, exportar)
+        // y se espera a que ninguna pueda tocar ya el almacén
+        TareasEnCurso tareas = new TareasEnCurso();
+        AlmacenProductos almacenAbierto = almacen;
+        ventana.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                tareas.cancelarTodas(() -> {
+                    try {
+                        almacenAbierto.cerrar();
+                    } catch (IOException ex) {
+                        JOptionPane.showMessageDialog(null,
+                                "No se pudieron guardar los últimos cambios en " + ARCHIVO_PRODUCTOS
+                                        + ":\n" + ex.getMessage(),
+                                "Error al cerrar el almacén", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            }
+        });
 
         // ╔═════════════════════════════════════════════════════════════╗
         // ║  JTable: la vista                                           ║
@@ -73,17 +139,85 @@ public class EjemploJTable {
         // ║  IMPORTANTE: JTable SIEMPRE dentro de un JScrollPane.       ║
         // ║  Sin JScrollPane, las cabeceras de columna NO se ven.       ║
         // ║                                                             ║
-        // ║  La tabla muestra los datos del DefaultTableModel.          ║
+        // ║  La tabla muestra los datos del ModeloProductos.            ║
         // ║  Si modificas el modelo, la tabla se actualiza sola.        ║
+        // ║  Con altura de fila FIJA, la JTable calcula qué filas se    ║
+        // ║  ven sin recorrer las demás (millones de filas sin coste).  ║
         // ╚═════════════════════════════════════════════════════════════╝
-        JTable tabla = new JTable(modelo);
+        // TablaProductos pinta cada celda desde el int/double del modelo
+        // con el formato del esquema (CampoProducto): ID 7 → "007",
+        // precio 1234.5 → "1.234,50"; sin crear un Integer/Double por celda
+        JTable tabla = new TablaProductos(modelo);
         tabla.setFont(new Font("SansSerif", Font.PLAIN, 13));
         tabla.setRowHeight(24);
         tabla.getTableHeader().setFont(new Font("SansSerif", Font.BOLD, 13));
-        tabla.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Varias filas a la vez (Mayús / Ctrl + clic) para eliminarlas juntas
+        tabla.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+
+        // ╔═════════════════════════════════════════════════════════════╗
+        // ║  OrdenadorProductos: ordenar y filtrar sin congelar         ║
+        // ║                                                             ║
+        // ║  Clic en una cabecera → ascendente, descendente, sin orden. ║
+        // ║  El orden se calcula en segundo plano y se guarda por       ║
+        // ║  columna; añadir o eliminar filas lo parchea.               ║
+        // ║                                                             ║
+        // ║  Con un RowSorter, la fila que se VE no es la del modelo:   ║
+        // ║    tabla.convertRowIndexToModel(filaVista)                  ║
+        // ╚═════════════════════════════════════════════════════════════╝
+        OrdenadorProductos ordenador = new OrdenadorProductos(modelo);
+        tabla.setRowSorter(ordenador);
+
+        JTextField campoFiltro = new JTextField(20);
+        campoFiltro.setToolTipText("Muestra solo los productos cuyo nombre contiene este texto");
+        campoFiltro.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                ordenador.setFiltro(campoFiltro.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                ordenador.setFiltro(campoFiltro.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Solo cambios de atributos: no aplica a JTextField
+            }
+        });
+        JPanel panelFiltro = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 0));
+        panelFiltro.add(new JLabel("Filtrar producto:"));
+        panelFiltro.add(campoFiltro);
 
         JScrollPane scrollTabla = new JScrollPane(tabla);
-        scrollTabla.setBorder(BorderFactory.createTitledBorder("Tabla de productos"));
+        scrollTabla.setBorder(BorderFactory.createTitledBorder("Tabla de productos (Ctrl+V pega filas)"));
+
+        // ──────────────────────────────────────────────────────────────
+        //  FILA DE TOTALES: el almacén mantiene sumas, mínimo y máximo
+        //  al cambiar cada celda (TotalesProductos, sin recorrer todas
+        //  las filas) y AgregadosProductos avisa para repintarlos
+        // ──────────────────────────────────────────────────────────────
+        JLabel pieTotales = new JLabel();
+        pieTotales.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        pieTotales.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        AgregadosProductos agregados = new AgregadosProductos(modelo);
+        Runnable actualizarTotales = () -> {
+            if (agregados.getFilas() == 0) {
+                pieTotales.setText("Σ  Sin productos");
+                return;
+            }
+            pieTotales.setText(String.format(
+                    "Σ  Precio: suma %,.2f € · mín %,.2f € · máx %,.2f € · media %,.2f €"
+                            + "   │   Stock: %,d uds.   │   Valor (stock × precio): %,.2f €",
+                    agregados.getSumaPrecios(), agregados.getMinimoPrecio(), agregados.getMaximoPrecio(),
+                    agregados.getMediaPrecios(), agregados.getSumaStock(), agregados.getValorStock()));
+        };
+        agregados.setAlCambiar(actualizarTotales);
+        actualizarTotales.run();
+
+        JPanel panelTabla = new JPanel(new BorderLayout());
+        panelTabla.add(scrollTabla, BorderLayout.CENTER);
+        panelTabla.add(pieTotales, BorderLayout.SOUTH);
 
         // ──────────────────────────────────────────────────────────────
         //  PANEL DE FORMULARIO: campos para añadir nuevos productos
@@ -111,39 +245,71 @@ public class EjemploJTable {
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.CENTER, 8, 4));
 
         JButton botonAnadir = new JButton("Añadir");
-        JButton botonEliminar = new JButton("Eliminar seleccionada");
+        JButton botonEliminar = new JButton("Eliminar seleccionadas");
         JButton botonMostrar = new JButton("Ver seleccionada");
+        JButton botonGenerar = new JButton(String.format("Generar %,d", FILAS_GENERADAS));
+        botonGenerar.setToolTipText("Añade productos inventados para probar la tabla con millones de filas");
 
         panelBotones.add(botonAnadir);
         panelBotones.add(botonEliminar);
         panelBotones.add(botonMostrar);
+        panelBotones.add(botonGenerar);
+
+        // Importar / exportar CSV: en segundo plano, la tabla sigue respondiendo
+        JButton botonImportar = new JButton("Importar CSV…");
+        JButton botonExportar = new JButton("Exportar CSV…");
+        panelBotones.add(botonImportar);
+        panelBotones.add(botonExportar);
 
         // — Barra de estado —
-        JLabel barraEstado = new JLabel("  " + modelo.getRowCount() + " productos en la tabla");
+        JLabel barraEstado = new JLabel(String.format("  %,d productos en la tabla (%s)",
+                modelo.getRowCount(), origen));
         barraEstado.setBorder(BorderFactory.createCompoundBorder(
                 BorderFactory.createMatteBorder(1, 0, 0, 0, Color.LIGHT_GRAY),
                 BorderFactory.createEmptyBorder(4, 4, 4, 4)));
 
+        // Al aplicarse un orden o un filtro: cómo se obtuvo y cuántas filas se ven
+        ordenador.setAlOrdenar(() -> {
+            RowSorter.SortKey clave = ordenador.getSortKeys().isEmpty() ? null : ordenador.getSortKeys().get(0);
+            String orden = clave == null ? "sin orden"
+                    : modelo.getColumnName(clave.getColumn())
+                            + (clave.getSortOrder() == SortOrder.ASCENDING ? " ↑" : " ↓");
+            barraEstado.setText(String.format("  Orden: %s · %s · %,d de %,d filas visibles",
+                    orden, ordenador.describirUltimo(), tabla.getRowCount(), modelo.getRowCount()));
+        });
+
         // ──────────────────────────────────────────────────────────────
         //  EVENTOS DE LOS BOTONES
         // ──────────────────────────────────────────────────────────────
 
-        // Añadir fila → modelo.addRow(Object[])
+        // Añadir fila → modelo.addRow(id, producto, precio, stock)
         botonAnadir.addActionListener(e -> {
-            String id = campoId.getText().trim();
+            String textoId = campoId.getText().trim();
             String producto = campoProducto.getText().trim();
-            String precio = campoPrecio.getText().trim();
-            String stock = campoStock.getText().trim();
 
-            if (id.isEmpty() || producto.isEmpty()) {
+            if (textoId.isEmpty() || producto.isEmpty()) {
                 JOptionPane.showMessageDialog(ventana,
                         "Rellena al menos ID y Producto.",
                         "Datos incompletos", JOptionPane.WARNING_MESSAGE);
                 return;
             }
 
-            // addRow recibe Object[] → cada posición es una columna
-            modelo.addRow(new Object[] { id, producto, precio, stock });
+            // Las columnas son de primitivos: cada texto se convierte AQUÍ,
+            // una sola vez, con el tipo que declara el esquema (vacío = 0)
+            int id;
+            double precio;
+            int stock;
+            try {
+                id = CampoProducto.ID.leerEntero(textoId, 0);
+                precio = CampoProducto.PRECIO.leerDecimal(campoPrecio.getText(), 0);
+                stock = CampoProducto.STOCK.leerEntero(campoStock.getText(), 0);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(ventana, ex.getMessage(),
+                        "Datos no válidos", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+
+            modelo.addRow(id, producto, precio, stock);
 
             // Limpiar campos tras añadir
             campoId.setText("");
@@ -156,40 +322,99 @@ public class EjemploJTable {
                     + modelo.getRowCount() + " filas");
         });
 
-        // Eliminar fila → modelo.removeRow(indice)
+        // Eliminar filas → modelo.eliminarFilas(indices)
         botonEliminar.addActionListener(e -> {
-            // getSelectedRow() devuelve el índice de la fila seleccionada
-            // o -1 si no hay ninguna seleccionada
-            int fila = tabla.getSelectedRow();
-            if (fila == -1) {
+            // getSelectedRows() devuelve los índices (de la VISTA) de todas
+            // las filas seleccionadas; vacío si no hay ninguna
+            int[] filasVista = tabla.getSelectedRows();
+            if (filasVista.length == 0) {
                 JOptionPane.showMessageDialog(ventana,
-                        "Selecciona una fila de la tabla para eliminar.",
+                        "Selecciona una o varias filas de la tabla para eliminar.",
                         "Sin selección", JOptionPane.WARNING_MESSAGE);
                 return;
             }
+            int[] filas = new int[filasVista.length];
+            for (int i = 0; i < filas.length; i++) {
+                filas[i] = tabla.convertRowIndexToModel(filasVista[i]);
+            }
 
             // Leer datos antes de eliminar (para mostrar confirmación)
-            String producto = String.valueOf(modelo.getValueAt(fila, 1));
-            int confirmar = JOptionPane.showConfirmDialog(ventana,
-                    "¿Eliminar \"" + producto + "\"?",
+            String mensaje = filas.length == 1
+                    ? "¿Eliminar \"" + modelo.getProducto(filas[0]) + "\"?"
+                    : String.format("¿Eliminar %,d filas?", filas.length);
+            int confirmar = JOptionPane.showConfirmDialog(ventana, mensaje,
                     "Confirmar eliminación", JOptionPane.YES_NO_OPTION);
 
             if (confirmar == JOptionPane.YES_OPTION) {
-                modelo.removeRow(fila);
-                barraEstado.setText("  ✔ Eliminado \""
-                        + producto + "\". Total: " + modelo.getRowCount() + " filas");
+                // Todas de una vez: las columnas se compactan en una pasada
+                long inicio = System.nanoTime();
+                int eliminadas = modelo.eliminarFilas(filas);
+                barraEstado.setText(String.format("  ✔ Eliminadas %,d filas en %,d ms. Total: %,d filas",
+                        eliminadas, (System.nanoTime() - inicio) / 1_000_000, modelo.getRowCount()));
+            }
+        });
+
+        // Suprimir = pulsar "Eliminar seleccionadas"
+        tabla.getInputMap(JComponent.WHEN_FOCUSED)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, 0), "eliminarFilas");
+        tabla.getActionMap().put("eliminarFilas", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                botonEliminar.doClick();
+            }
+        });
+
+        // ──────────────────────────────────────────────────────────────
+        //  PEGAR (Ctrl+V): filas copiadas de una hoja de cálculo llegan
+        //  como texto separado por tabuladores (ID, Producto, Precio,
+        //  Stock). Se leen con el mismo LectorCsv que la importación y
+        //  se añaden en UN lote: un solo evento, aunque sean miles.
+        // ──────────────────────────────────────────────────────────────
+        tabla.getActionMap().put(TransferHandler.getPasteAction().getValue(Action.NAME), new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (modelo.isSoloLectura()) {
+                    barraEstado.setText("  ✘ No se puede pegar mientras se exporta");
+                    return;
+                }
+                String texto;
+                try {
+                    texto = (String) Toolkit.getDefaultToolkit().getSystemClipboard()
+                            .getData(DataFlavor.stringFlavor);
+                } catch (UnsupportedFlavorException | IOException | IllegalStateException ex) {
+                    barraEstado.setText("  ✘ El portapapeles no contiene texto");
+                    return;
+                }
+
+                long inicio = System.nanoTime();
+                LoteProductos lote = new LoteProductos(1024);
+                try (LectorCsv lector = new LectorCsv(new StringReader(texto), '\t')) {
+                    while (lector.siguiente()) {
+                        ImportacionCsv.leerProducto(lector, lote);
+                    }
+                } catch (IOException ex) {
+                    JOptionPane.showMessageDialog(ventana,
+                            "No se pudo pegar:\n" + ex.getMessage(),
+                            "Error al pegar", JOptionPane.ERROR_MESSAGE);
+                    barraEstado.setText("  ✘ Pegado cancelado: no se añadió ninguna fila");
+                    return;
+                }
+                modelo.agregarLote(lote);
+                barraEstado.setText(String.format("  ✔ Pegadas %,d filas en %,d ms. Total: %,d filas",
+                        lote.tamano(), (System.nanoTime() - inicio) / 1_000_000, modelo.getRowCount()));
             }
         });
 
         // Ver datos de la fila seleccionada → modelo.getValueAt(fila, col)
         botonMostrar.addActionListener(e -> {
-            int fila = tabla.getSelectedRow();
-            if (fila == -1) {
+            int filaVista = tabla.getSelectedRow();
+            if (filaVista == -1) {
                 JOptionPane.showMessageDialog(ventana,
                         "Selecciona una fila para ver sus datos.",
                         "Sin selección", JOptionPane.WARNING_MESSAGE);
                 return;
             }
+            int fila = tabla.convertRowIndexToModel(filaVista);
 
             // Leer cada celda de la fila seleccionada
             StringBuilder info = new StringBuilder();
@@ -202,6 +427,112 @@ public class EjemploJTable {
                     "Datos fila " + (fila + 1), JOptionPane.INFORMATION_MESSAGE);
         });
 
+        // Generar muchas filas: se preparan en un SwingWorker (columnas en
+        // arrays) y se añaden en el EDT con UN solo fireTableRowsInserted
+        botonGenerar.addActionListener(e -> {
+            botonGenerar.setEnabled(false);
+            barraEstado.setText(String.format("  Generando %,d productos...", FILAS_GENERADAS));
+            int primerId = modelo.getSiguienteId();
+            long inicio = System.nanoTime();
+            tareas.lanzar(new SwingWorker<LoteProductos, Void>() {
+                @Override
+                protected LoteProductos doInBackground() {
+                    return generarProductos(primerId, FILAS_GENERADAS);
+                }
+
+                @Override
+                protected void done() {
+                    botonGenerar.setEnabled(true);
+                    if (isCancelled()) {
+                        return; // la ventana se cerró
+                    }
+                    try {
+                        modelo.agregarLote(get());
+                    } catch (InterruptedException | ExecutionException ex) {
+                        barraEstado.setText("  ✘ No se pudieron generar los productos");
+                        JOptionPane.showMessageDialog(ventana, "Error al generar:\n" + ex.getMessage(),
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    barraEstado.setText(String.format(
+                            "  ✔ %,d filas en %.0f ms. Total: %,d filas · %,d nombres distintos · ~%d bytes/fila",
+                            FILAS_GENERADAS, (System.nanoTime() - inicio) / 1e6, modelo.getRowCount(),
+                            modelo.getNombresDistintos(), modelo.getBytes() / Math.max(1, modelo.getRowCount())));
+                }
+            });
+        });
+
+        // ──────────────────────────────────────────────────────────────
+        //  IMPORTAR Y EXPORTAR CSV
+        //
+        //  ImportacionCsv lee con LectorCsv (sin un String por línea) y
+        //  publica lotes de filas → un fireTableRowsInserted por lote.
+        //  ExportacionCsv copia tramos del modelo en el EDT y los
+        //  escribe en el hilo de fondo.
+        // ──────────────────────────────────────────────────────────────
+        Runnable bloquearCsv = () -> {
+            botonImportar.setEnabled(false);
+            botonExportar.setEnabled(false);
+            botonGenerar.setEnabled(false);
+        };
+        Runnable desbloquearCsv = () -> {
+            botonImportar.setEnabled(true);
+            botonExportar.setEnabled(true);
+            botonGenerar.setEnabled(true);
+        };
+
+        // Exportar lee el modelo por tramos: si entre dos tramos se borra,
+        // se añade o se edita una fila, el CSV repetiría o perdería filas.
+        // Importar no lo necesita: solo añade al final.
+        Runnable bloquearEdicion = () -> {
+            if (tabla.isEditing() && !tabla.getCellEditor().stopCellEditing()) {
+                tabla.getCellEditor().cancelCellEditing();
+            }
+            modelo.setSoloLectura(true);
+            botonAnadir.setEnabled(false);
+            botonEliminar.setEnabled(false);   // también Supr: hace doClick()
+        };
+        Runnable desbloquearEdicion = () -> {
+            modelo.setSoloLectura(false);
+            botonAnadir.setEnabled(true);
+            botonEliminar.setEnabled(true);
+        };
+
+        botonImportar.addActionListener(e -> {
+            JFileChooser selector = crearSelectorCsv();
+            if (selector.showOpenDialog(ventana) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            bloquearCsv.run();
+            barraEstado.setText("  Importando " + selector.getSelectedFile().getName() + "…");
+            tareas.lanzar(new ImportacionCsv(selector.getSelectedFile().toPath(), modelo, ventana,
+                    barraEstado, desbloquearCsv));
+        });
+
+        botonExportar.addActionListener(e -> {
+            JFileChooser selector = crearSelectorCsv();
+            selector.setSelectedFile(new File("productos.csv"));
+            if (selector.showSaveDialog(ventana) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            File archivo = selector.getSelectedFile();
+            if (!archivo.getName().contains(".")) {
+                archivo = new File(archivo.getPath() + ".csv");
+            }
+            if (archivo.exists() && JOptionPane.showConfirmDialog(ventana,
+                    "\"" + archivo.getName() + "\" ya existe. ¿Sobrescribirlo?",
+                    "Confirmar", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+                return;
+            }
+            bloquearCsv.run();
+            bloquearEdicion.run();
+            barraEstado.setText("  Exportando a " + archivo.getName() + "…");
+            tareas.lanzar(new ExportacionCsv(archivo.toPath(), modelo, ventana, barraEstado, () -> {
+                desbloquearEdicion.run();
+                desbloquearCsv.run();
+            }));
+        });
+
         // ──────────────────────────────────────────────────────────────
         //  MONTAJE FINAL
         // ──────────────────────────────────────────────────────────────
@@ -210,13 +541,46 @@ public class EjemploJTable {
         panelSur.add(panelBotones, BorderLayout.CENTER);
         panelSur.add(barraEstado, BorderLayout.SOUTH);
 
-        panelPrincipal.add(scrollTabla, BorderLayout.CENTER);
+        panelPrincipal.add(panelFiltro, BorderLayout.NORTH);
+        panelPrincipal.add(panelTabla, BorderLayout.CENTER);
         panelPrincipal.add(panelSur, BorderLayout.SOUTH);
 
         ventana.add(panelPrincipal);
         ventana.setVisible(true);
     }
 
+    private static JFileChooser crearSelectorCsv() {
+        JFileChooser selector = new JFileChooser();
+        selector.setCurrentDirectory(new File("data"));
+        selector.setFileFilter(new FileNameExtensionFilter("Archivos CSV (*.csv)", "csv"));
+        return selector;
+    }
+
+    /**
+     * Productos inventados ("Ratón Logitech 17"): siempre los mismos
+     * (semilla fija) para poder comparar tiempos entre ejecuciones.
+     */
+    private static LoteProductos generarProductos(int primerId, int cantidad) {
+        String[] tipos = { "Portátil", "Ratón", "Teclado", "Monitor", "Auriculares", "Altavoz",
+                "Impresora", "Webcam", "Disco SSD", "Memoria USB", "Router", "Tableta" };
+        String[] marcas = { "HP", "Logitech", "Lenovo", "Samsung", "Asus", "Acer", "Sony", "LG",
+                "Dell", "Xiaomi" };
+        Random aleatorio = new Random(42);
+        // Nombres precalculados: las filas comparten los mismos String
+        String[] nombres = new String[tipos.length * marcas.length * 50];
+        for (int i = 0; i < nombres.length; i++) {
+            nombres[i] = tipos[i % tipos.length] + " " + marcas[(i / tipos.length) % marcas.length]
+                    + " " + (i / (tipos.length * marcas.length) + 1);
+        }
+        LoteProductos lote = new LoteProductos(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            double precio = Math.round((5 + aleatorio.nextDouble() * 995) * 100) / 100.0;
+            lote.agregar(primerId + i, nombres[aleatorio.nextInt(nombres.length)], precio,
+                    aleatorio.nextInt(500));
+        }
+        return lote;
+    }
+
     public static void main(String[] args) {
         launch();
     }
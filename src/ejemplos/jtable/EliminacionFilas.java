@@ -0,0 +1,31 @@
+package ejemplos.jtable;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.TableModel;
+
+/**
+ * Aviso de que se borraron del modelo varias filas SUELTAS de golpe.
+ * <p>
+ * Un {@code TableModelEvent} de tipo DELETE solo describe un bloque
+ * [primera, ultima], y las filas de en medio que siguen en el modelo
+ * no se pueden dejar fuera. Por eso, para cualquier oyente, este
+ * evento es el de fireTableDataChanged(): "ha cambiado todo". Quien
+ * conoce la clase (TablaProductos) lee además la lista exacta de
+ * filas y parchea el ordenador en una pasada en vez de reordenar.
+ */
+final class EliminacionFilas extends TableModelEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] filas;
+
+    EliminacionFilas(TableModel modelo, int[] filas) {
+        super(modelo); // filas 0..MAX_VALUE, UPDATE: lo mismo que fireTableDataChanged()
+        this.filas = filas;
+    }
+
+    /** Filas borradas (índices del modelo ANTES de borrar), de menor a mayor. */
+    int[] getFilas() {
+        return filas;
+    }
+}
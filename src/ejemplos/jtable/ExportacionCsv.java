@@ -0,0 +1,140 @@
+package ejemplos.jtable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  ExportacionCsv – guarda la tabla en un CSV en segundo plano║
+ * ║                                                             ║
+ * ║  El modelo solo se puede tocar desde el EDT. Se copia por   ║
+ * ║  TRAMOS de LOTE filas (invokeAndWait, milisegundos) y cada  ║
+ * ║  tramo se escribe en el hilo de fondo, así que la ventana   ║
+ * ║  sigue respondiendo aunque haya millones de filas.          ║
+ * ║                                                             ║
+ * ║  Cada línea se monta en un único StringBuilder reutilizado: ║
+ * ║  append(int) y append(double) no crean Strings.             ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class ExportacionCsv extends SwingWorker<Long, Long> {
+
+    static final String CABECERA = "ID,Producto,Precio,Stock";
+
+    private final Path archivo;
+    private final ModeloProductos modelo;
+    private final Component padre;
+    private final JLabel barraEstado;
+    private final Runnable alTerminar;
+
+    private final long inicio = System.nanoTime();
+    private LoteProductos tramo;   // lo rellena el EDT, lo lee el hilo de fondo
+
+    ExportacionCsv(Path archivo, ModeloProductos modelo, Component padre, JLabel barraEstado,
+            Runnable alTerminar) {
+        this.archivo = archivo;
+        this.modelo = modelo;
+        this.padre = padre;
+        this.barraEstado = barraEstado;
+        this.alTerminar = alTerminar;
+    }
+
+    @Override
+    protected Long doInBackground() throws IOException, InterruptedException {
+        long filas = 0;
+        StringBuilder linea = new StringBuilder(128);
+        try (Writer salida = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(archivo), StandardCharsets.UTF_8), 64 * 1024)) {
+            salida.write(CABECERA);
+            salida.write('\n');
+            while (!isCancelled()) {
+                int desde = (int) filas;
+                copiarEnEdt(() -> tramo = isCancelled() ? new LoteProductos(0) : modelo.copiar(desde,
+                        Math.min(modelo.getRowCount(), desde + ImportacionCsv.LOTE)));
+                if (tramo.tamano() == 0) {
+                    break;
+                }
+                for (int i = 0; i < tramo.tamano(); i++) {
+                    linea.setLength(0);
+                    linea.append(tramo.ids[i]).append(',');
+                    anadirTexto(linea, tramo.productos[i]);
+                    linea.append(',').append(tramo.precios[i])
+                            .append(',').append(tramo.stocks[i]).append('\n');
+                    salida.append(linea);
+                }
+                filas += tramo.tamano();
+                publish(filas);
+            }
+        }
+        return filas;
+    }
+
+    private static void copiarEnEdt(Runnable copia) throws InterruptedException {
+        try {
+            SwingUtilities.invokeAndWait(copia);
+        } catch (InvocationTargetException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /** Entre comillas solo si hace falta (coma, comillas o salto de línea). */
+    private static void anadirTexto(StringBuilder linea, String texto) {
+        boolean comillas = false;
+        for (int i = 0; i < texto.length() && !comillas; i++) {
+            char c = texto.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            linea.append(texto);
+            return;
+        }
+        linea.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"') {
+                linea.append('"'); // " → ""
+            }
+            linea.append(c);
+        }
+        linea.append('"');
+    }
+
+    @Override
+    protected void process(List<Long> avances) {
+        long filas = avances.get(avances.size() - 1);
+        barraEstado.setText(String.format("  Exportando a %s… %,d filas (%,.0f filas/s)",
+                archivo.getFileName(), filas, filas / segundos()));
+    }
+
+    @Override
+    protected void done() {
+        alTerminar.run();
+        if (isCancelled()) {
+            barraEstado.setText("  Exportación cancelada");
+            return;
+        }
+        try {
+            long filas = get();
+            barraEstado.setText(String.format("  ✔ %,d filas exportadas a %s en %.1f s (%,.0f filas/s)",
+                    filas, archivo.getFileName(), segundos(), filas / segundos()));
+        } catch (InterruptedException | ExecutionException ex) {
+            Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+            barraEstado.setText("  ✘ Error al exportar");
+            JOptionPane.showMessageDialog(padre, "No se pudo exportar a " + archivo.getFileName()
+                    + ":\n" + causa.getMessage(), "Error de exportación", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private double segundos() {
+        return Math.max(1e-9, (System.nanoTime() - inicio) / 1e9);
+    }
+}
@@ -0,0 +1,167 @@
+package ejemplos.jtable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  ImportacionCsv – carga un CSV en la tabla sin bloquearla   ║
+ * ║                                                             ║
+ * ║  doInBackground()  (hilo de fondo)                          ║
+ * ║     LectorCsv → LoteProductos de LOTE filas → publish(lote) ║
+ * ║                                                             ║
+ * ║  process()  (EDT)                                           ║
+ * ║     modelo.agregarLote(lote) → UN fireTableRowsInserted     ║
+ * ║     por lote, no uno por fila                               ║
+ * ║                                                             ║
+ * ║  publish() espera mientras haya EN_VUELO lotes sin añadir:  ║
+ * ║  un disco rápido no llena la memoria de lotes que el EDT    ║
+ * ║  aún no ha tocado.                                          ║
+ * ║                                                             ║
+ * ║  Columnas: ID, Producto, Precio, Stock. Si la primera línea ║
+ * ║  no empieza por un número, se toma como cabecera.           ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class ImportacionCsv extends SwingWorker<Long, LoteProductos> {
+
+    /** Filas por lote publicado. */
+    static final int LOTE = 16_384;
+
+    /** Lotes publicados que aún no ha recogido process(). */
+    static final int EN_VUELO = 4;
+
+    // Un permiso por lote publicado; process() los devuelve
+    private final Semaphore huecos = new Semaphore(EN_VUELO);
+
+    private final Path archivo;
+    private final ModeloProductos modelo;
+    private final Component padre;
+    private final JLabel barraEstado;
+    private final Runnable alTerminar;
+
+    private final long inicio = System.nanoTime();
+    private long agregadas = 0;   // EDT
+
+    /**
+     * @param alTerminar se ejecuta en el EDT al acabar (bien o mal)
+     */
+    ImportacionCsv(Path archivo, ModeloProductos modelo, Component padre, JLabel barraEstado,
+            Runnable alTerminar) {
+        this.archivo = archivo;
+        this.modelo = modelo;
+        this.padre = padre;
+        this.barraEstado = barraEstado;
+        this.alTerminar = alTerminar;
+    }
+
+    @Override
+    protected Long doInBackground() throws IOException {
+        long filas = 0;
+        try (LectorCsv lector = new LectorCsv(
+                new InputStreamReader(Files.newInputStream(archivo), StandardCharsets.UTF_8), ',')) {
+            LoteProductos lote = new LoteProductos(LOTE);
+            while (lector.siguiente() && !isCancelled()) {
+                if (!leerProducto(lector, lote)) {
+                    continue;
+                }
+                filas++;
+                if (lote.tamano() == LOTE) {
+                    if (!entregar(lote)) {
+                        return filas;
+                    }
+                    lote = new LoteProductos(LOTE);
+                }
+            }
+            entregar(lote);
+        }
+        return filas;
+    }
+
+    /** publish() con espera si el EDT va con retraso. Devuelve false si se interrumpió. */
+    private boolean entregar(LoteProductos lote) {
+        try {
+            huecos.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        publish(lote);
+        return true;
+    }
+
+    /**
+     * Añade al lote el registro actual del lector (ID, Producto, Precio,
+     * Stock). Devuelve false si era una línea vacía o la cabecera (la
+     * primera línea, si no empieza por un número).
+     */
+    static boolean leerProducto(LectorCsv lector, LoteProductos lote) throws IOException {
+        if (lector.campos() == 1 && lector.texto(0).isEmpty()) {
+            return false; // línea vacía
+        }
+        int id;
+        try {
+            id = lector.entero(0);
+        } catch (IOException ex) {
+            if (lector.getLinea() == 1) {
+                return false; // cabecera
+            }
+            throw ex;
+        }
+        if (lector.campos() < 4) {
+            throw new IOException("Línea " + lector.getLinea() + ": se esperaban 4 campos y hay "
+                    + lector.campos());
+        }
+        lote.agregar(id, lector.texto(1), lector.decimal(2), lector.entero(3));
+        return true;
+    }
+
+    @Override
+    protected void process(List<LoteProductos> lotes) {
+        huecos.release(lotes.size()); // también al cancelar: el hilo de fondo puede estar esperando
+        if (isCancelled()) {
+            return; // lotes publicados antes de cancelar: ya no se añaden
+        }
+        for (LoteProductos lote : lotes) {
+            modelo.agregarLote(lote);
+            agregadas += lote.tamano();
+        }
+        barraEstado.setText(String.format("  Importando %s… %,d filas (%,.0f filas/s)",
+                archivo.getFileName(), agregadas, filasPorSegundo()));
+    }
+
+    @Override
+    protected void done() {
+        alTerminar.run();
+        if (isCancelled()) {
+            barraEstado.setText(String.format("  Importación cancelada: %,d filas añadidas", agregadas));
+            return;
+        }
+        try {
+            get();
+            barraEstado.setText(String.format("  ✔ %,d filas importadas de %s en %.1f s (%,.0f filas/s). Total: %,d",
+                    agregadas, archivo.getFileName(), segundos(), filasPorSegundo(), modelo.getRowCount()));
+        } catch (InterruptedException | ExecutionException ex) {
+            Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+            barraEstado.setText(String.format("  ✘ Error al importar (%,d filas añadidas)", agregadas));
+            JOptionPane.showMessageDialog(padre, "No se pudo importar " + archivo.getFileName()
+                    + ":\n" + causa.getMessage(), "Error de importación", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private double segundos() {
+        return (System.nanoTime() - inicio) / 1e9;
+    }
+
+    private double filasPorSegundo() {
+        double s = segundos();
+        return s > 0 ? agregadas / s : 0;
+    }
+}
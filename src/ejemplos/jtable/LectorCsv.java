@@ -0,0 +1,357 @@
+package ejemplos.jtable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  LectorCsv – lee un CSV sin crear un String por línea       ║
+ * ║                                                             ║
+ * ║  readLine() + split(",") crea, por cada línea, un String    ║
+ * ║  para la línea, un array y un String por campo… y luego     ║
+ * ║  parseInt/parseDouble los vuelve a recorrer. Aquí:          ║
+ * ║                                                             ║
+ * ║  • Se lee en un char[] de 64 KB. Cada campo es solo un par  ║
+ * ║    (inicio, fin) de posiciones DENTRO de ese buffer.        ║
+ * ║  • entero() y decimal() convierten directamente desde los   ║
+ * ║    chars, sin crear ningún objeto.                          ║
+ * ║  • texto() reutiliza el mismo String si el contenido se     ║
+ * ║    repite (caché pequeña por hash de los chars).            ║
+ * ║  • Si un registro queda cortado al final del buffer, se     ║
+ * ║    mueve al principio, se rellena y se vuelve a analizar.   ║
+ * ║                                                             ║
+ * ║  Formato (RFC 4180): campos separados por 'separador';      ║
+ * ║  entre comillas si contienen el separador, comillas o       ║
+ * ║  saltos de línea; "" dentro de comillas = una comilla.      ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class LectorCsv implements Closeable {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final int TAMANO_CACHE = 4096;   // potencia de 2
+
+    private final Reader entrada;
+    private final char separador;
+
+    private char[] buffer = new char[TAMANO_BUFFER];
+    private int limite = 0;         // chars válidos en buffer
+    private int posicion = 0;       // inicio del siguiente registro
+    private boolean finEntrada = false;
+    private long linea = 0;
+
+    // Campos del registro actual: [inicio, fin) en buffer
+    private int[] inicios = new int[8];
+    private int[] fines = new int[8];
+    private boolean[] comillas = new boolean[8];
+    private int campos = 0;
+
+    private final String[] cache = new String[TAMANO_CACHE];
+    private final StringBuilder escapado = new StringBuilder();
+
+    LectorCsv(Reader entrada, char separador) {
+        this.entrada = entrada;
+        this.separador = separador;
+    }
+
+    /** Nº de línea del registro actual (empieza en 1). */
+    long getLinea() {
+        return linea;
+    }
+
+    int campos() {
+        return campos;
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  REGISTROS                                                  ║
+    // ╚═════════════════════════════════════════════════════════════╝
+
+    /** Avanza al siguiente registro; false al final del archivo. */
+    boolean siguiente() throws IOException {
+        while (true) {
+            int fin = analizar(posicion);
+            if (fin >= 0) {
+                posicion = fin;
+                linea++;
+                return true;
+            }
+            // Registro incompleto en el buffer
+            if (finEntrada) {
+                if (posicion >= limite) {
+                    return false;
+                }
+                // Último registro sin salto de línea final
+                cerrarUltimo();
+                posicion = limite;
+                linea++;
+                return true;
+            }
+            rellenar();
+        }
+    }
+
+    /**
+     * Analiza un registro que empieza en 'desde'. Devuelve dónde empieza
+     * el siguiente, o -1 si el registro no está completo en el buffer.
+     */
+    private int analizar(int desde) {
+        campos = 0;
+        int i = desde;
+        while (true) {
+            if (i >= limite) {
+                return -1;
+            }
+            if (buffer[i] == '"') {
+                // Campo entre comillas: hasta una comilla no doblada
+                int j = i + 1;
+                while (true) {
+                    if (j >= limite) {
+                        return -1;
+                    }
+                    if (buffer[j] == '"') {
+                        if (j + 1 >= limite) {
+                            return -1; // no se sabe si es "" o el cierre
+                        }
+                        if (buffer[j + 1] == '"') {
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                anotar(i + 1, j, true);
+                i = j + 1; // tras la comilla de cierre
+            } else {
+                int j = i;
+                while (j < limite && buffer[j] != separador && buffer[j] != '\n' && buffer[j] != '\r') {
+                    j++;
+                }
+                if (j >= limite) {
+                    return -1;
+                }
+                anotar(i, j, false);
+                i = j;
+            }
+            // Tras el campo: separador, fin de línea (\n, \r\n o \r)
+            if (i >= limite) {
+                return -1;
+            }
+            char c = buffer[i];
+            if (c == separador) {
+                i++;
+                continue;
+            }
+            if (c == '\r') {
+                if (i + 1 >= limite && !finEntrada) {
+                    return -1;
+                }
+                return i + 1 < limite && buffer[i + 1] == '\n' ? i + 2 : i + 1;
+            }
+            if (c == '\n') {
+                return i + 1;
+            }
+            return i + 1; // basura tras una comilla de cierre: se ignora hasta aquí
+        }
+    }
+
+    /** El último registro no acaba en salto de línea: se cierra con el fin del archivo. */
+    private void cerrarUltimo() {
+        // Se añade un '\n' virtual y se vuelve a analizar
+        if (limite == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length + 1);
+        }
+        buffer[limite++] = '\n';
+        analizar(posicion);
+    }
+
+    private void anotar(int inicio, int fin, boolean entreComillas) {
+        if (campos == inicios.length) {
+            inicios = Arrays.copyOf(inicios, campos * 2);
+            fines = Arrays.copyOf(fines, campos * 2);
+            comillas = Arrays.copyOf(comillas, campos * 2);
+        }
+        inicios[campos] = inicio;
+        fines[campos] = fin;
+        comillas[campos] = entreComillas;
+        campos++;
+    }
+
+    /** Mueve lo pendiente al principio y lee más (agranda si no cabe un registro). */
+    private void rellenar() throws IOException {
+        int pendiente = limite - posicion;
+        if (posicion == 0 && limite == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2); // registro enorme
+        } else if (pendiente > 0) {
+            System.arraycopy(buffer, posicion, buffer, 0, pendiente);
+        }
+        limite = pendiente;
+        posicion = 0;
+        int leidos = entrada.read(buffer, limite, buffer.length - limite);
+        if (leidos < 0) {
+            finEntrada = true;
+        } else {
+            limite += leidos;
+            if (linea == 0 && limite > 0 && buffer[0] == '\uFEFF') {
+                posicion = 1; // BOM de UTF-8 al principio del archivo
+            }
+        }
+    }
+
+    // ╔═════════════════════════════════════════════════════════════╗
+    // ║  VALORES DE LOS CAMPOS                                      ║
+    // ╚═════════════════════════════════════════════════════════════╝
+
+    /** Texto del campo; el mismo String si ya apareció hace poco. */
+    String texto(int campo) {
+        int inicio = inicios[campo];
+        int fin = fines[campo];
+        if (comillas[campo] && contieneComillas(inicio, fin)) {
+            escapado.setLength(0);
+            for (int i = inicio; i < fin; i++) {
+                escapado.append(buffer[i]);
+                if (buffer[i] == '"') {
+                    i++; // "" → "
+                }
+            }
+            return escapado.toString();
+        }
+        int hash = 0;
+        for (int i = inicio; i < fin; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        int hueco = (hash ^ (hash >>> 16)) & (TAMANO_CACHE - 1);
+        String guardado = cache[hueco];
+        if (guardado != null && iguales(guardado, inicio, fin)) {
+            return guardado;
+        }
+        String nuevo = new String(buffer, inicio, fin - inicio);
+        cache[hueco] = nuevo;
+        return nuevo;
+    }
+
+    private boolean contieneComillas(int inicio, int fin) {
+        for (int i = inicio; i < fin; i++) {
+            if (buffer[i] == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean iguales(String texto, int inicio, int fin) {
+        if (texto.length() != fin - inicio) {
+            return false;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) != buffer[inicio + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Entero del campo (admite espacios alrededor y signo). */
+    int entero(int campo) throws IOException {
+        int i = saltarEspacios(inicios[campo], fines[campo]);
+        int fin = recortarEspacios(i, fines[campo]);
+        boolean negativo = i < fin && buffer[i] == '-';
+        if (i < fin && (buffer[i] == '-' || buffer[i] == '+')) {
+            i++;
+        }
+        if (i == fin) {
+            throw error(campo, "un número entero");
+        }
+        long valor = 0;
+        for (; i < fin; i++) {
+            char c = buffer[i];
+            if (c < '0' || c > '9') {
+                throw error(campo, "un número entero");
+            }
+            valor = valor * 10 + (c - '0');
+            if (valor > Integer.MAX_VALUE + 1L) {
+                throw error(campo, "un entero de 32 bits");
+            }
+        }
+        valor = negativo ? -valor : valor;
+        if (valor > Integer.MAX_VALUE) {
+            throw error(campo, "un entero de 32 bits");
+        }
+        return (int) valor;
+    }
+
+    // 10^0 … 10^22 son exactos en double: mantisa / 10^k redondea bien
+    private static final double[] POTENCIAS = new double[23];
+
+    static {
+        POTENCIAS[0] = 1;
+        for (int i = 1; i < POTENCIAS.length; i++) {
+            POTENCIAS[i] = POTENCIAS[i - 1] * 10;
+        }
+    }
+
+    /** Número decimal del campo ("12.5", "-3", "7,25" también vale). */
+    double decimal(int campo) throws IOException {
+        int inicio = saltarEspacios(inicios[campo], fines[campo]);
+        int fin = recortarEspacios(inicio, fines[campo]);
+        int i = inicio;
+        boolean negativo = i < fin && buffer[i] == '-';
+        if (i < fin && (buffer[i] == '-' || buffer[i] == '+')) {
+            i++;
+        }
+        long mantisa = 0;
+        int digitos = 0;
+        int decimales = -1;     // -1 = aún no hay separador decimal
+        for (; i < fin; i++) {
+            char c = buffer[i];
+            if (c >= '0' && c <= '9') {
+                mantisa = mantisa * 10 + (c - '0');
+                digitos++;
+                if (decimales >= 0) {
+                    decimales++;
+                }
+            } else if ((c == '.' || c == ',') && decimales < 0) {
+                decimales = 0;
+            } else {
+                break; // exponente u otra cosa: camino lento
+            }
+        }
+        if (i == fin && digitos > 0 && digitos <= 15) {
+            double valor = decimales > 0 ? mantisa / POTENCIAS[decimales] : mantisa;
+            return negativo ? -valor : valor;
+        }
+        // Camino lento (muchos dígitos, "1e3"…): un String temporal
+        try {
+            return Double.parseDouble(new String(buffer, inicio, fin - inicio).replace(',', '.'));
+        } catch (NumberFormatException ex) {
+            throw error(campo, "un número");
+        }
+    }
+
+    private int saltarEspacios(int i, int fin) {
+        while (i < fin && buffer[i] == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private int recortarEspacios(int inicio, int fin) {
+        while (fin > inicio && buffer[fin - 1] == ' ') {
+            fin--;
+        }
+        return fin;
+    }
+
+    private IOException error(int campo, String esperado) {
+        String valor = new String(buffer, inicios[campo], fines[campo] - inicios[campo]);
+        return new IOException("Línea " + linea + ", campo " + (campo + 1)
+                + ": \"" + valor + "\" no es " + esperado);
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+}
@@ -0,0 +1,43 @@
+package ejemplos.jtable;
+
+import java.util.Arrays;
+
+/**
+ * Filas preparadas fuera del EDT (generadas, leídas de un archivo…)
+ * para añadirlas al modelo de golpe con {@link ModeloProductos#agregarLote}.
+ * Guarda cada columna en su propio array, igual que el modelo.
+ */
+final class LoteProductos {
+
+    int[] ids;
+    String[] productos;
+    double[] precios;
+    int[] stocks;
+    private int tamano = 0;
+
+    LoteProductos(int capacidad) {
+        ids = new int[capacidad];
+        productos = new String[capacidad];
+        precios = new double[capacidad];
+        stocks = new int[capacidad];
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    void agregar(int id, String producto, double precio, int stock) {
+        if (tamano == ids.length) {
+            int capacidad = Math.max(16, tamano * 2);
+            ids = Arrays.copyOf(ids, capacidad);
+            productos = Arrays.copyOf(productos, capacidad);
+            precios = Arrays.copyOf(precios, capacidad);
+            stocks = Arrays.copyOf(stocks, capacidad);
+        }
+        ids[tamano] = id;
+        productos[tamano] = producto;
+        precios[tamano] = precio;
+        stocks[tamano] = stock;
+        tamano++;
+    }
+}
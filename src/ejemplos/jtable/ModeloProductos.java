@@ -0,0 +1,305 @@
+package ejemplos.jtable;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  ModeloProductos – TableModel por COLUMNAS de primitivos    ║
+ * ║                                                             ║
+ * ║  DefaultTableModel guarda cada fila como un Vector de       ║
+ * ║  objetos: un Double o un Integer por celda, más el Vector   ║
+ * ║  de la fila. Con millones de filas son cientos de bytes     ║
+ * ║  por fila y mucho trabajo para el recolector de basura.     ║
+ * ║                                                             ║
+ * ║  Aquí cada celda es un primitivo (el tipo de cada columna   ║
+ * ║  lo declara CampoProducto) y las filas las guarda un        ║
+ * ║  AlmacenProductos:                                          ║
+ * ║                                                             ║
+ * ║    AlmacenMemoria  → columnas de primitivos en bloques      ║
+ * ║    AlmacenMapeado  → registros en un archivo proyectado     ║
+ * ║                                                             ║
+ * ║  ≈ 20-24 bytes por fila. La JTable solo pide (getValueAt)   ║
+ * ║  las celdas VISIBLES: desplazarse por 5 millones de filas   ║
+ * ║  cuesta lo mismo que por 50.                                ║
+ * ║                                                             ║
+ * ║  Solo desde el EDT (como cualquier TableModel).             ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+class ModeloProductos extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    // Índices de columna: en el mismo orden que CampoProducto
+    static final int COL_ID = 0;
+    static final int COL_PRODUCTO = 1;
+    static final int COL_PRECIO = 2;
+    static final int COL_STOCK = 3;
+
+    /** Hasta cuántas zonas contiguas se avisa zona a zona al eliminar varias filas. */
+    private static final int MAX_ZONAS = 16;
+
+    private final AlmacenProductos almacen;
+
+    /** Mayor ID + 1; -1 hasta que alguien lo pide (no se recorre al abrir). */
+    private int siguienteId = -1;
+
+    /** Mientras se exporta, ninguna celda es editable. */
+    private boolean soloLectura = false;
+
+    /** Un modelo vacío en memoria. */
+    ModeloProductos() {
+        this(new AlmacenMemoria());
+    }
+
+    /** Un modelo sobre las filas que ya tenga el almacén. */
+    ModeloProductos(AlmacenProductos almacen) {
+        this.almacen = almacen;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  TableModel
+    // ──────────────────────────────────────────────────────────────
+    @Override
+    public int getRowCount() {
+        return almacen.filas();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return CampoProducto.values().length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return CampoProducto.de(columna).getTitulo();
+    }
+
+    // El tipo de cada columna decide cómo la JTable la alinea y la edita
+    // (Double/Integer → a la derecha y solo admite números)
+    @Override
+    public Class<?> getColumnClass(int columna) {
+        return CampoProducto.de(columna).getTipo().getClase();
+    }
+
+    @Override
+    public boolean isCellEditable(int fila, int columna) {
+        return !soloLectura;
+    }
+
+    /**
+     * ExportacionCsv lee el modelo por tramos: si una celda cambia entre
+     * dos tramos, el CSV no sería una foto de un único momento. El resto
+     * de cambios (añadir, borrar, pegar) los bloquea la ventana.
+     */
+    void setSoloLectura(boolean soloLectura) {
+        this.soloLectura = soloLectura;
+    }
+
+    boolean isSoloLectura() {
+        return soloLectura;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        switch (columna) {
+            case COL_ID:
+                return almacen.getId(fila);
+            case COL_PRODUCTO:
+                return almacen.nombre(almacen.getCodigo(fila));
+            case COL_PRECIO:
+                return almacen.getPrecio(fila);
+            default:
+                return almacen.getStock(fila);
+        }
+    }
+
+    /**
+     * El editor de la JTable ya entrega un Integer o un Double según
+     * getColumnClass(). Un texto se convierte con el esquema (una vez).
+     *
+     * @throws IllegalArgumentException si el texto no es del tipo de la columna
+     */
+    @Override
+    public void setValueAt(Object valor, int fila, int columna) {
+        if (valor == null) {
+            return; // celda numérica vaciada en el editor: se deja como estaba
+        }
+        CampoProducto campo = CampoProducto.de(columna);
+        switch (columna) {
+            case COL_ID:
+                int id = valor instanceof Number ? ((Number) valor).intValue()
+                        : campo.leerEntero(valor.toString(), almacen.getId(fila));
+                almacen.setId(fila, id);
+                if (siguienteId >= 0) {
+                    siguienteId = Math.max(siguienteId, id + 1);
+                }
+                break;
+            case COL_PRODUCTO:
+                almacen.setCodigo(fila, almacen.codigo(String.valueOf(valor)));
+                break;
+            case COL_PRECIO:
+                almacen.setPrecio(fila, valor instanceof Number ? ((Number) valor).doubleValue()
+                        : campo.leerDecimal(valor.toString(), almacen.getPrecio(fila)));
+                break;
+            default:
+                almacen.setStock(fila, valor instanceof Number ? ((Number) valor).intValue()
+                        : campo.leerEntero(valor.toString(), almacen.getStock(fila)));
+        }
+        fireTableCellUpdated(fila, columna);
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Acceso sin objetos (para cálculos sobre muchas filas)
+    // ──────────────────────────────────────────────────────────────
+    int getId(int fila) {
+        return almacen.getId(fila);
+    }
+
+    String getProducto(int fila) {
+        return almacen.nombre(almacen.getCodigo(fila));
+    }
+
+    double getPrecio(int fila) {
+        return almacen.getPrecio(fila);
+    }
+
+    int getStock(int fila) {
+        return almacen.getStock(fila);
+    }
+
+    int getCodigoProducto(int fila) {
+        return almacen.getCodigo(fila);
+    }
+
+    String getNombre(int codigo) {
+        return almacen.nombre(codigo);
+    }
+
+    // Copias para trabajar en otro hilo (ordenar, filtrar…) sin tocar el modelo
+    int[] copiarEnteros(int columna) {
+        return almacen.copiarEnteros(columna);
+    }
+
+    double[] copiarPrecios() {
+        return almacen.copiarPrecios();
+    }
+
+    String[] copiarNombres() {
+        return almacen.copiarNombres();
+    }
+
+    /** ID que se propone para el próximo producto (la 1.ª vez recorre los IDs). */
+    int getSiguienteId() {
+        if (siguienteId < 0) {
+            siguienteId = 1;
+            for (int fila = 0; fila < almacen.filas(); fila++) {
+                siguienteId = Math.max(siguienteId, almacen.getId(fila) + 1);
+            }
+        }
+        return siguienteId;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Altas y bajas
+    // ──────────────────────────────────────────────────────────────
+    void addRow(int id, String producto, double precio, int stock) {
+        int fila = getRowCount();
+        guardar(id, producto, precio, stock);
+        fireTableRowsInserted(fila, fila);
+    }
+
+    /** Añade todas las filas del lote con UN solo evento. */
+    void agregarLote(LoteProductos lote) {
+        if (lote.tamano() == 0) {
+            return;
+        }
+        int primera = getRowCount();
+        for (int i = 0; i < lote.tamano(); i++) {
+            guardar(lote.ids[i], lote.productos[i], lote.precios[i], lote.stocks[i]);
+        }
+        fireTableRowsInserted(primera, getRowCount() - 1);
+    }
+
+    private void guardar(int id, String producto, double precio, int stock) {
+        almacen.agregar(id, almacen.codigo(producto), precio, stock);
+        if (siguienteId >= 0) {
+            siguienteId = Math.max(siguienteId, id + 1);
+        }
+    }
+
+    /** Copia las filas [desde, hasta) para usarlas fuera del EDT (exportar…). */
+    LoteProductos copiar(int desde, int hasta) {
+        LoteProductos lote = new LoteProductos(Math.max(0, hasta - desde));
+        for (int fila = desde; fila < hasta; fila++) {
+            lote.agregar(almacen.getId(fila), getProducto(fila),
+                    almacen.getPrecio(fila), almacen.getStock(fila));
+        }
+        return lote;
+    }
+
+    void removeRow(int fila) {
+        almacen.eliminar(fila, fila);
+        fireTableRowsDeleted(fila, fila);
+    }
+
+    /**
+     * Elimina varias filas de golpe (en cualquier orden, puede haber
+     * repetidas). Las columnas se compactan en UNA pasada.
+     * <p>
+     * Los oyentes esperan que cada evento describa el modelo tal como
+     * está al recibirlo: con pocas zonas contiguas se borra zona a zona
+     * desde la última (un evento por zona); con muchas, una sola pasada
+     * y un único {@link EliminacionFilas}: para un oyente cualquiera es
+     * un fireTableDataChanged(), y TablaProductos usa la lista de filas
+     * para que el ordenador también parchee en una pasada.
+     *
+     * @return filas eliminadas
+     */
+    int eliminarFilas(int[] filas) {
+        int[] ordenadas = Arrays.stream(filas).sorted().distinct().toArray();
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int zonas = 1;
+        for (int i = 1; i < ordenadas.length; i++) {
+            if (ordenadas[i] != ordenadas[i - 1] + 1) {
+                zonas++;
+            }
+        }
+        if (zonas > MAX_ZONAS) {
+            almacen.eliminar(ordenadas);
+            fireTableChanged(new EliminacionFilas(this, ordenadas));
+            return ordenadas.length;
+        }
+        int fin = ordenadas.length - 1;
+        while (fin >= 0) {
+            int inicio = fin;
+            while (inicio > 0 && ordenadas[inicio - 1] == ordenadas[inicio] - 1) {
+                inicio--;
+            }
+            int desde = ordenadas[inicio];
+            int hasta = ordenadas[fin];
+            almacen.eliminar(desde, hasta);
+            fireTableRowsDeleted(desde, hasta);
+            fin = inicio - 1;
+        }
+        return ordenadas.length;
+    }
+
+    /** Totales de Precio y Stock (los mantiene el almacén). */
+    TotalesProductos getTotales() {
+        return almacen.totales();
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Memoria (para la barra de estado)
+    // ──────────────────────────────────────────────────────────────
+    long getBytes() {
+        return almacen.bytes();
+    }
+
+    int getNombresDistintos() {
+        return almacen.nombresDistintos();
+    }
+}
@@ -0,0 +1,253 @@
+package ejemplos.jtable;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntPredicate;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  OrdenIndices – ordenar FILAS (int) sin crear objetos       ║
+ * ║                                                             ║
+ * ║  Una permutación es un int[] con números de fila del modelo ║
+ * ║  en el orden en que se ven:  orden[vista] = filaModelo.     ║
+ * ║                                                             ║
+ * ║  • ordenar()  → merge sort de índices con un Comparador de  ║
+ * ║                 primitivos; en paralelo (ForkJoin) si hay   ║
+ * ║                 muchas filas.                               ║
+ * ║  • insertar() / eliminar() / reubicar() → PARCHEAN una      ║
+ * ║                 permutación ya ordenada en O(n), sin volver ║
+ * ║                 a ordenar todo. Devuelven un array nuevo:   ║
+ * ║                 la permutación original no se toca.         ║
+ * ║                                                             ║
+ * ║  El Comparador debe desempatar por número de fila: así el   ║
+ * ║  orden es total y parchear da lo mismo que reordenar.       ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class OrdenIndices {
+
+    /** Compara dos filas del modelo leyendo sus valores primitivos. */
+    interface Comparador {
+        int comparar(int filaA, int filaB);
+    }
+
+    /** Desde aquí se ordena en paralelo. */
+    static final int UMBRAL_PARALELO = 1 << 16;
+    private static final int TROZO_SECUENCIAL = 8192;
+    private static final int TROZO_INSERCION = 32;
+
+    private OrdenIndices() {
+    }
+
+    /** Invierte el comparador, pero los empates siguen en orden de fila. */
+    static Comparador descendente(Comparador comparador) {
+        return (a, b) -> {
+            int r = comparador.comparar(b, a);
+            return r != 0 ? r : Integer.compare(a, b);
+        };
+    }
+
+    static int[] identidad(int filas) {
+        int[] orden = new int[filas];
+        for (int i = 0; i < filas; i++) {
+            orden[i] = i;
+        }
+        return orden;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Ordenar
+    // ──────────────────────────────────────────────────────────────
+    static void ordenar(int[] filas, Comparador comparador) {
+        int[] auxiliar = new int[filas.length];
+        if (filas.length >= UMBRAL_PARALELO) {
+            ForkJoinPool.commonPool().invoke(new Ordenacion(filas, auxiliar, 0, filas.length, comparador));
+        } else {
+            ordenar(filas, auxiliar, 0, filas.length, comparador);
+        }
+    }
+
+    private static void ordenar(int[] filas, int[] auxiliar, int desde, int hasta, Comparador comparador) {
+        if (hasta - desde <= TROZO_INSERCION) {
+            insercion(filas, desde, hasta, comparador);
+            return;
+        }
+        int medio = (desde + hasta) >>> 1;
+        ordenar(filas, auxiliar, desde, medio, comparador);
+        ordenar(filas, auxiliar, medio, hasta, comparador);
+        mezclar(filas, auxiliar, desde, medio, hasta, comparador);
+    }
+
+    /** Cada mitad en una tarea; por debajo de TROZO_SECUENCIAL, en el mismo hilo. */
+    private static final class Ordenacion extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] filas;
+        private final int[] auxiliar;
+        private final int desde;
+        private final int hasta;
+        private final transient Comparador comparador;
+
+        Ordenacion(int[] filas, int[] auxiliar, int desde, int hasta, Comparador comparador) {
+            this.filas = filas;
+            this.auxiliar = auxiliar;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.comparador = comparador;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= TROZO_SECUENCIAL) {
+                ordenar(filas, auxiliar, desde, hasta, comparador);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new Ordenacion(filas, auxiliar, desde, medio, comparador),
+                    new Ordenacion(filas, auxiliar, medio, hasta, comparador));
+            mezclar(filas, auxiliar, desde, medio, hasta, comparador);
+        }
+    }
+
+    private static void insercion(int[] filas, int desde, int hasta, Comparador comparador) {
+        for (int i = desde + 1; i < hasta; i++) {
+            int fila = filas[i];
+            int j = i - 1;
+            while (j >= desde && comparador.comparar(filas[j], fila) > 0) {
+                filas[j + 1] = filas[j];
+                j--;
+            }
+            filas[j + 1] = fila;
+        }
+    }
+
+    /** Mezcla [desde, medio) y [medio, hasta), ya ordenados. */
+    private static void mezclar(int[] filas, int[] auxiliar, int desde, int medio, int hasta,
+            Comparador comparador) {
+        if (comparador.comparar(filas[medio - 1], filas[medio]) <= 0) {
+            return; // ya están en orden (frecuente si los datos venían casi ordenados)
+        }
+        System.arraycopy(filas, desde, auxiliar, desde, hasta - desde);
+        int i = desde;
+        int j = medio;
+        for (int k = desde; k < hasta; k++) {
+            if (j >= hasta || (i < medio && comparador.comparar(auxiliar[i], auxiliar[j]) <= 0)) {
+                filas[k] = auxiliar[i++];
+            } else {
+                filas[k] = auxiliar[j++];
+            }
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Parchear una permutación ordenada
+    // ──────────────────────────────────────────────────────────────
+
+    /**
+     * Se insertaron en el modelo las filas [primera, ultima]: las que
+     * estaban de 'primera' en adelante se desplazan y las nuevas se
+     * ordenan entre sí y se mezclan con las existentes.
+     */
+    static int[] insertar(int[] orden, int primera, int ultima, Comparador comparador) {
+        int nuevas = ultima - primera + 1;
+        int[] anadidas = new int[nuevas];
+        for (int i = 0; i < nuevas; i++) {
+            anadidas[i] = primera + i;
+        }
+        ordenar(anadidas, comparador);
+        int[] resultado = new int[orden.length + nuevas];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < resultado.length; k++) {
+            int existente = i < orden.length ? desplazar(orden[i], primera, nuevas) : -1;
+            if (j >= nuevas || (existente >= 0 && comparador.comparar(existente, anadidas[j]) <= 0)) {
+                resultado[k] = existente;
+                i++;
+            } else {
+                resultado[k] = anadidas[j++];
+            }
+        }
+        return resultado;
+    }
+
+    private static int desplazar(int fila, int primera, int nuevas) {
+        return fila >= primera ? fila + nuevas : fila;
+    }
+
+    /** Se borraron del modelo las filas [primera, ultima]. */
+    static int[] eliminar(int[] orden, int primera, int ultima) {
+        int borradas = ultima - primera + 1;
+        int[] resultado = new int[orden.length - borradas];
+        int k = 0;
+        for (int fila : orden) {
+            if (fila < primera) {
+                resultado[k++] = fila;
+            } else if (fila > ultima) {
+                resultado[k++] = fila - borradas;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Se borraron del modelo las filas 'borradas' (ordenadas, sin repetir).
+     * Cada fila que queda baja tantos puestos como borradas haya por
+     * debajo: una búsqueda binaria por fila, una sola pasada por 'orden'.
+     */
+    static int[] eliminar(int[] orden, int[] borradas) {
+        int[] resultado = new int[orden.length];
+        int k = 0;
+        for (int fila : orden) {
+            int posicion = Arrays.binarySearch(borradas, fila);
+            if (posicion < 0) {
+                // posicion = −(borradas por debajo) − 1
+                resultado[k++] = fila + posicion + 1;
+            }
+        }
+        // Una vista filtrada no tiene por qué contener todas las borradas
+        return k == resultado.length ? resultado : Arrays.copyOf(resultado, k);
+    }
+
+    /**
+     * Cambió el valor de 'fila': se saca de la permutación y se vuelve
+     * a meter en su sitio, buscado con una búsqueda binaria.
+     * Devuelve una permutación nueva (la anterior no se toca).
+     */
+    static int[] reubicar(int[] orden, int fila, Comparador comparador) {
+        int[] resto = new int[orden.length - 1];
+        int k = 0;
+        for (int f : orden) {
+            if (f != fila) {
+                resto[k++] = f;
+            }
+        }
+        int bajo = 0;
+        int alto = resto.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (comparador.comparar(resto[medio], fila) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        int[] resultado = new int[orden.length];
+        System.arraycopy(resto, 0, resultado, 0, bajo);
+        resultado[bajo] = fila;
+        System.arraycopy(resto, bajo, resultado, bajo + 1, resto.length - bajo);
+        return resultado;
+    }
+
+    /** Las filas de 'orden' que cumplen 'incluir', en el mismo orden. */
+    static int[] filtrar(int[] orden, IntPredicate incluir) {
+        int[] resultado = new int[orden.length];
+        int k = 0;
+        for (int fila : orden) {
+            if (incluir.test(fila)) {
+                resultado[k++] = fila;
+            }
+        }
+        return Arrays.copyOf(resultado, k);
+    }
+}
@@ -0,0 +1,530 @@
+package ejemplos.jtable;
+
+import javax.swing.*;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  OrdenadorProductos – RowSorter que ordena en SEGUNDO PLANO ║
+ * ║                                                             ║
+ * ║  TableRowSorter ordena en el EDT, compara Objects (un       ║
+ * ║  Integer o un Double por celda) y vuelve a ordenar TODO     ║
+ * ║  cada vez que cambia el modelo. Con millones de filas la    ║
+ * ║  ventana se congela. Aquí:                                  ║
+ * ║                                                             ║
+ * ║  • Al pulsar una cabecera se COPIA la columna (int[] o      ║
+ * ║    double[]) y se ordena una permutación de filas en un     ║
+ * ║    SwingWorker con comparadores de primitivos (en paralelo  ║
+ * ║    si hay muchas filas). Mientras, se ve el orden anterior. ║
+ * ║  • Cada permutación se guarda por clave de orden ("Precio   ║
+ * ║    ↓"): volver a una clave reciente es instantáneo.         ║
+ * ║  • addRow / removeRow / editar una celda PARCHEAN las       ║
+ * ║    permutaciones guardadas (OrdenIndices) en vez de         ║
+ * ║    reordenar.                                               ║
+ * ║  • Filtro por texto del producto: se evalúa una vez por     ║
+ * ║    nombre DISTINTO del Diccionario, no una vez por fila.    ║
+ * ║                                                             ║
+ * ║  Solo desde el EDT, como la JTable que lo usa.              ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class OrdenadorProductos extends RowSorter<ModeloProductos> {
+
+    /** Permutaciones guardadas (una por clave de orden). */
+    private static final int RECIENTES = 4;
+
+    /** Celdas editadas de golpe que aún se recolocan una a una. */
+    private static final int MAX_REUBICAR = 64;
+
+    private final ModeloProductos modelo;
+    private List<SortKey> claves = Collections.emptyList();
+    private String filtro = "";
+
+    // Permutaciones completas (sin filtrar) de las claves recientes
+    private final Map<SortKey, int[]> cache = new LinkedHashMap<>(8, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SortKey, int[]> mayor) {
+            return size() > RECIENTES;
+        }
+    };
+
+    private int[] vista;            // vista → modelo; null = mismo orden que el modelo
+    private int[] modeloAVista;     // modelo → vista; se calcula al pedirlo
+    private int filasModelo;
+
+    // Orden alfabético de los nombres: rango por código del Diccionario
+    private final Collator collator = Collator.getInstance(new Locale("es", "ES"));
+    private int[] rangos = new int[0];
+    private boolean[] coincide = new boolean[0];  // por código, para el filtro actual
+
+    // Cálculo en segundo plano
+    private boolean calculando = false;
+    private boolean pendiente = false;
+    private long version = 0;       // cambia con todo lo que no sea añadir al final
+    private String ultimo = "";
+    private Runnable alOrdenar = () -> { };
+
+    OrdenadorProductos(ModeloProductos modelo) {
+        this.modelo = modelo;
+        this.filasModelo = modelo.getRowCount();
+    }
+
+    /** Cómo se obtuvo el último orden (para la barra de estado). */
+    String describirUltimo() {
+        return ultimo;
+    }
+
+    /** Se ejecuta en el EDT cada vez que se aplica un orden o filtro pedido. */
+    void setAlOrdenar(Runnable alOrdenar) {
+        this.alOrdenar = alOrdenar;
+    }
+
+    /** Solo se muestran los productos cuyo nombre contiene 'texto'. */
+    void setFiltro(String texto) {
+        String nuevo = texto.trim().toLowerCase(Locale.ROOT);
+        if (nuevo.equals(filtro)) {
+            return;
+        }
+        filtro = nuevo;
+        coincide = new boolean[0];
+        recalcular();
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Claves de orden
+    // ──────────────────────────────────────────────────────────────
+    @Override
+    public ModeloProductos getModel() {
+        return modelo;
+    }
+
+    /** Clic en la cabecera: ascendente → descendente → sin ordenar. */
+    @Override
+    public void toggleSortOrder(int columna) {
+        SortKey actual = claveActual();
+        if (actual == null || actual.getColumn() != columna) {
+            setSortKeys(List.of(new SortKey(columna, SortOrder.ASCENDING)));
+        } else if (actual.getSortOrder() == SortOrder.ASCENDING) {
+            setSortKeys(List.of(new SortKey(columna, SortOrder.DESCENDING)));
+        } else {
+            setSortKeys(null);
+        }
+    }
+
+    /** Solo se usa la primera clave (orden por una columna). */
+    @Override
+    public void setSortKeys(List<? extends SortKey> nuevas) {
+        List<SortKey> limpias = nuevas == null || nuevas.isEmpty()
+                || nuevas.get(0).getSortOrder() == SortOrder.UNSORTED
+                ? Collections.emptyList()
+                : List.of(nuevas.get(0));
+        if (limpias.equals(claves)) {
+            return;
+        }
+        claves = limpias;
+        fireSortOrderChanged();   // la flecha de la cabecera cambia ya
+        recalcular();             // el orden llega cuando esté calculado
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return claves;
+    }
+
+    private SortKey claveActual() {
+        return claves.isEmpty() ? null : claves.get(0);
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Conversión de índices
+    // ──────────────────────────────────────────────────────────────
+    @Override
+    public int convertRowIndexToModel(int filaVista) {
+        return vista == null ? filaVista : vista[filaVista];
+    }
+
+    @Override
+    public int convertRowIndexToView(int filaModelo) {
+        if (vista == null) {
+            return filaModelo;
+        }
+        if (modeloAVista == null) {
+            modeloAVista = new int[filasModelo];
+            Arrays.fill(modeloAVista, -1);  // -1 = oculta por el filtro
+            for (int v = 0; v < vista.length; v++) {
+                modeloAVista[vista[v]] = v;
+            }
+        }
+        return modeloAVista[filaModelo];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return vista == null ? filasModelo : vista.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return modelo.getRowCount();
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Cambios del modelo (los avisa la JTable): se parchea
+    // ──────────────────────────────────────────────────────────────
+    @Override
+    public void rowsInserted(int primera, int ultima) {
+        if (primera < filasModelo) {
+            version++; // no es al final: lo que se esté calculando ya no vale
+        }
+        filasModelo = modelo.getRowCount();
+        for (Map.Entry<SortKey, int[]> entrada : cache.entrySet()) {
+            entrada.setValue(OrdenIndices.insertar(entrada.getValue(), primera, ultima,
+                    comparadorModelo(entrada.getKey())));
+        }
+        modeloAVista = null;
+        if (enCalculo()) {
+            // Hasta que llegue el orden nuevo, las filas añadidas al final
+            // se ven al final (por número de fila)
+            instalar(filtrarEnEdt(OrdenIndices.insertar(vista, primera, ultima, Integer::compare)));
+            return;
+        }
+        ultimo = "parcheado (+" + (ultima - primera + 1) + ")";
+        actualizarVista();
+    }
+
+    @Override
+    public void rowsDeleted(int primera, int ultima) {
+        eliminadas(orden -> OrdenIndices.eliminar(orden, primera, ultima), ultima - primera + 1);
+    }
+
+    /** Filas sueltas borradas de golpe (EliminacionFilas, lo avisa TablaProductos). */
+    void filasEliminadas(int[] borradas) {
+        eliminadas(orden -> OrdenIndices.eliminar(orden, borradas), borradas.length);
+    }
+
+    private void eliminadas(UnaryOperator<int[]> parche, int cuantas) {
+        version++;
+        filasModelo = modelo.getRowCount();
+        for (Map.Entry<SortKey, int[]> entrada : cache.entrySet()) {
+            entrada.setValue(parche.apply(entrada.getValue()));
+        }
+        modeloAVista = null;
+        if (enCalculo()) {
+            instalar(parche.apply(vista));
+            return;
+        }
+        ultimo = "parcheado (−" + cuantas + ")";
+        actualizarVista();
+    }
+
+    @Override
+    public void rowsUpdated(int primera, int ultima) {
+        rowsUpdated(primera, ultima, -1);
+    }
+
+    @Override
+    public void rowsUpdated(int primera, int ultima, int columna) {
+        version++;
+        boolean muchas = ultima - primera + 1 > MAX_REUBICAR;
+        cache.entrySet().removeIf(entrada -> muchas && afecta(entrada.getKey(), columna));
+        for (Map.Entry<SortKey, int[]> entrada : cache.entrySet()) {
+            if (afecta(entrada.getKey(), columna)) {
+                int[] orden = entrada.getValue();
+                OrdenIndices.Comparador comparador = comparadorModelo(entrada.getKey());
+                for (int fila = primera; fila <= ultima; fila++) {
+                    orden = OrdenIndices.reubicar(orden, fila, comparador);
+                }
+                entrada.setValue(orden);
+            }
+        }
+        if (columna < 0 || columna == ModeloProductos.COL_PRODUCTO) {
+            coincide = new boolean[0]; // puede haber nombres nuevos
+        }
+        SortKey clave = claveActual();
+        if (clave != null && !cache.containsKey(clave)) {
+            recalcular();
+        } else if ((clave != null && afecta(clave, columna)) || !filtro.isEmpty()) {
+            ultimo = "parcheado (editado)";
+            actualizarVista();
+        }
+    }
+
+    /** Hay una vista ordenada en pantalla pero la de la clave actual aún no está. */
+    private boolean enCalculo() {
+        return vista != null && claveActual() != null && !cache.containsKey(claveActual());
+    }
+
+    private static boolean afecta(SortKey clave, int columna) {
+        return columna < 0 || clave.getColumn() == columna;
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        version++;
+        filasModelo = modelo.getRowCount();
+        cache.clear();
+        coincide = new boolean[0];
+        instalar(null); // lo anterior ya no vale: orden del modelo hasta que se recalcule
+        recalcular();
+    }
+
+    /** Vuelve a montar la vista a partir de la permutación actual y avisa. */
+    private void actualizarVista() {
+        SortKey clave = claveActual();
+        int[] orden = clave == null ? null : cache.get(clave);
+        if (clave != null && orden == null) {
+            return; // se está calculando: llegará en Calculo.done()
+        }
+        if (vista == null && orden == null && filtro.isEmpty()) {
+            return; // sin orden ni filtro: nada que avisar
+        }
+        instalar(filtrarEnEdt(orden));
+    }
+
+    private int[] filtrarEnEdt(int[] orden) {
+        if (filtro.isEmpty()) {
+            return orden;
+        }
+        int[] base = orden != null ? orden : OrdenIndices.identidad(filasModelo);
+        return OrdenIndices.filtrar(base, fila -> incluir(modelo.getCodigoProducto(fila)));
+    }
+
+    private boolean incluir(int codigo) {
+        if (codigo >= coincide.length) {
+            // Nombres nuevos desde el último cálculo: se evalúan aquí una vez
+            int antes = coincide.length;
+            coincide = Arrays.copyOf(coincide, modelo.getNombresDistintos());
+            for (int c = antes; c < coincide.length; c++) {
+                coincide[c] = contiene(modelo.getNombre(c), filtro);
+            }
+        }
+        return coincide[codigo];
+    }
+
+    private static boolean contiene(String nombre, String filtro) {
+        return nombre.toLowerCase(Locale.ROOT).contains(filtro);
+    }
+
+    private void instalar(int[] nueva) {
+        int[] anterior = vista != null ? vista : OrdenIndices.identidad(filasModelo);
+        vista = nueva;
+        modeloAVista = null;
+        fireRowSorterChanged(anterior);
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Comparadores de primitivos (empates → número de fila)
+    // ──────────────────────────────────────────────────────────────
+
+    /** Lee el modelo en vivo: solo en el EDT. */
+    private OrdenIndices.Comparador comparadorModelo(SortKey clave) {
+        OrdenIndices.Comparador base;
+        switch (clave.getColumn()) {
+            case ModeloProductos.COL_ID:
+                base = (a, b) -> Integer.compare(modelo.getId(a), modelo.getId(b));
+                break;
+            case ModeloProductos.COL_PRODUCTO:
+                base = (a, b) -> compararNombres(modelo.getCodigoProducto(a), modelo.getCodigoProducto(b));
+                break;
+            case ModeloProductos.COL_PRECIO:
+                base = (a, b) -> Double.compare(modelo.getPrecio(a), modelo.getPrecio(b));
+                break;
+            default:
+                base = (a, b) -> Integer.compare(modelo.getStock(a), modelo.getStock(b));
+        }
+        return conSentido(base, clave.getSortOrder());
+    }
+
+    private int compararNombres(int codigoA, int codigoB) {
+        if (codigoA == codigoB) {
+            return 0;
+        }
+        if (codigoA < rangos.length && codigoB < rangos.length) {
+            return Integer.compare(rangos[codigoA], rangos[codigoB]);
+        }
+        return collator.compare(modelo.getNombre(codigoA), modelo.getNombre(codigoB));
+    }
+
+    private static OrdenIndices.Comparador conSentido(OrdenIndices.Comparador base, SortOrder sentido) {
+        if (sentido == SortOrder.DESCENDING) {
+            return OrdenIndices.descendente(base);
+        }
+        return (a, b) -> {
+            int r = base.comparar(a, b);
+            return r != 0 ? r : Integer.compare(a, b);
+        };
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Cálculo en segundo plano
+    // ──────────────────────────────────────────────────────────────
+    private void recalcular() {
+        if (calculando) {
+            pendiente = true; // se repite al terminar el que está en marcha
+            return;
+        }
+        SortKey clave = claveActual();
+        int[] guardado = clave == null ? null : cache.get(clave);
+        if (filtro.isEmpty() && (clave == null || guardado != null)) {
+            ultimo = clave == null ? "orden del modelo" : "caché";
+            instalar(guardado);
+            alOrdenar.run();
+            return;
+        }
+        calculando = true;
+        new Calculo(clave, guardado).execute();
+    }
+
+    /** Lo que calcula el hilo de fondo a partir de una COPIA de las columnas. */
+    private static final class Resultado {
+        int[] orden;        // permutación completa; null si no hay clave
+        int[] vista;        // tras el filtro
+        int[] rangos;       // si se ordenó por Producto
+        boolean[] coincide; // si hay filtro
+        long ms;
+    }
+
+    private final class Calculo extends SwingWorker<Resultado, Void> {
+
+        private final SortKey clave;
+        private final int[] guardado;
+        private final long versionInicial = version;
+        private final int filas = filasModelo;
+        private final String texto = filtro;
+
+        // Copias hechas en el EDT (un arraycopy por bloque)
+        private final int[] enteros;
+        private final double[] precios;
+        private final int[] codigos;
+        private final String[] nombres;
+        private final Collator collatorFondo;
+
+        Calculo(SortKey clave, int[] guardado) {
+            this.clave = clave;
+            this.guardado = guardado;
+            boolean ordenar = clave != null && guardado == null;
+            int columna = ordenar ? clave.getColumn() : -1;
+            boolean porNombre = columna == ModeloProductos.COL_PRODUCTO;
+            enteros = columna == ModeloProductos.COL_ID || columna == ModeloProductos.COL_STOCK
+                    ? modelo.copiarEnteros(columna) : null;
+            precios = columna == ModeloProductos.COL_PRECIO ? modelo.copiarPrecios() : null;
+            codigos = porNombre || !texto.isEmpty() ? modelo.copiarEnteros(ModeloProductos.COL_PRODUCTO) : null;
+            nombres = porNombre || !texto.isEmpty() ? modelo.copiarNombres() : null;
+            collatorFondo = porNombre ? (Collator) collator.clone() : null;
+        }
+
+        @Override
+        protected Resultado doInBackground() {
+            long inicio = System.nanoTime();
+            Resultado r = new Resultado();
+            r.orden = guardado;
+            if (clave != null && guardado == null) {
+                r.orden = OrdenIndices.identidad(filas);
+                OrdenIndices.ordenar(r.orden, conSentido(comparadorCopia(r), clave.getSortOrder()));
+            }
+            if (!texto.isEmpty()) {
+                r.coincide = new boolean[nombres.length];
+                for (int c = 0; c < nombres.length; c++) {
+                    r.coincide[c] = contiene(nombres[c], texto);
+                }
+                boolean[] si = r.coincide;
+                r.vista = OrdenIndices.filtrar(r.orden != null ? r.orden : OrdenIndices.identidad(filas),
+                        fila -> si[codigos[fila]]);
+            } else {
+                r.vista = r.orden;
+            }
+            r.ms = (System.nanoTime() - inicio) / 1_000_000;
+            return r;
+        }
+
+        private OrdenIndices.Comparador comparadorCopia(Resultado r) {
+            switch (clave.getColumn()) {
+                case ModeloProductos.COL_PRODUCTO:
+                    r.rangos = rangosAlfabeticos(nombres, collatorFondo);
+                    int[] rango = r.rangos;
+                    return (a, b) -> Integer.compare(rango[codigos[a]], rango[codigos[b]]);
+                case ModeloProductos.COL_PRECIO:
+                    return (a, b) -> Double.compare(precios[a], precios[b]);
+                default:
+                    return (a, b) -> Integer.compare(enteros[a], enteros[b]);
+            }
+        }
+
+        @Override
+        protected void done() {
+            calculando = false;
+            Resultado r;
+            try {
+                r = get();
+            } catch (InterruptedException | ExecutionException ex) {
+                ultimo = "error al ordenar: " + ex.getMessage();
+                return;
+            }
+            if (pendiente || versionInicial != version) {
+                pendiente = false;
+                recalcular(); // han pedido otra cosa o el modelo cambió: este ya no vale
+                return;
+            }
+            if (r.rangos != null) {
+                rangos = r.rangos;
+            }
+            if (r.coincide != null) {
+                coincide = r.coincide;
+            }
+            int[] orden = r.orden;
+            int[] nueva = r.vista;
+            if (filas < filasModelo) {
+                // Mientras se calculaba se añadieron filas al final: se parchea
+                if (orden != null) {
+                    orden = OrdenIndices.insertar(orden, filas, filasModelo - 1, comparadorModelo(clave));
+                }
+                nueva = filtrarEnEdt(orden);
+            }
+            if (clave != null) {
+                cache.put(clave, orden);
+            }
+            ultimo = (guardado != null ? "caché + filtro" : "calculado") + " en " + r.ms + " ms"
+                    + (filas >= OrdenIndices.UMBRAL_PARALELO && guardado == null && clave != null
+                            ? " (paralelo)" : "");
+            instalar(nueva);
+            alOrdenar.run();
+        }
+    }
+
+    /** Rango alfabético de cada nombre; los que el Collator ve iguales comparten rango. */
+    private static int[] rangosAlfabeticos(String[] nombres, Collator collator) {
+        CollationKey[] clavesTexto = new CollationKey[nombres.length];
+        for (int c = 0; c < nombres.length; c++) {
+            clavesTexto[c] = collator.getCollationKey(nombres[c]);
+        }
+        int[] porOrden = OrdenIndices.identidad(nombres.length);
+        OrdenIndices.ordenar(porOrden, (a, b) -> {
+            int r = clavesTexto[a].compareTo(clavesTexto[b]);
+            return r != 0 ? r : Integer.compare(a, b);
+        });
+        int[] rangos = new int[nombres.length];
+        int rango = 0;
+        for (int i = 0; i < porOrden.length; i++) {
+            if (i > 0 && clavesTexto[porOrden[i - 1]].compareTo(clavesTexto[porOrden[i]]) != 0) {
+                rango++;
+            }
+            rangos[porOrden[i]] = rango;
+        }
+        return rangos;
+    }
+}
@@ -0,0 +1,90 @@
+package ejemplos.jtable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  RenderizadorPrimitivos – pinta una celda SIN objetos       ║
+ * ║                                                             ║
+ * ║  El renderizador por defecto recibe el valor de getValueAt  ║
+ * ║  (un Integer o un Double nuevo por celda y por repintado)   ║
+ * ║  y lo formatea con toString() o String.format().            ║
+ * ║                                                             ║
+ * ║  Este lee el int/double directamente de ModeloProductos     ║
+ * ║  (TablaProductos le pasa valor = null) y lo formatea con un ║
+ * ║  DecimalFormat creado UNA vez según el esquema:             ║
+ * ║                                                             ║
+ * ║    • Enteros pequeños (stock 0…1023) → String en caché.     ║
+ * ║    • El resto → format(long/double, StringBuffer) sobre un  ║
+ * ║      buffer reutilizado.                                    ║
+ * ║                                                             ║
+ * ║  Solo desde el EDT (como cualquier renderizador).           ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class RenderizadorPrimitivos extends DefaultTableCellRenderer {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int ENTEROS_EN_CACHE = 1024;
+
+    private final CampoProducto campo;
+    private final transient DecimalFormat formato;   // null en columnas de texto
+    private final String[] enteros = new String[ENTEROS_EN_CACHE];
+    private final StringBuffer buffer = new StringBuffer(32);
+    private final transient FieldPosition posicion = new FieldPosition(0);
+
+    RenderizadorPrimitivos(CampoProducto campo) {
+        this.campo = campo;
+        boolean texto = campo.getTipo() == CampoProducto.Tipo.TEXTO;
+        this.formato = texto ? null : campo.crearFormato();
+        setHorizontalAlignment(texto ? LEADING : RIGHT);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable tabla, Object valor, boolean seleccionada,
+            boolean foco, int fila, int columna) {
+        // Colores, borde y fuente de la selección / foco
+        super.getTableCellRendererComponent(tabla, null, seleccionada, foco, fila, columna);
+        if (valor == null && tabla.getModel() instanceof ModeloProductos) {
+            setText(texto((ModeloProductos) tabla.getModel(), tabla.convertRowIndexToModel(fila)));
+        } else {
+            setText(valor == null ? "" : formato == null ? valor.toString() : formato.format(valor));
+        }
+        return this;
+    }
+
+    private String texto(ModeloProductos modelo, int fila) {
+        switch (campo) {
+            case ID:
+                return entero(modelo.getId(fila));
+            case PRODUCTO:
+                return modelo.getProducto(fila);   // ya es un String del Diccionario
+            case PRECIO:
+                buffer.setLength(0);
+                return formato.format(modelo.getPrecio(fila), buffer, posicion).toString();
+            default:
+                return entero(modelo.getStock(fila));
+        }
+    }
+
+    private String entero(int valor) {
+        if (valor >= 0 && valor < ENTEROS_EN_CACHE) {
+            String guardado = enteros[valor];
+            if (guardado == null) {
+                guardado = formatear(valor);
+                enteros[valor] = guardado;
+            }
+            return guardado;
+        }
+        return formatear(valor);
+    }
+
+    private String formatear(long valor) {
+        buffer.setLength(0);
+        return formato.format(valor, buffer, posicion).toString();
+    }
+}
@@ -0,0 +1,85 @@
+package ejemplos.jtable;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.TableCellEditor;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+
+/**
+ * JTable para {@link ModeloProductos} que pinta sin crear objetos.
+ * <p>
+ * {@code JTable.prepareRenderer()} siempre llama a {@code getValueAt()},
+ * que devuelve un Integer o un Double nuevo por celda visible en cada
+ * repintado. Aquí, si el renderizador es un {@link RenderizadorPrimitivos},
+ * se le pasa {@code null} y él lee el valor primitivo del modelo.
+ * <p>
+ * También entiende {@link EliminacionFilas}: para JTable sería un
+ * "cambió todo" (reordenar todas las filas); aquí se parchea el
+ * ordenador con la lista de filas borradas.
+ */
+class TablaProductos extends JTable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Uno por columna del modelo (aunque se reordenen las columnas en la vista)
+    private final RenderizadorPrimitivos[] renderizadores;
+
+    TablaProductos(ModeloProductos modelo) {
+        super(modelo);
+        CampoProducto[] campos = CampoProducto.values();
+        renderizadores = new RenderizadorPrimitivos[campos.length];
+        for (CampoProducto campo : campos) {
+            renderizadores[campo.ordinal()] = new RenderizadorPrimitivos(campo);
+        }
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (!(e instanceof EliminacionFilas)) {
+            super.tableChanged(e);
+            return;
+        }
+        // Las filas borradas eran las seleccionadas: no hay selección
+        // ni edición que conservar
+        TableCellEditor editor = getCellEditor();
+        if (editor != null) {
+            editor.cancelCellEditing();
+        }
+        getSelectionModel().clearSelection();
+        RowSorter<?> ordenador = getRowSorter();
+        if (ordenador instanceof OrdenadorProductos) {
+            ((OrdenadorProductos) ordenador).filasEliminadas(((EliminacionFilas) e).getFilas());
+        } else if (ordenador != null) {
+            ordenador.allRowsChanged();
+        }
+        resizeAndRepaint();
+    }
+
+    @Override
+    public TableCellRenderer getCellRenderer(int fila, int columna) {
+        int columnaModelo = convertColumnIndexToModel(columna);
+        if (getColumnModel().getColumn(columna).getCellRenderer() == null
+                && columnaModelo < renderizadores.length) {
+            return renderizadores[columnaModelo];
+        }
+        return super.getCellRenderer(fila, columna);
+    }
+
+    // Igual que JTable.prepareRenderer(), pero sin getValueAt()
+    @Override
+    public Component prepareRenderer(TableCellRenderer renderizador, int fila, int columna) {
+        if (!(renderizador instanceof RenderizadorPrimitivos)) {
+            return super.prepareRenderer(renderizador, fila, columna);
+        }
+        boolean seleccionada = false;
+        boolean foco = false;
+        if (!isPaintingForPrint()) {
+            seleccionada = isCellSelected(fila, columna);
+            foco = getSelectionModel().getLeadSelectionIndex() == fila
+                    && getColumnModel().getSelectionModel().getLeadSelectionIndex() == columna
+                    && isFocusOwner();
+        }
+        return renderizador.getTableCellRendererComponent(this, null, seleccionada, foco, fila, columna);
+    }
+}
@@ -0,0 +1,54 @@
+package ejemplos.jtable;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Los SwingWorker lanzados por la ventana (generar, importar, exportar),
+ * para poder cerrar el almacén sin que ninguno lo toque después.
+ * <p>
+ * cancel() no basta: si el hilo de fondo ya acabó, no cancela nada y
+ * los process() / done() pendientes aún llegarán al EDT. SwingWorker
+ * avisa de state = DONE DESPUÉS de entregarlos, así que "ya no queda
+ * ninguna" es el momento seguro para cerrar.
+ * <p>
+ * Solo desde el EDT.
+ */
+final class TareasEnCurso {
+
+    private final List<SwingWorker<?, ?>> tareas = new ArrayList<>();
+    private Runnable alAcabar;
+
+    /** Ejecuta la tarea y la apunta hasta que termine. */
+    void lanzar(SwingWorker<?, ?> tarea) {
+        tareas.add(tarea);
+        tarea.addPropertyChangeListener(e -> {
+            if (e.getNewValue() == SwingWorker.StateValue.DONE) {
+                tareas.remove(tarea);
+                comprobar();
+            }
+        });
+        tarea.execute();
+    }
+
+    /**
+     * Cancela las tareas y ejecuta 'despues' cuando ninguna pueda tocar
+     * ya el modelo (enseguida, si no había ninguna en marcha).
+     */
+    void cancelarTodas(Runnable despues) {
+        alAcabar = despues;
+        for (SwingWorker<?, ?> tarea : new ArrayList<>(tareas)) {
+            tarea.cancel(false);
+        }
+        comprobar();
+    }
+
+    private void comprobar() {
+        if (tareas.isEmpty() && alAcabar != null) {
+            Runnable accion = alAcabar;
+            alAcabar = null;
+            accion.run();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package ejemplos.jtable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ╔═════════════════════════════════════════════════════════════╗
+ * ║  TotalesProductos – sumas, mínimo y máximo del ALMACÉN      ║
+ * ║                                                             ║
+ * ║  El almacén tiene el valor ANTERIOR de cada celda justo     ║
+ * ║  antes de sobrescribirla o borrarla: resta el viejo y suma  ║
+ * ║  el nuevo, O(1), sin guardar una copia de las columnas.     ║
+ * ║                                                             ║
+ * ║    editar un precio   → restar(anterior) + sumar(nuevo)     ║
+ * ║    añadir una fila    → sumar(fila)                         ║
+ * ║    eliminar una fila  → restar(fila)                        ║
+ * ║    mínimo / máximo    → añadir solo puede ampliarlos; si    ║
+ * ║                         sale el valor extremo, se recorren  ║
+ * ║                         las filas la próxima vez que se     ║
+ * ║                         piden (no se pueden "restar")       ║
+ * ║                                                             ║
+ * ║  AlmacenMapeado los guarda en la cabecera del archivo:      ║
+ * ║  abrir un catálogo no recorre sus filas para sumarlas.      ║
+ * ╚═════════════════════════════════════════════════════════════╝
+ */
+final class TotalesProductos {
+
+    /** Bytes que ocupan dentro de la cabecera de AlmacenMapeado. */
+    static final int BYTES = 48;
+    private static final int POS_SUMA_PRECIOS = 0;
+    private static final int POS_SUMA_STOCK = 8;
+    private static final int POS_VALOR_STOCK = 16;
+    private static final int POS_MINIMO = 24;
+    private static final int POS_MAXIMO = 32;
+    private static final int POS_EXTREMOS = 40;     // 1 = mínimo y máximo al día
+
+    private final AlmacenProductos almacen;        // para volver a recorrer las filas
+    private final ByteBuffer destino;              // cabecera del archivo, o null
+    private final int base;
+
+    private double sumaPrecios;
+    private long sumaStock;
+    private double valorStock;      // Σ stock × precio
+    private double minimo = Double.POSITIVE_INFINITY;
+    private double maximo = Double.NEGATIVE_INFINITY;
+    private boolean extremosValidos = true;
+
+    /** Totales de un almacén vacío, solo en memoria. */
+    TotalesProductos(AlmacenProductos almacen) {
+        this(almacen, null, 0);
+    }
+
+    /**
+     * Totales guardados en 'destino' a partir de 'base': se leen de ahí
+     * y cada cambio se vuelve a escribir. Una cabecera recién creada
+     * (todo ceros) equivale a un almacén vacío.
+     */
+    TotalesProductos(AlmacenProductos almacen, ByteBuffer destino, int base) {
+        this.almacen = almacen;
+        this.destino = destino;
+        this.base = base;
+        if (destino != null) {
+            sumaPrecios = destino.getDouble(base + POS_SUMA_PRECIOS);
+            sumaStock = destino.getLong(base + POS_SUMA_STOCK);
+            valorStock = destino.getDouble(base + POS_VALOR_STOCK);
+            minimo = destino.getDouble(base + POS_MINIMO);
+            maximo = destino.getDouble(base + POS_MAXIMO);
+            extremosValidos = destino.getInt(base + POS_EXTREMOS) == 1;
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Valores
+    // ──────────────────────────────────────────────────────────────
+    double getSumaPrecios() {
+        return sumaPrecios;
+    }
+
+    long getSumaStock() {
+        return sumaStock;
+    }
+
+    double getValorStock() {
+        return valorStock;
+    }
+
+    /** Mínimo de los precios (+∞ si no hay filas). */
+    double getMinimoPrecio() {
+        asegurarExtremos();
+        return minimo;
+    }
+
+    /** Máximo de los precios (−∞ si no hay filas). */
+    double getMaximoPrecio() {
+        asegurarExtremos();
+        return maximo;
+    }
+
+    // ──────────────────────────────────────────────────────────────
+    //  Cambios (los llama el almacén, con los valores que entran/salen)
+    // ──────────────────────────────────────────────────────────────
+
+    /** Entra un valor: fila nueva o valor nuevo de una celda. */
+    void sumar(double precio, int stock) {
+        sumaPrecios += precio;
+        sumaStock += stock;
+        valorStock += precio * stock;
+        if (extremosValidos) {
+            minimo = Math.min(minimo, precio);
+            maximo = Math.max(maximo, precio);
+        }
+        guardar();
+    }
+
+    /** Sale un valor: fila eliminada o valor anterior de una celda. */
+    void restar(double precio, int stock) {
+        sumaPrecios -= precio;
+        sumaStock -= stock;
+        valorStock -= precio * stock;
+        if (precio <= minimo || precio >= maximo) {
+            extremosValidos = false; // salió un extremo: hay que buscar el nuevo
+        }
+        guardar();
+    }
+
+    /** Vuelve a sumar todas las filas (tras un cierre brusco: la cabecera no es fiable). */
+    void recalcular() {
+        sumaPrecios = 0;
+        sumaStock = 0;
+        valorStock = 0;
+        minimo = Double.POSITIVE_INFINITY;
+        maximo = Double.NEGATIVE_INFINITY;
+        extremosValidos = true;
+        for (int fila = 0; fila < almacen.filas(); fila++) {
+            double precio = almacen.getPrecio(fila);
+            int stock = almacen.getStock(fila);
+            sumaPrecios += precio;
+            sumaStock += stock;
+            valorStock += precio * stock;
+            minimo = Math.min(minimo, precio);
+            maximo = Math.max(maximo, precio);
+        }
+        guardar();
+    }
+
+    private void asegurarExtremos() {
+        if (extremosValidos) {
+            return;
+        }
+        minimo = Double.POSITIVE_INFINITY;
+        maximo = Double.NEGATIVE_INFINITY;
+        for (int fila = 0; fila < almacen.filas(); fila++) {
+            double precio = almacen.getPrecio(fila);
+            minimo = Math.min(minimo, precio);
+            maximo = Math.max(maximo, precio);
+        }
+        extremosValidos = true;
+        guardar();
+    }
+
+    private void guardar() {
+        if (destino == null) {
+            return;
+        }
+        destino.putDouble(base + POS_SUMA_PRECIOS, sumaPrecios);
+        destino.putLong(base + POS_SUMA_STOCK, sumaStock);
+        destino.putDouble(base + POS_VALOR_STOCK, valorStock);
+        destino.putDouble(base + POS_MINIMO, minimo);
+        destino.putDouble(base + POS_MAXIMO, maximo);
+        destino.putInt(base + POS_EXTREMOS, extremosValidos ? 1 : 0);
+    }
+}
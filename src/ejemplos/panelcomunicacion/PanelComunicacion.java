@@ -3,6 +3,8 @@ package ejemplos.panelcomunicacion;
 import javax.swing.*;
 import java.awt.*;
 
+import ejemplos.comun.RegistroCircular;
+
 /**
  * ╔═════════════════════════════════════════════════════════════╗
  * ║  EJEMPLO 6 – Comunicación entre paneles (referencia)        ║
@@ -51,8 +53,7 @@ public class PanelComunicacion {
         campoCompartido.setFont(new Font("SansSerif", Font.PLAIN, 14));
 
         // Área de log para ver lo que ocurre
-        JTextArea logResultados = new JTextArea();
-        logResultados.setEditable(false);
+        RegistroCircular logResultados = new RegistroCircular();
         logResultados.setFont(new Font("Monospaced", Font.PLAIN, 12));
         logResultados.setText("Escribe algo arriba y pulsa algún botón...\n"
                 + "──────────────────────────────────────────────\n");
@@ -101,7 +102,7 @@ public class PanelComunicacion {
     // ║    depende directamente del componente del otro panel.      ║
     // ╚═════════════════════════════════════════════════════════════╝
     private static JPanel crearPanelBotones(JTextField campoTexto,
-            JTextArea logResultados, JFrame ventana) {
+            RegistroCircular logResultados, JFrame ventana) {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 8, 6));
         panel.setBorder(BorderFactory.createTitledBorder("Panel de acciones"));
 
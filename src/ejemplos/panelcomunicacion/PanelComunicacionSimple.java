@@ -5,6 +5,8 @@ import javax.swing.event.CaretEvent;
 import javax.swing.event.CaretListener;
 import java.awt.*;
 
+import ejemplos.comun.RegistroCircular;
+
 /**
  * ╔═════════════════════════════════════════════════════════════╗
  * ║  EJEMPLO 7 – Comunicación entre paneles (modelo compartido) ║
@@ -56,8 +58,7 @@ public class PanelComunicacionSimple {
         DatosCompartidos datos = new DatosCompartidos();
 
         // Área de log para ver los cambios
-        JTextArea logResultados = new JTextArea();
-        logResultados.setEditable(false);
+        RegistroCircular logResultados = new RegistroCircular();
         logResultados.setFont(new Font("Monospaced", Font.PLAIN, 12));
         logResultados.setText("Escribe algo arriba y pulsa algún botón...\n"
                 + "Los paneles se comunican a través de DatosCompartidos.\n"
@@ -96,7 +97,7 @@ public class PanelComunicacionSimple {
     // ║    cuando el texto cambia (el cursor se mueve).             ║
     // ╚═════════════════════════════════════════════════════════════╝
     private static JPanel crearPanelEntrada(DatosCompartidos datos,
-            JTextArea logResultados) {
+            RegistroCircular logResultados) {
         JPanel panel = new JPanel(new BorderLayout(5, 0));
         panel.setBorder(BorderFactory.createTitledBorder("Panel de entrada"));
 
@@ -130,7 +131,7 @@ public class PanelComunicacionSimple {
     // ║    completamente sin tocar este panel.                      ║
     // ╚═════════════════════════════════════════════════════════════╝
     private static JPanel crearPanelBotones(DatosCompartidos datos,
-            JTextArea logResultados, JFrame ventana) {
+            RegistroCircular logResultados, JFrame ventana) {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 8, 6));
         panel.setBorder(BorderFactory.createTitledBorder("Panel de acciones"));
 